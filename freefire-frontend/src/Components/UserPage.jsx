@@ -402,6 +402,15 @@ const UserPage = () => {
     .sort((a,b)=> new Date(b.match?.scheduledAt || b.match?.date || 0) - new Date(a.match?.scheduledAt || a.match?.date || 0))
     .slice(0,5);
 
+  // Minutes to start from scheduledAt and the ticking clock; the server's minutesUntilMatch is only as
+  // fresh as the last full /with-status response, since unchanged polls come back as 304s
+  const minutesUntil = (mws) => {
+    const match = mws.match || mws;
+    const parsed = Date.parse(match.scheduledAt || match.date || '');
+    if (!isNaN(parsed)) return Math.trunc((parsed - nowTs) / 60000);
+    return typeof mws.minutesUntilMatch === 'number' ? mws.minutesUntilMatch : Number.POSITIVE_INFINITY;
+  };
+
   // Available matches with time-based rules:
   // - Visible when status is OPEN/UPCOMING
   // - Remain visible for unregistered users until 5 minutes before start, then hide
@@ -415,9 +424,7 @@ const UserPage = () => {
       ? matchWithStatus.isRegistered
       : userRegistrations.some((reg) => reg.matchId === match.id && reg.status === 'CONFIRMED');
 
-    const minutes = typeof matchWithStatus.minutesUntilMatch === 'number'
-      ? matchWithStatus.minutesUntilMatch
-      : Number.POSITIVE_INFINITY;
+    const minutes = minutesUntil(matchWithStatus);
 
   // If user is not registered, hide the card starting 5 minutes before start
   if (!isRegistered && minutes <= 5) return false;
@@ -431,7 +438,7 @@ const UserPage = () => {
     const statusUpper = (match.status || "").toString().toUpperCase();
     if (statusUpper === 'COMPLETED' || statusUpper === 'CANCELLED') return false;
     if (statusUpper === 'LIVE') return true;
-    const minutes = typeof mws.minutesUntilMatch === 'number' ? mws.minutesUntilMatch : Number.POSITIVE_INFINITY;
+    const minutes = minutesUntil(mws);
     // Time-based live window only applies when status isn't explicitly COMPLETED/CANCELLED
     return minutes <= 0 && minutes > -90;
   };
@@ -731,7 +738,7 @@ const UserPage = () => {
                             <div className="room-timer">
                               {isMatchLive(matchWithStatus)
                                 ? '🔴 Live now'
-                                : `⏰ Match starts in ${matchWithStatus.minutesUntilMatch} minutes`}
+                                : `⏰ Match starts in ${minutesUntil(matchWithStatus)} minutes`}
                             </div>
                           </div>
                         )}
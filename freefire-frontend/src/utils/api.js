@@ -127,12 +127,28 @@ export async function getWalletBalance() {
 	return res.json();
 }
 
-export async function getTransactionHistory() {
-	const res = await fetch(`${API_BASE}/api/wallet/transactions`, { 
-		headers: authHeaders() 
+// One page of wallet history, newest first. nextCursor is null on the last page.
+export async function getTransactionPage(cursor, limit = 100) {
+	const params = new URLSearchParams({ limit: String(limit) });
+	if (cursor) params.set('cursor', cursor);
+	const res = await fetch(`${API_BASE}/api/wallet/transactions?${params}`, {
+		headers: authHeaders()
 	});
 		if (!res.ok) { handleUnauthorized(res); throw new Error('Failed to get transaction history'); }
-	return res.json();
+	const transactions = await res.json();
+	return { transactions, nextCursor: res.headers.get('X-Next-Cursor') };
+}
+
+// The whole wallet history, following the server's page cursor
+export async function getTransactionHistory() {
+	const all = [];
+	let cursor = null;
+	do {
+		const page = await getTransactionPage(cursor);
+		all.push(...page.transactions);
+		cursor = page.nextCursor;
+	} while (cursor);
+	return all;
 }
 
 export async function addMoney(amount) {
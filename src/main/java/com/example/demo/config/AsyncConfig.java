@@ -1,7 +1,10 @@
 package com.example.demo.config;
 
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
@@ -14,16 +17,30 @@ import java.util.concurrent.Executor;
 public class AsyncConfig {
 
     @Bean(name = "taskExecutor")
-    public Executor taskExecutor() {
+    @ConditionalOnThreading(Threading.PLATFORM)
+    public Executor taskExecutor(DbBulkhead bulkhead) {
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
         // Slightly larger pool to send emails without blocking HTTP threads
         executor.setCorePoolSize(4);
         executor.setMaxPoolSize(8);
         executor.setQueueCapacity(200);
         executor.setThreadNamePrefix("Async-Executor-");
+        executor.setTaskDecorator(bulkhead.backgroundTaskDecorator());
         executor.setWaitForTasksToCompleteOnShutdown(true);
         executor.setAwaitTerminationSeconds(10);
         executor.initialize();
         return executor;
     }
+
+    // With spring.threads.virtual.enabled every @Async task gets its own virtual thread;
+    // database access is bounded by VirtualThreadConfig instead of by pool size
+    @Bean(name = "taskExecutor")
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    public Executor virtualTaskExecutor(DbBulkhead bulkhead) {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("Async-Virtual-");
+        executor.setVirtualThreads(true);
+        executor.setTaskDecorator(bulkhead.backgroundTaskDecorator());
+        executor.setTaskTerminationTimeout(10_000);
+        return executor;
+    }
 }
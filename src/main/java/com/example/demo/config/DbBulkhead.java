@@ -0,0 +1,268 @@
+package com.example.demo.config;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Per-class budgets on the primary connection pool. Every HTTP request and
+ * background task is bound to a {@link Compartment}; a connection checkout
+ * takes a permit from its compartment's semaphore and returns it when the
+ * connection is closed. The PAYMENTS budget is a reservation: the other
+ * budgets together may use at most the rest of the pool, checked at startup,
+ * so a burst in any other class (say, admin result entry) can never take the
+ * connections that wallet and registration writes need.
+ * <p>
+ * Requests wait at most app.db.bulkhead.max-wait for a permit and are then
+ * shed (DbBulkheadFilter answers 503) instead of queueing on Hikari for the
+ * full connection-timeout; background work waits as long as Hikari would.
+ * Unbound threads (startup, Flyway) are not gated, nor are further
+ * connections of a thread that already holds a permit, so nested
+ * transactions cannot deadlock on their own budget.
+ */
+@Component
+public class DbBulkhead {
+
+    public enum Compartment {
+        /** Wallet, UPI, match registration and account writes */
+        PAYMENTS,
+        /** Player-facing reads and other player traffic */
+        PLAYER_READS,
+        /** Admin endpoints */
+        ADMIN,
+        /** @Scheduled ticks, lifecycle timers and @Async work */
+        SCHEDULER
+    }
+
+    private static final ThreadLocal<Compartment> CURRENT = new ThreadLocal<>();
+    private static final ThreadLocal<int[]> HELD = ThreadLocal.withInitial(() -> new int[1]);
+    private static final ThreadLocal<Boolean> SHED = new ThreadLocal<>();
+
+    private final Map<Compartment, Semaphore> permits = new EnumMap<>(Compartment.class);
+    private final Map<Compartment, Timer> admitted = new EnumMap<>(Compartment.class);
+    private final Map<Compartment, Timer> rejected = new EnumMap<>(Compartment.class);
+    private final Duration maxWait;
+    private final Duration backgroundMaxWait;
+
+    public DbBulkhead(MeterRegistry meterRegistry,
+            @Value("${spring.datasource.hikari.maximum-pool-size:10}") int poolSize,
+            @Value("${app.db.bulkhead.payments:2}") int payments,
+            @Value("${app.db.bulkhead.player-reads:1}") int playerReads,
+            @Value("${app.db.bulkhead.admin:1}") int admin,
+            @Value("${app.db.bulkhead.scheduler:1}") int scheduler,
+            @Value("${app.db.bulkhead.max-wait:250ms}") Duration maxWait,
+            @Value("${spring.datasource.hikari.connection-timeout:15000}") long backgroundMaxWaitMillis) {
+        this.maxWait = maxWait;
+        this.backgroundMaxWait = Duration.ofMillis(backgroundMaxWaitMillis);
+        Map<Compartment, Integer> sizes = Map.of(Compartment.PAYMENTS, payments, Compartment.PLAYER_READS, playerReads,
+                Compartment.ADMIN, admin, Compartment.SCHEDULER, scheduler);
+        checkBudgets(poolSize, sizes);
+        for (Compartment compartment : Compartment.values()) {
+            Semaphore semaphore = new Semaphore(sizes.get(compartment), true);
+            permits.put(compartment, semaphore);
+            String tag = compartment.name().toLowerCase();
+            admitted.put(compartment, Timer.builder("db.bulkhead.wait")
+                    .description("Time spent waiting for a connection permit")
+                    .tag("compartment", tag)
+                    .tag("outcome", "admitted")
+                    .register(meterRegistry));
+            rejected.put(compartment, Timer.builder("db.bulkhead.wait")
+                    .description("Time spent waiting for a connection permit")
+                    .tag("compartment", tag)
+                    .tag("outcome", "rejected")
+                    .register(meterRegistry));
+            Gauge.builder("db.bulkhead.available", semaphore, Semaphore::availablePermits)
+                    .description("Free connection permits")
+                    .tag("compartment", tag)
+                    .register(meterRegistry);
+        }
+    }
+
+    private static void checkBudgets(int poolSize, Map<Compartment, Integer> sizes) {
+        sizes.forEach((compartment, size) -> {
+            if (size < 1) {
+                throw new IllegalStateException("app.db.bulkhead budget for " + compartment + " must be at least 1, was " + size);
+            }
+        });
+        int reserved = sizes.get(Compartment.PAYMENTS);
+        int shared = sizes.values().stream().mapToInt(Integer::intValue).sum() - reserved;
+        if (reserved + shared > poolSize) {
+            throw new IllegalStateException("app.db.bulkhead budgets other than payments add up to " + shared
+                    + ", but only " + (poolSize - reserved) + " of the " + poolSize
+                    + " pool connections are left after the payments reservation of " + reserved);
+        }
+    }
+
+    /**
+     * Bind the current thread to a compartment until {@link #unbind()}.
+     */
+    static void bind(Compartment compartment) {
+        CURRENT.set(compartment);
+        SHED.remove();
+    }
+
+    static void unbind() {
+        CURRENT.remove();
+        SHED.remove();
+    }
+
+    /**
+     * Whether a connection checkout on this thread was refused since
+     * {@link #bind}.
+     */
+    static boolean wasShed() {
+        return SHED.get() != null;
+    }
+
+    /**
+     * Runs background tasks bound to {@link Compartment#SCHEDULER}.
+     */
+    public TaskDecorator backgroundTaskDecorator() {
+        return task -> () -> runAsBackground(task);
+    }
+
+    /**
+     * Run background work on the calling thread, bound to
+     * {@link Compartment#SCHEDULER}. The task opens its own connections, so it
+     * takes its own permit even if the caller already holds one, and a shed
+     * inside it is not reported as the caller's.
+     */
+    public void runAsBackground(Runnable task) {
+        Compartment previous = CURRENT.get();
+        Boolean previousShed = SHED.get();
+        int[] previousHeld = HELD.get();
+        HELD.set(new int[1]);
+        bind(Compartment.SCHEDULER);
+        try {
+            task.run();
+        } finally {
+            HELD.set(previousHeld);
+            if (previous != null) {
+                CURRENT.set(previous);
+            } else {
+                CURRENT.remove();
+            }
+            if (previousShed != null) {
+                SHED.set(previousShed);
+            } else {
+                SHED.remove();
+            }
+        }
+    }
+
+    DataSource wrap(DataSource target) {
+        if (target instanceof VirtualThreadConfig.ConnectionAdmissionDataSource gate) {
+            return new BulkheadDataSource(gate.getTargetDataSource(), gate);
+        }
+        return new BulkheadDataSource(target, null);
+    }
+
+    /**
+     * Take a permit for the current thread's compartment; returns the
+     * semaphore to release on close, or null when the checkout is not gated.
+     */
+    private Semaphore admit() throws SQLException {
+        Compartment compartment = CURRENT.get();
+        if (compartment == null || HELD.get()[0] > 0) {
+            return null;
+        }
+        Semaphore semaphore = permits.get(compartment);
+        Duration wait = compartment == Compartment.SCHEDULER ? backgroundMaxWait : maxWait;
+        long start = System.nanoTime();
+        boolean acquired;
+        try {
+            acquired = semaphore.tryAcquire(wait.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Interrupted while waiting for a " + compartment + " connection permit", e);
+        }
+        long waited = System.nanoTime() - start;
+        if (!acquired) {
+            rejected.get(compartment).record(waited, TimeUnit.NANOSECONDS);
+            SHED.set(Boolean.TRUE);
+            throw new SQLTransientConnectionException(
+                    "Connection budget for " + compartment + " exhausted, request shed after " + wait.toMillis() + "ms");
+        }
+        admitted.get(compartment).record(waited, TimeUnit.NANOSECONDS);
+        HELD.get()[0]++;
+        return semaphore;
+    }
+
+    /**
+     * Takes the compartment permit, then the pool admission permit when
+     * virtual threads are on, and returns both when the connection closes.
+     */
+    private final class BulkheadDataSource extends DelegatingDataSource {
+
+        private final VirtualThreadConfig.ConnectionAdmissionDataSource admission;
+
+        BulkheadDataSource(DataSource target, VirtualThreadConfig.ConnectionAdmissionDataSource admission) {
+            super(target);
+            this.admission = admission;
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return checkout(super::getConnection);
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return checkout(() -> super.getConnection(username, password));
+        }
+
+        private Connection checkout(Checkout pool) throws SQLException {
+            // Released against this counter even if the thread's is swapped by runAsBackground
+            int[] held = HELD.get();
+            Semaphore semaphore = admit();
+            boolean gated = false;
+            try {
+                if (admission != null) {
+                    admission.acquire();
+                    gated = true;
+                }
+                Connection connection = pool.get();
+                if (semaphore == null && !gated) {
+                    return connection;
+                }
+                boolean releaseGate = gated;
+                return ReleasingConnection.wrap(connection, () -> release(semaphore, held, releaseGate));
+            } catch (SQLException | RuntimeException e) {
+                release(semaphore, held, gated);
+                throw e;
+            }
+        }
+
+        private void release(Semaphore semaphore, int[] held, boolean gated) {
+            if (gated) {
+                admission.release();
+            }
+            if (semaphore != null) {
+                held[0]--;
+                semaphore.release();
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface Checkout {
+
+        Connection get() throws SQLException;
+    }
+}
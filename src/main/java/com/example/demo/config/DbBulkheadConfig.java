@@ -0,0 +1,68 @@
+package com.example.demo.config;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.task.SimpleAsyncTaskSchedulerCustomizer;
+import org.springframework.boot.task.ThreadPoolTaskSchedulerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+/**
+ * Wires DbBulkhead in: the primary pool is wrapped so checkouts are budgeted,
+ * and scheduler threads (@Scheduled ticks and match lifecycle timers) run
+ * bound to the SCHEDULER compartment. The @Async executors are decorated in
+ * AsyncConfig.
+ */
+@Configuration
+public class DbBulkheadConfig {
+
+    @Bean
+    public static BeanPostProcessor dbBulkheadPostProcessor(ObjectProvider<DbBulkhead> bulkhead) {
+        return new DbBulkheadPostProcessor(bulkhead);
+    }
+
+    @Bean
+    public ThreadPoolTaskSchedulerCustomizer dbBulkheadSchedulerCustomizer(DbBulkhead bulkhead) {
+        return scheduler -> scheduler.setTaskDecorator(bulkhead.backgroundTaskDecorator());
+    }
+
+    @Bean
+    public SimpleAsyncTaskSchedulerCustomizer dbBulkheadVirtualSchedulerCustomizer(DbBulkhead bulkhead) {
+        return scheduler -> scheduler.setTaskDecorator(bulkhead.backgroundTaskDecorator());
+    }
+
+    /**
+     * Wraps the pool behind the primary database: Boot's dataSource, or
+     * primaryDataSource when ReadReplicaConfig is active (its dataSource is
+     * the routing proxy, and replica reads do not draw on primary budgets).
+     * Runs after VirtualThreadConfig's admission wrapper and takes over its
+     * gate, so a checkout goes through one proxy, not two.
+     */
+    static final class DbBulkheadPostProcessor implements BeanPostProcessor, Ordered {
+
+        private final ObjectProvider<DbBulkhead> bulkhead;
+
+        DbBulkheadPostProcessor(ObjectProvider<DbBulkhead> bulkhead) {
+            this.bulkhead = bulkhead;
+        }
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (bean instanceof DataSource dataSource
+                    && !(bean instanceof LazyConnectionDataSourceProxy)
+                    && ("dataSource".equals(beanName) || "primaryDataSource".equals(beanName))) {
+                return bulkhead.getObject().wrap(dataSource);
+            }
+            return bean;
+        }
+
+        @Override
+        public int getOrder() {
+            return Ordered.LOWEST_PRECEDENCE;
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.demo.config;
+
+import java.io.IOException;
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.example.demo.config.DbBulkhead.Compartment;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Binds each API request to its DbBulkhead compartment and turns a refused
+ * connection checkout into 503 with Retry-After. Controllers commonly catch
+ * exceptions and answer 400, so the shed is detected from the bulkhead rather
+ * than from the exception, and replaces whatever response was being built.
+ * <p>
+ * Ordered ahead of the Spring Security filter chain, so the user lookup in
+ * JwtAuthenticationFilter is budgeted (and shed) with the rest of the request.
+ */
+@Component
+@Order(SecurityProperties.DEFAULT_FILTER_ORDER - 1)
+public class DbBulkheadFilter extends OncePerRequestFilter {
+
+    private final long retryAfterSeconds;
+
+    public DbBulkheadFilter(@Value("${app.db.bulkhead.retry-after:2s}") Duration retryAfter) {
+        this.retryAfterSeconds = Math.max(1, retryAfter.toSeconds());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+            HttpServletResponse response,
+            FilterChain filterChain) throws ServletException, IOException {
+
+        Compartment compartment = classify(request.getMethod(),
+                request.getRequestURI().substring(request.getContextPath().length()));
+        if (compartment == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        DbBulkhead.bind(compartment);
+        try {
+            try {
+                filterChain.doFilter(request, response);
+            } catch (IOException | ServletException | RuntimeException e) {
+                if (!DbBulkhead.wasShed()) {
+                    throw e;
+                }
+            }
+            if (DbBulkhead.wasShed() && !response.isCommitted()) {
+                response.reset();
+                response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+                response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+                response.setContentType("application/json");
+                response.getWriter().write("{\"error\":\"BUSY\",\"message\":\"Server is busy. Please retry shortly.\"}");
+            }
+        } finally {
+            DbBulkhead.unbind();
+        }
+    }
+
+    /**
+     * Compartment for a request path, or null for traffic that is not gated
+     * (CORS preflight, actuator, the long-lived match stream).
+     */
+    static Compartment classify(String method, String path) {
+        if ("OPTIONS".equals(method) || path.equals("/api/matches/stream")) {
+            return null;
+        }
+        boolean read = "GET".equals(method) || "HEAD".equals(method);
+        if (path.startsWith("/api/upi/admin/") || path.startsWith("/api/withdrawals/admin/")
+                || path.startsWith("/api/match-results/")) {
+            return Compartment.ADMIN;
+        }
+        if (path.startsWith("/api/matches")) {
+            return read ? Compartment.PLAYER_READS : Compartment.ADMIN;
+        }
+        if (path.startsWith("/api/wallet/") || path.startsWith("/api/upi/")
+                || path.startsWith("/api/registrations") || path.startsWith("/api/profile/")
+                || path.startsWith("/auth/")) {
+            return read ? Compartment.PLAYER_READS : Compartment.PAYMENTS;
+        }
+        if (path.startsWith("/api/")) {
+            return Compartment.PLAYER_READS;
+        }
+        return null;
+    }
+}
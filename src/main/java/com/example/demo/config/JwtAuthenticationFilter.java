@@ -9,7 +9,9 @@ import org.springframework.security.web.authentication.WebAuthenticationDetailsS
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
+import com.example.demo.service.BusinessMetrics;
 import com.example.demo.service.JwtService;
+import com.example.demo.service.ParsedToken;
 import com.example.demo.service.Userservice;
 
 import io.jsonwebtoken.ExpiredJwtException;
@@ -25,6 +27,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
     private final Userservice userService;
+    private final BusinessMetrics metrics;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request,
@@ -39,25 +42,28 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             return;
         }
 
+        final long started = System.nanoTime();
+        String outcome = "invalid";
         try {
             final String jwt = authHeader.substring(7);
-            final String userEmail = jwtService.extractemail(jwt);
+            // One signature check; expired tokens throw ExpiredJwtException here
+            final ParsedToken token = jwtService.parse(jwt);
+            final String userEmail = token.getSubject();
 
             if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                UserDetails userDetails = userService.loadUserByUsername(userEmail);
+                UserDetails userDetails = userService.loadPrincipal(userEmail, token.expiresAtMillis());
 
-                if (jwtService.isTokenValid(jwt, userDetails)) {
-                    UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                            userDetails,
-                            null,
-                            userDetails.getAuthorities()
-                    );
-                    authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                    SecurityContextHolder.getContext().setAuthentication(authToken);
-                } else {
-                }
+                UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
+                        userDetails,
+                        null,
+                        userDetails.getAuthorities()
+                );
+                authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                SecurityContextHolder.getContext().setAuthentication(authToken);
             }
+            outcome = "authenticated";
         } catch (ExpiredJwtException eje) {
+            metrics.time("auth.jwt", started, "outcome", "expired");
             // Explicitly signal an expired token so clients can react (e.g., auto sign-out)
             logger.error("Could not set user authentication due to expired JWT", eje);
             response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
@@ -68,6 +74,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         } catch (Exception e) {
             logger.error("Could not set user authentication: {}", e);
         }
+        metrics.time("auth.jwt", started, "outcome", outcome);
 
         filterChain.doFilter(request, response);
     }
@@ -0,0 +1,20 @@
+package com.example.demo.config;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Keeps read-only transactions started inside the annotated method (or any
+ * method of the annotated class) on the primary database even when a read
+ * replica is configured. Use it for reads that must see the caller's own
+ * just-committed writes or that an admin acts on immediately. Has no effect
+ * without a replica.
+ */
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface ReadFromPrimary {
+}
@@ -0,0 +1,214 @@
+package com.example.demo.config;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.sql.DataSource;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.flyway.FlywayDataSource;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Read replica (app.datasource.replica.url set). Transactions marked
+ * {@code @Transactional(readOnly = true)} run on a separately pooled replica,
+ * so player-facing history and results reads stop competing with payments
+ * and registrations for the primary's five connections; everything else, and
+ * reads under {@link ReadFromPrimary}, stays on the primary. The replica is
+ * only used while its replay lag is within app.datasource.replica.max-lag;
+ * when it falls behind or cannot be reached, reads fall back to the primary
+ * until the next lag check passes.
+ * <p>
+ * The routing DataSource sits behind a LazyConnectionDataSourceProxy, so the
+ * physical connection is chosen at the first statement, after the
+ * transaction manager has published the read-only flag.
+ */
+@Configuration
+@ConditionalOnExpression("!'${app.datasource.replica.url:}'.isBlank()")
+@Slf4j
+public class ReadReplicaConfig {
+
+    /**
+     * Replication lag in seconds; 0 when every received WAL record has been
+     * replayed (an idle primary sends no new transactions to time against),
+     * or when the server is not a standby at all.
+     */
+    private static final String DEFAULT_LAG_QUERY
+            = "SELECT CASE WHEN NOT pg_is_in_recovery() OR pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0"
+            + " ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()), 0) END";
+
+    @Bean
+    @FlywayDataSource
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    @ConfigurationProperties("app.datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(DataSourceProperties properties,
+            @Value("${app.datasource.replica.url}") String url,
+            @Value("${app.datasource.replica.username:}") String username,
+            @Value("${app.datasource.replica.password:}") String password) {
+        return DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .driverClassName(properties.determineDriverClassName())
+                .url(url)
+                .username(username.isBlank() ? properties.determineUsername() : username)
+                .password(password.isBlank() ? properties.determinePassword() : password)
+                .build();
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primary,
+            @Qualifier("replicaDataSource") DataSource replica,
+            ReplicaLagMonitor lagMonitor) {
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(lagMonitor);
+        routing.setTargetDataSources(Map.of(Route.PRIMARY, primary, Route.REPLICA, replica));
+        routing.setDefaultTargetDataSource(primary);
+        routing.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(@Qualifier("replicaDataSource") DataSource replica,
+            @Value("${app.datasource.replica.lag-query:}") String lagQuery,
+            @Value("${app.datasource.replica.max-lag:5s}") Duration maxLag,
+            MeterRegistry meterRegistry) {
+        return new ReplicaLagMonitor(replica, lagQuery.isBlank() ? DEFAULT_LAG_QUERY : lagQuery, maxLag, meterRegistry);
+    }
+
+    @Bean
+    public PrimaryReadsAspect primaryReadsAspect() {
+        return new PrimaryReadsAspect();
+    }
+
+    enum Route {
+        PRIMARY, REPLICA
+    }
+
+    static final class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+        private static final ThreadLocal<Boolean> PINNED_TO_PRIMARY = new ThreadLocal<>();
+
+        private final ReplicaLagMonitor lagMonitor;
+
+        ReplicaRoutingDataSource(ReplicaLagMonitor lagMonitor) {
+            this.lagMonitor = lagMonitor;
+        }
+
+        @Override
+        protected Object determineCurrentLookupKey() {
+            if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                    && PINNED_TO_PRIMARY.get() == null
+                    && lagMonitor.isUsable()) {
+                return Route.REPLICA;
+            }
+            return Route.PRIMARY;
+        }
+    }
+
+    /**
+     * Applies {@link ReadFromPrimary}. Runs outside the transaction advice so
+     * the pin is in place before the transaction's first statement.
+     */
+    @Aspect
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    static final class PrimaryReadsAspect {
+
+        @Around("@annotation(com.example.demo.config.ReadFromPrimary) || @within(com.example.demo.config.ReadFromPrimary)")
+        public Object pinToPrimary(ProceedingJoinPoint joinPoint) throws Throwable {
+            if (ReplicaRoutingDataSource.PINNED_TO_PRIMARY.get() != null) {
+                return joinPoint.proceed();
+            }
+            ReplicaRoutingDataSource.PINNED_TO_PRIMARY.set(Boolean.TRUE);
+            try {
+                return joinPoint.proceed();
+            } finally {
+                ReplicaRoutingDataSource.PINNED_TO_PRIMARY.remove();
+            }
+        }
+    }
+
+    /**
+     * Polls the replica's replay lag; until the first check succeeds, and
+     * whenever one fails or exceeds max-lag, reads stay on the primary.
+     */
+    static final class ReplicaLagMonitor {
+
+        private final JdbcTemplate jdbcTemplate;
+        private final String lagQuery;
+        private final Duration maxLag;
+        private final AtomicLong lagMillis = new AtomicLong(-1);
+        private volatile boolean usable;
+
+        ReplicaLagMonitor(DataSource replica, String lagQuery, Duration maxLag, MeterRegistry meterRegistry) {
+            this.jdbcTemplate = new JdbcTemplate(replica);
+            // A hung replica must not stall the shared scheduler thread
+            this.jdbcTemplate.setQueryTimeout(2);
+            this.lagQuery = lagQuery;
+            this.maxLag = maxLag;
+            Gauge.builder("db.replica.lag", lagMillis, v -> v.get() / 1000.0)
+                    .description("Replica replay lag in seconds (-1 when unreachable)")
+                    .baseUnit("seconds")
+                    .register(meterRegistry);
+            Gauge.builder("db.replica.usable", this, m -> m.usable ? 1 : 0)
+                    .description("Whether read-only transactions are currently routed to the replica")
+                    .register(meterRegistry);
+        }
+
+        boolean isUsable() {
+            return usable;
+        }
+
+        @Scheduled(fixedDelayString = "${app.datasource.replica.lag-check-interval-ms:5000}")
+        void check() {
+            boolean nowUsable;
+            try {
+                Number seconds = jdbcTemplate.queryForObject(lagQuery, Number.class);
+                long millis = seconds != null ? Math.round(seconds.doubleValue() * 1000) : 0;
+                lagMillis.set(millis);
+                nowUsable = millis <= maxLag.toMillis();
+                if (!nowUsable && usable) {
+                    log.warn("Replica lag {}ms exceeds {}, routing reads to primary", millis, maxLag);
+                }
+            } catch (DataAccessException e) {
+                lagMillis.set(-1);
+                nowUsable = false;
+                if (usable) {
+                    log.warn("Replica unreachable, routing reads to primary: {}", e.getMessage());
+                }
+            }
+            if (nowUsable && !usable) {
+                log.info("Replica within lag tolerance, routing read-only transactions to it");
+            }
+            usable = nowUsable;
+        }
+    }
+}
@@ -51,6 +51,7 @@ public class SecurityConfig {
                 .requestMatchers("/api/upi/admin/**").hasAuthority("ADMIN")
                 .requestMatchers("/api/withdrawals/admin/**").hasAuthority("ADMIN")
                 .requestMatchers("/api/match-results/**").hasAuthority("ADMIN")
+                .requestMatchers("/actuator/metrics/**", "/actuator/prometheus").hasAuthority("ADMIN")
                 // Non-GET on matches require ADMIN (create/update/credentials)
                 .requestMatchers(HttpMethod.POST, "/api/matches/**").hasAuthority("ADMIN")
                 .requestMatchers(HttpMethod.PUT, "/api/matches/**").hasAuthority("ADMIN")
@@ -85,8 +86,8 @@ public class SecurityConfig {
         }
         configuration.setAllowedOrigins(origins);
         configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "DELETE", "OPTIONS", "PATCH"));
-        configuration.setAllowedHeaders(Arrays.asList("Authorization", "Content-Type", "Accept", "Origin", "X-Requested-With"));
-        configuration.setExposedHeaders(Arrays.asList("Authorization"));
+        configuration.setAllowedHeaders(Arrays.asList("Authorization", "Content-Type", "Accept", "Origin", "X-Requested-With", "If-None-Match"));
+        configuration.setExposedHeaders(Arrays.asList("Authorization", "X-Next-Cursor", "ETag"));
         // Allow credentials only if not using wildcard
         configuration.setAllowCredentials(!origins.contains("*"));
         configuration.setMaxAge(3600L);
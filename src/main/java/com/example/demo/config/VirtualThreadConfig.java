@@ -0,0 +1,118 @@
+package com.example.demo.config;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Virtual-thread mode (spring.threads.virtual.enabled=true). Tomcat, @Async
+ * and @Scheduled then run on virtual threads, which removes the thread-pool
+ * limit on concurrency; the Hikari pool (5 connections) becomes the real
+ * limit. Connection checkout is therefore gated by a fair semaphore sized to
+ * the pool, so thousands of virtual threads queue in FIFO order on a cheap
+ * park instead of spinning through Hikari's handoff and timing out in bulk.
+ */
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadConfig {
+
+    @Bean
+    public static BeanPostProcessor connectionAdmissionPostProcessor() {
+        return new ConnectionAdmissionPostProcessor();
+    }
+
+    /**
+     * Ordered first, so it still sees the HikariDataSource; DbBulkheadConfig
+     * then finds this gate and folds it into its own checkout.
+     */
+    static final class ConnectionAdmissionPostProcessor implements BeanPostProcessor, Ordered {
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (bean instanceof HikariDataSource hikari) {
+                return new ConnectionAdmissionDataSource(hikari,
+                        hikari.getMaximumPoolSize(), hikari.getConnectionTimeout());
+            }
+            return bean;
+        }
+
+        @Override
+        public int getOrder() {
+            return Ordered.HIGHEST_PRECEDENCE;
+        }
+    }
+
+    /**
+     * Hands out at most {@code permits} connections at a time; a permit is
+     * returned when the connection is closed. DbBulkhead unwraps this gate
+     * and takes the permit in its own checkout, so a bulkheaded connection
+     * still goes through a single proxy.
+     */
+    static final class ConnectionAdmissionDataSource extends DelegatingDataSource {
+
+        private final Semaphore permits;
+        private final long timeoutMillis;
+
+        ConnectionAdmissionDataSource(DataSource target, int permits, long timeoutMillis) {
+            super(target);
+            this.permits = new Semaphore(permits, true);
+            this.timeoutMillis = timeoutMillis;
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            acquire();
+            try {
+                return releasing(super.getConnection());
+            } catch (SQLException | RuntimeException e) {
+                release();
+                throw e;
+            }
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            acquire();
+            try {
+                return releasing(super.getConnection(username, password));
+            } catch (SQLException | RuntimeException e) {
+                release();
+                throw e;
+            }
+        }
+
+        void acquire() throws SQLException {
+            try {
+                if (!permits.tryAcquire(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                    throw new SQLTransientConnectionException(
+                            "Connection is not available, request timed out after " + timeoutMillis + "ms");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SQLTransientConnectionException("Interrupted while waiting for a connection", e);
+            }
+        }
+
+        void release() {
+            permits.release();
+        }
+
+        private Connection releasing(Connection target) {
+            return ReleasingConnection.wrap(target, this::release);
+        }
+    }
+}
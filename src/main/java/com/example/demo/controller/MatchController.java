@@ -1,14 +1,19 @@
 package com.example.demo.controller;
 
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Map;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.util.DigestUtils;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -17,7 +22,10 @@ import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import com.example.demo.dto.CredentialDeliveryResponse;
 import com.example.demo.dto.MatchCreateRequest;
 import com.example.demo.dto.MatchWithRegistrationStatus;
 import com.example.demo.entity.Match;
@@ -26,6 +34,9 @@ import com.example.demo.entity.MatchType;
 import com.example.demo.entity.User;
 import com.example.demo.repository.RegistrationRepository;
 import com.example.demo.repository.UserRepository;
+import com.example.demo.service.CredentialFanoutService;
+import com.example.demo.service.MatchCatalogCache;
+import com.example.demo.service.MatchEventBroadcaster;
 import com.example.demo.service.MatchService;
 
 import lombok.RequiredArgsConstructor;
@@ -39,6 +50,9 @@ public class MatchController {
     private final MatchService matchService;
     private final UserRepository userRepository;
     private final RegistrationRepository registrationRepository;
+    private final MatchCatalogCache matchCatalogCache;
+    private final MatchEventBroadcaster matchEventBroadcaster;
+    private final CredentialFanoutService credentialFanoutService;
     private static final Logger log = LoggerFactory.getLogger(MatchController.class);
 
     @PostMapping
@@ -47,10 +61,17 @@ public class MatchController {
     }
 
     @GetMapping
-    public ResponseEntity<?> list() {
+    public ResponseEntity<?> list(WebRequest webRequest) {
         try {
-            List<Match> out = matchService.listAll();
-            return ResponseEntity.ok(out);
+            // Served as pre-serialized JSON straight from the catalog cache; unchanged polls get a 304
+            MatchCatalogCache.Snapshot snapshot = matchCatalogCache.get();
+            if (webRequest.checkNotModified(snapshot.allEtag())) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(CacheControl.noCache()).build();
+            }
+            return ResponseEntity.ok()
+                    .cacheControl(CacheControl.noCache())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(snapshot.allJson());
         } catch (Exception e) {
             log.error("Error listing matches", e);
             return ResponseEntity.status(500).body(Map.of(
@@ -61,10 +82,16 @@ public class MatchController {
     }
 
     @GetMapping("/upcoming")
-    public ResponseEntity<?> upcoming() {
+    public ResponseEntity<?> upcoming(WebRequest webRequest) {
         try {
-            List<Match> out = matchService.upcoming();
-            return ResponseEntity.ok(out);
+            MatchCatalogCache.Snapshot snapshot = matchCatalogCache.get();
+            if (webRequest.checkNotModified(snapshot.upcomingEtag())) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(CacheControl.noCache()).build();
+            }
+            return ResponseEntity.ok()
+                    .cacheControl(CacheControl.noCache())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(snapshot.upcomingJson());
         } catch (Exception e) {
             log.error("Error listing upcoming matches", e);
             return ResponseEntity.status(500).body(Map.of(
@@ -74,13 +101,34 @@ public class MatchController {
         }
     }
 
+    /**
+     * Live match deltas (registeredTeams, status, minutesUntilMatch) as
+     * Server-Sent Events, so clients can stop polling the list.
+     */
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> stream() {
+        SseEmitter emitter = matchEventBroadcaster.subscribe();
+        if (emitter == null) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header("Retry-After", "30").build();
+        }
+        return ResponseEntity.ok().cacheControl(CacheControl.noStore()).body(emitter);
+    }
+
     @GetMapping("/with-status")
-    public ResponseEntity<List<MatchWithRegistrationStatus>> getMatchesWithRegistrationStatus(Authentication authentication) {
+    public ResponseEntity<List<MatchWithRegistrationStatus>> getMatchesWithRegistrationStatus(Authentication authentication,
+            WebRequest webRequest) {
         if (authentication == null || authentication.getPrincipal() == null) {
             return ResponseEntity.status(401).body(null);
         }
 
         UserDetails userDetails = (UserDetails) authentication.getPrincipal();
+
+        // Per-user view: the tag is checked after one aggregate query instead of building the view
+        String etag = withStatusEtag(userDetails.getUsername());
+        if (webRequest.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(CacheControl.noCache().cachePrivate()).build();
+        }
+
         User user = userRepository.findByEmail(userDetails.getUsername())
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
@@ -132,7 +180,26 @@ public class MatchController {
                 })
                 .collect(java.util.stream.Collectors.toList());
 
-        return ResponseEntity.ok(matchesWithStatus);
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .body(matchesWithStatus);
+    }
+
+    /**
+     * The view changes with the catalog, with the user's registrations, and
+     * when one of their matches enters or leaves the room-credential window.
+     * minutesUntilMatch is as of the response that carried the tag; clients
+     * count down from scheduledAt between changes.
+     */
+    private String withStatusEtag(String email) {
+        java.time.LocalDateTime now = java.time.LocalDateTime.now();
+        // canViewRoomCredentials holds while minutesUntilMatch, truncated, is 0..5
+        RegistrationRepository.RegistrationVersion version = registrationRepository.findRegistrationVersion(
+                email, now, now.plusMinutes(6));
+        String key = matchCatalogCache.get().allEtag() + "|" + email
+                + "|" + version.getRegistrations() + "|" + version.getLastUpdated()
+                + "|" + version.getInCredentialWindow();
+        return "\"" + DigestUtils.md5DigestAsHex(key.getBytes(StandardCharsets.UTF_8)) + "\"";
     }
 
     private int requiredTeams(MatchType type) {
@@ -168,8 +235,14 @@ public class MatchController {
     @PostMapping("/{id}/send-credentials")
     @PreAuthorize("hasAuthority('ADMIN')")
     public ResponseEntity<String> sendCredentials(@PathVariable Long id) {
-        matchService.sendCredentialsToPlayers(id);
-        return ResponseEntity.ok("Credentials sent to registered players");
+        int queued = matchService.sendCredentialsToPlayers(id);
+        return ResponseEntity.ok("Credentials queued for " + queued + " registered players");
+    }
+
+    @GetMapping("/{id}/credentials/status")
+    @PreAuthorize("hasAuthority('ADMIN')")
+    public ResponseEntity<List<CredentialDeliveryResponse>> credentialDeliveryStatus(@PathVariable Long id) {
+        return ResponseEntity.ok(credentialFanoutService.deliveryStatus(id));
     }
 
     // Test endpoint to add room credentials without authentication (for testing)
@@ -44,6 +44,16 @@ public class ProfileController {
             }
 
             if (phoneNumber != null && !phoneNumber.trim().isEmpty()) {
+                // Phone numbers are unique (uq_profiles_user_phone); say so instead of failing on the index
+                boolean taken = userRepository.findByPhonenumber(phoneNumber.trim())
+                        .filter(other -> !other.getId().equals(user.getId()))
+                        .isPresent();
+                if (taken) {
+                    return ResponseEntity.badRequest().body(Map.of(
+                            "success", false,
+                            "message", "Phone number already exists!"
+                    ));
+                }
                 user.setPhonenumber(phoneNumber.trim());
             }
 
@@ -10,15 +10,18 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.example.demo.dto.AddMoneyRequest;
 import com.example.demo.dto.WalletResponse;
+import com.example.demo.dto.WalletTransactionPage;
 import com.example.demo.dto.WalletTransactionResponse;
 import com.example.demo.dto.WithdrawMoneyRequest;
 import com.example.demo.dto.WithdrawalOtpRequest;
 import com.example.demo.dto.WithdrawalOtpResponse;
 import com.example.demo.dto.WithdrawalRequestResponse;
+import com.example.demo.entity.TransactionType;
 import com.example.demo.entity.User;
 import com.example.demo.repository.UserRepository;
 import com.example.demo.service.EmailService;
@@ -27,7 +30,7 @@ import com.example.demo.service.WalletService;
 import lombok.RequiredArgsConstructor;
 
 @RestController
-@CrossOrigin(origins = "*")
+@CrossOrigin(origins = "*", exposedHeaders = WalletController.NEXT_CURSOR_HEADER)
 @RequestMapping("/api/wallet")
 @RequiredArgsConstructor
 public class WalletController {
@@ -36,6 +39,8 @@ public class WalletController {
     private final UserRepository userRepository;
     private final EmailService emailService;
 
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     @GetMapping("/test")
     public ResponseEntity<String> testEndpoint() {
         return ResponseEntity.ok("Wallet endpoint is working!");
@@ -56,7 +61,7 @@ public class WalletController {
             emailService.sendWithdrawalOtp(user.getEmail(), "123456", user.getName(), "100.00");
 
             return ResponseEntity.ok(java.util.Map.of(
-                    "message", "Test email sent successfully",
+                    "message", "Test email queued for delivery",
                     "email", user.getEmail()
             ));
         } catch (Exception e) {
@@ -157,7 +162,10 @@ public class WalletController {
     }
 
     @GetMapping("/transactions")
-    public ResponseEntity<List<WalletTransactionResponse>> getTransactionHistory(Authentication authentication) {
+    public ResponseEntity<?> getTransactionHistory(Authentication authentication,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) String type,
+            @RequestParam(required = false) Integer limit) {
         if (authentication == null || authentication.getPrincipal() == null) {
             return ResponseEntity.status(401).body(null);
         }
@@ -166,8 +174,22 @@ public class WalletController {
         User user = userRepository.findByEmail(userDetails.getUsername())
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
-        List<WalletTransactionResponse> transactions = walletService.getTransactionHistory(user.getId());
-        return ResponseEntity.ok(transactions);
+        WalletTransactionPage page;
+        try {
+            TransactionType txType = type == null || type.isBlank() ? null : TransactionType.valueOf(type.trim().toUpperCase());
+            page = walletService.getTransactionHistory(user.getId(), cursor, txType, limit);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(
+                    java.util.Map.of("error", "Invalid cursor or transaction type")
+            );
+        }
+
+        // Body stays a plain array; the cursor for the next (older) page travels in a header
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getTransactions());
     }
 
     @GetMapping("/withdrawals")
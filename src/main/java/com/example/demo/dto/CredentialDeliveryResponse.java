@@ -0,0 +1,29 @@
+package com.example.demo.dto;
+
+import java.time.LocalDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Delivery state of the room-credentials mail for one confirmed registration.
+ * status is the outbox status (PENDING, SENT, FAILED) or NOT_QUEUED.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CredentialDeliveryResponse {
+
+    private Long registrationId;
+    private Integer slotNumber;
+    private String userName;
+    private String email;
+    private String status;
+    private Integer attempts;
+    private String lastError;
+    private LocalDateTime queuedAt;
+    private LocalDateTime sentAt;
+}
@@ -0,0 +1,18 @@
+package com.example.demo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class MatchDelta {
+
+    private Long matchId;
+    private int registeredTeams;
+    private String status;
+    private Long minutesUntilMatch; // null when the match has no schedule
+}
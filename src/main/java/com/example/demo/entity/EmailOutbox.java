@@ -0,0 +1,116 @@
+package com.example.demo.entity;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A rendered email waiting for (or done with) SMTP delivery. Rows are written
+ * in the same transaction as the business change that triggers them and
+ * drained by EmailOutboxDispatcher.
+ */
+@Entity
+@Table(
+        name = "email_outbox",
+        indexes = {
+            @Index(name = "idx_email_outbox_status_next_attempt", columnList = "status,next_attempt_at"),
+            @Index(name = "idx_email_outbox_topic", columnList = "topic")
+        }
+)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class EmailOutbox {
+
+    public static final int PRIORITY_NORMAL = 0;
+    // Time-critical mail (OTPs, room credentials) is claimed ahead of notifications
+    public static final int PRIORITY_HIGH = 10;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Comma-separated recipient addresses
+    @Column(nullable = false, length = 2000)
+    private String recipients;
+
+    @Column(nullable = false)
+    private String subject;
+
+    @Column(name = "html_body", nullable = false, columnDefinition = "TEXT")
+    private String htmlBody;
+
+    @Column(name = "inline_logo", nullable = false)
+    @Builder.Default
+    private boolean inlineLogo = false;
+
+    @Column(name = "attachment_name")
+    private String attachmentName;
+
+    @Column(name = "attachment_type")
+    private String attachmentType;
+
+    @Column(name = "attachment_data")
+    private byte[] attachmentData;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    @Builder.Default
+    private EmailOutboxStatus status = EmailOutboxStatus.PENDING;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private int attempts = 0;
+
+    @Column(nullable = false, columnDefinition = "integer default 0")
+    @Builder.Default
+    private int priority = PRIORITY_NORMAL;
+
+    // Groups the mails of one fan-out (e.g. MATCH_CREDENTIALS:<matchId>) for status lookups
+    @Column(length = 64)
+    private String topic;
+
+    // Optional idempotency key; a second insert with the same key is ignored (uq_email_outbox_dedupe_key)
+    @Column(name = "dedupe_key", length = 128)
+    private String dedupeKey;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    // Set while a dispatcher owns the row; an expired lease makes it claimable again
+    @Column(name = "lease_until")
+    private LocalDateTime leaseUntil;
+
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "sent_at")
+    private LocalDateTime sentAt;
+
+    @PrePersist
+    protected void onCreate() {
+        if (createdAt == null) {
+            createdAt = LocalDateTime.now();
+        }
+        if (nextAttemptAt == null) {
+            nextAttemptAt = createdAt;
+        }
+    }
+}
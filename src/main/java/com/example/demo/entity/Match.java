@@ -20,7 +20,7 @@ import lombok.NoArgsConstructor;
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-@Builder
+@Builder(toBuilder = true)
 public class Match {
 
     @Id
@@ -57,7 +57,9 @@ public class Match {
     private String roomPassword;
     private boolean credentialsSent; // track if credentials sent to players
 
-    // Registration tracking
+    // Registration tracking. Written only by MatchRepository.reserveSlot and
+    // resyncRegisteredTeams, so saving a stale Match never undoes a reservation.
+    @Column(updatable = false)
     private int registeredTeams; // current registrations
 
     // Clash Squad specific fields
@@ -14,7 +14,8 @@ import java.time.LocalDateTime;
 public class MatchResult {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "match_results_id_seq")
+    @SequenceGenerator(name = "match_results_id_seq", sequenceName = "match_results_id_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -14,7 +14,8 @@ import java.util.List;
 public class Registration {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "registrations_id_seq")
+    @SequenceGenerator(name = "registrations_id_seq", sequenceName = "registrations_id_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -12,7 +12,8 @@ import lombok.*;
 public class RegistrationPlayer {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "registration_players_id_seq")
+    @SequenceGenerator(name = "registration_players_id_seq", sequenceName = "registration_players_id_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
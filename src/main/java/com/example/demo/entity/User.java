@@ -3,11 +3,14 @@ package com.example.demo.entity;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.Enumerated;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.Table;
+import com.example.demo.service.UserPrincipalListener;
+
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -15,6 +18,7 @@ import lombok.NoArgsConstructor;
 
 @Entity
 @Table(name = "Profiles")
+@EntityListeners(UserPrincipalListener.class)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -25,6 +25,20 @@ public class Wallet {
     @Builder.Default
     private BigDecimal balance = BigDecimal.ZERO;
 
+    // Running totals maintained by WalletBalanceEngine alongside each ledger row.
+    // NULL means not yet backfilled from wallet_transactions (see WalletTotalsReconciler).
+    @Column(name = "total_added", precision = 12, scale = 2, updatable = false)
+    @Builder.Default
+    private BigDecimal totalAdded = BigDecimal.ZERO;
+
+    @Column(name = "total_spent", precision = 12, scale = 2, updatable = false)
+    @Builder.Default
+    private BigDecimal totalSpent = BigDecimal.ZERO;
+
+    @Column(name = "transaction_count", updatable = false)
+    @Builder.Default
+    private Long transactionCount = 0L;
+
     private LocalDateTime createdAt;
 
     private LocalDateTime updatedAt;
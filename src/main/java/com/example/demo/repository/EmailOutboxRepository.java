@@ -0,0 +1,54 @@
+package com.example.demo.repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.example.demo.entity.EmailOutbox;
+import com.example.demo.entity.EmailOutboxStatus;
+
+@Repository
+public interface EmailOutboxRepository extends JpaRepository<EmailOutbox, Long> {
+
+    /**
+     * Lease up to :limit due PENDING rows to the caller and count the attempt.
+     * SKIP LOCKED lets several dispatchers drain the table without picking the
+     * same rows; must run inside a read-write transaction.
+     */
+    @Query(value = "UPDATE email_outbox SET lease_until = :leaseUntil, attempts = attempts + 1 "
+            + "WHERE id IN (SELECT id FROM email_outbox "
+            + "  WHERE status = 'PENDING' AND next_attempt_at <= :now "
+            + "  AND (lease_until IS NULL OR lease_until < :now) "
+            + "  ORDER BY priority DESC, next_attempt_at, id LIMIT :limit FOR UPDATE SKIP LOCKED) "
+            + "RETURNING *", nativeQuery = true)
+    List<EmailOutbox> claimBatch(@Param("now") LocalDateTime now,
+            @Param("leaseUntil") LocalDateTime leaseUntil,
+            @Param("limit") int limit);
+
+    @Modifying
+    @Query("UPDATE EmailOutbox e SET e.status = com.example.demo.entity.EmailOutboxStatus.SENT, "
+            + "e.sentAt = :sentAt, e.leaseUntil = null, e.lastError = null WHERE e.id IN :ids")
+    int markSent(@Param("ids") Collection<Long> ids, @Param("sentAt") LocalDateTime sentAt);
+
+    @Modifying
+    @Query("UPDATE EmailOutbox e SET e.nextAttemptAt = :nextAttemptAt, e.leaseUntil = null, "
+            + "e.lastError = :error WHERE e.id = :id")
+    int reschedule(@Param("id") Long id,
+            @Param("nextAttemptAt") LocalDateTime nextAttemptAt,
+            @Param("error") String error);
+
+    @Modifying
+    @Query("UPDATE EmailOutbox e SET e.status = com.example.demo.entity.EmailOutboxStatus.FAILED, "
+            + "e.leaseUntil = null, e.lastError = :error WHERE e.id = :id")
+    int markFailed(@Param("id") Long id, @Param("error") String error);
+
+    long countByStatus(EmailOutboxStatus status);
+
+    List<EmailOutbox> findByTopicOrderByIdAsc(String topic);
+}
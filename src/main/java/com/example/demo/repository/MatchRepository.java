@@ -3,6 +3,9 @@ package com.example.demo.repository;
 import com.example.demo.entity.Match;
 import com.example.demo.entity.MatchStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -12,4 +15,27 @@ public interface MatchRepository extends JpaRepository<Match, Long> {
     List<Match> findByStatusOrderByScheduledAtAsc(MatchStatus status);
 
     List<Match> findByScheduledAtAfterOrderByScheduledAtAsc(LocalDateTime time);
+
+    List<Match> findByStatusAndScheduledAtBetween(MatchStatus status, LocalDateTime from, LocalDateTime to);
+
+    /**
+     * Atomically take one unit of capacity on an OPEN match. Returns 0 when the
+     * match is full or no longer open. Call it before the wallet debit and the
+     * inserts, so a registration that loses the last slot has written nothing;
+     * the row lock is then held until the registration commits.
+     */
+    @Modifying
+    @Query("UPDATE Match m SET m.registeredTeams = m.registeredTeams + 1 "
+            + "WHERE m.id = :id AND m.status = com.example.demo.entity.MatchStatus.OPEN "
+            + "AND m.registeredTeams < m.slots")
+    int reserveSlot(@Param("id") Long id);
+
+    /**
+     * Re-derive registered_teams for OPEN matches from confirmed registrations.
+     */
+    @Modifying
+    @Query(value = "UPDATE matches m SET registered_teams = "
+            + "(SELECT COUNT(*) FROM registrations r WHERE r.match_id = m.id AND r.status = 'CONFIRMED') "
+            + "WHERE m.status = 'OPEN'", nativeQuery = true)
+    int resyncRegisteredTeams();
 }
@@ -1,5 +1,6 @@
 package com.example.demo.repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -17,10 +18,16 @@ public interface MatchResultRepository extends JpaRepository<MatchResult, Long>
 
     List<MatchResult> findByMatchIdOrderByPositionAsc(Long matchId);
 
+    @Query("SELECT mr FROM MatchResult mr JOIN FETCH mr.registration JOIN FETCH mr.user WHERE mr.match.id = :matchId ORDER BY mr.position ASC")
+    List<MatchResult> findByMatchIdWithRegistrationAndUser(@Param("matchId") Long matchId);
+
     List<MatchResult> findByUserIdOrderByCreatedAtDesc(Long userId);
 
     Optional<MatchResult> findByRegistrationId(Long registrationId);
 
+    @Query("SELECT mr FROM MatchResult mr WHERE mr.registration.id IN :registrationIds")
+    List<MatchResult> findByRegistrationIds(@Param("registrationIds") Collection<Long> registrationIds);
+
     @Query("SELECT mr FROM MatchResult mr WHERE mr.match.id = :matchId AND mr.prizeCredited = false")
     List<MatchResult> findUncreditedResultsByMatchId(@Param("matchId") Long matchId);
 
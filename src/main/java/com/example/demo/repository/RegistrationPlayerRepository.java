@@ -2,8 +2,11 @@ package com.example.demo.repository;
 
 import com.example.demo.entity.RegistrationPlayer;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -11,5 +14,8 @@ public interface RegistrationPlayerRepository extends JpaRepository<Registration
 
     List<RegistrationPlayer> findByRegistrationIdOrderByPlayerPosition(Long registrationId);
 
+    @Query("SELECT p FROM RegistrationPlayer p WHERE p.registration.id IN :registrationIds ORDER BY p.registration.id, p.playerPosition")
+    List<RegistrationPlayer> findByRegistrationIdsOrderByPlayerPosition(@Param("registrationIds") Collection<Long> registrationIds);
+
     void deleteByRegistrationId(Long registrationId);
 }
@@ -1,5 +1,6 @@
 package com.example.demo.repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -31,6 +32,11 @@ public interface RegistrationRepository extends JpaRepository<Registration, Long
     @Query("SELECT r FROM Registration r JOIN FETCH r.match JOIN FETCH r.user WHERE r.match.id = :matchId AND r.status = :status")
     List<Registration> findByMatchIdAndStatusWithMatchAndUser(@Param("matchId") Long matchId, @Param("status") RegistrationStatus status);
 
+    // Rows of [Registration, MatchResult-or-null] with the user fetched, for the admin participants screen
+    @Query("SELECT r, mr FROM Registration r JOIN FETCH r.user LEFT JOIN MatchResult mr ON mr.registration = r "
+            + "WHERE r.match.id = :matchId AND r.status = :status")
+    List<Object[]> findParticipantsWithResults(@Param("matchId") Long matchId, @Param("status") RegistrationStatus status);
+
     Optional<Registration> findByUserIdAndMatchId(Long userId, Long matchId);
 
     @Query("SELECT COUNT(r) FROM Registration r WHERE r.match.id = :matchId AND r.status = 'CONFIRMED'")
@@ -39,12 +45,39 @@ public interface RegistrationRepository extends JpaRepository<Registration, Long
     @Query("SELECT r.slotNumber FROM Registration r WHERE r.match.id = :matchId AND r.status = 'CONFIRMED'")
     List<Integer> findAllocatedSlotsByMatchId(@Param("matchId") Long matchId);
 
+    // Rows of [matchId, slots, slotNumber-or-null] for every OPEN match, used to warm the slot allocator
+    @Query("SELECT m.id, m.slots, r.slotNumber FROM Match m LEFT JOIN Registration r ON r.match = m AND r.status = 'CONFIRMED' WHERE m.status = 'OPEN'")
+    List<Object[]> findAllocatedSlotsForOpenMatches();
+
     boolean existsByUserIdAndMatchIdAndStatus(Long userId, Long matchId, RegistrationStatus status);
 
     // Batch helpers to avoid N+1 in controllers/services
     @Query("SELECT r.match.id FROM Registration r WHERE r.user.id = :userId AND r.status = 'CONFIRMED'")
     List<Long> findRegisteredMatchIdsForUser(@Param("userId") Long userId);
 
+    /**
+     * What a user's match view depends on besides the catalog: their
+     * registrations (any change bumps the count or the latest updatedAt), and
+     * how many of their confirmed matches start in [from, until), the window
+     * in which room credentials are shown.
+     */
+    @Query("SELECT COUNT(r) AS registrations, MAX(r.updatedAt) AS lastUpdated,"
+            + " SUM(CASE WHEN r.status = 'CONFIRMED' AND r.match.scheduledAt >= :from AND r.match.scheduledAt < :until"
+            + " THEN 1 ELSE 0 END) AS inCredentialWindow"
+            + " FROM Registration r WHERE r.user.email = :email")
+    RegistrationVersion findRegistrationVersion(@Param("email") String email,
+            @Param("from") LocalDateTime from,
+            @Param("until") LocalDateTime until);
+
+    interface RegistrationVersion {
+
+        Long getRegistrations();
+
+        LocalDateTime getLastUpdated();
+
+        Long getInCredentialWindow();
+    }
+
     @Query("SELECT r.match.id AS matchId, COUNT(r) AS cnt FROM Registration r WHERE r.status = 'CONFIRMED' AND r.match.id IN :matchIds GROUP BY r.match.id")
     List<Object[]> countConfirmedByMatchIds(@Param("matchIds") List<Long> matchIds);
 }
@@ -3,8 +3,12 @@ package com.example.demo.repository;
 import com.example.demo.entity.UpiPayment;
 import com.example.demo.entity.UpiPaymentStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
@@ -13,4 +17,27 @@ public interface UpiPaymentRepository extends JpaRepository<UpiPayment, Long> {
     List<UpiPayment> findByStatus(UpiPaymentStatus status);
 
     List<UpiPayment> findByUserIdAndStatusNotOrderByCreatedAtDesc(Long userId, UpiPaymentStatus status);
+
+    /**
+     * Move a payment awaiting review to APPROVED; returns 0 when it is not
+     * UTR_SUBMITTED (never submitted, or another admin action got there
+     * first), so each payment can be credited at most once.
+     */
+    @Modifying
+    @Query("UPDATE UpiPayment p SET p.status = com.example.demo.entity.UpiPaymentStatus.APPROVED, "
+            + "p.approvedAt = :approvedAt, p.approvedBy = :approvedBy, p.updatedAt = :approvedAt "
+            + "WHERE p.id = :id AND p.status = com.example.demo.entity.UpiPaymentStatus.UTR_SUBMITTED")
+    int markApproved(@Param("id") Long id,
+            @Param("approvedAt") LocalDateTime approvedAt,
+            @Param("approvedBy") String approvedBy);
+
+    /**
+     * Move a payment awaiting review to REJECTED; returns 0 when it is not
+     * UTR_SUBMITTED, e.g. because a concurrent approval already credited it.
+     */
+    @Modifying
+    @Query("UPDATE UpiPayment p SET p.status = com.example.demo.entity.UpiPaymentStatus.REJECTED, "
+            + "p.updatedAt = :rejectedAt "
+            + "WHERE p.id = :id AND p.status = com.example.demo.entity.UpiPaymentStatus.UTR_SUBMITTED")
+    int markRejected(@Param("id") Long id, @Param("rejectedAt") LocalDateTime rejectedAt);
 }
@@ -2,10 +2,14 @@ package com.example.demo.repository;
 
 import com.example.demo.entity.Wallet;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -16,4 +20,179 @@ public interface WalletRepository extends JpaRepository<Wallet, Long> {
 
     @Query("SELECT COUNT(w) > 0 FROM Wallet w WHERE w.user.id = :userId")
     boolean existsByUserId(@Param("userId") Long userId);
+
+    /**
+     * Debit the wallet only if it holds enough funds and append the ledger row
+     * in the same statement. Empty when the wallet is missing or the balance is
+     * insufficient; the row lock taken by the UPDATE serializes concurrent
+     * writers without a read-modify-write window. Running totals stay NULL
+     * until backfilled, so an increment never lands on a partial sum.
+     */
+    @Query(value = "WITH w AS ("
+            + " UPDATE wallet SET balance = balance - :amount, updated_at = :now,"
+            + " total_spent = total_spent + :amount, transaction_count = transaction_count + 1"
+            + " WHERE user_id = :userId AND balance >= :amount"
+            + " RETURNING id, balance)"
+            + " INSERT INTO wallet_transactions (wallet_id, type, amount, description, reference_id, balance_after, created_at)"
+            + " SELECT w.id, 'DEBIT', :amount, :description, :referenceId, w.balance, :now FROM w"
+            + " RETURNING id AS \"id\", balance_after AS \"balanceAfter\", created_at AS \"createdAt\"",
+            nativeQuery = true)
+    Optional<LedgerEntry> debitAndRecord(@Param("userId") Long userId,
+            @Param("amount") BigDecimal amount,
+            @Param("description") String description,
+            @Param("referenceId") String referenceId,
+            @Param("now") LocalDateTime now);
+
+    /**
+     * Credit the wallet and append the ledger row in the same statement. Empty
+     * when the user has no wallet yet.
+     */
+    @Query(value = "WITH w AS ("
+            + " UPDATE wallet SET balance = balance + :amount, updated_at = :now,"
+            + " total_added = total_added + :amount, transaction_count = transaction_count + 1"
+            + " WHERE user_id = :userId"
+            + " RETURNING id, balance)"
+            + " INSERT INTO wallet_transactions (wallet_id, type, amount, description, reference_id, balance_after, created_at)"
+            + " SELECT w.id, 'CREDIT', :amount, :description, :referenceId, w.balance, :now FROM w"
+            + " RETURNING id AS \"id\", balance_after AS \"balanceAfter\", created_at AS \"createdAt\"",
+            nativeQuery = true)
+    Optional<LedgerEntry> creditAndRecord(@Param("userId") Long userId,
+            @Param("amount") BigDecimal amount,
+            @Param("description") String description,
+            @Param("referenceId") String referenceId,
+            @Param("now") LocalDateTime now);
+
+    /**
+     * Create an empty wallet for the user unless one exists. Concurrent callers
+     * race on the unique user_id instead of failing on it.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO wallet (user_id, balance, total_added, total_spent, transaction_count, created_at, updated_at)"
+            + " VALUES (:userId, 0, 0, 0, 0, :now, :now)"
+            + " ON CONFLICT (user_id) DO NOTHING",
+            nativeQuery = true)
+    int createIfMissing(@Param("userId") Long userId, @Param("now") LocalDateTime now);
+
+    /**
+     * Give every confirmed registrant of the match a wallet row so the bulk
+     * refund below has something to credit.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO wallet (user_id, balance, total_added, total_spent, transaction_count, created_at, updated_at)"
+            + " SELECT u.user_id, 0, 0, 0, 0, :now, :now FROM ("
+            + " SELECT DISTINCT r.user_id FROM registrations r"
+            + " WHERE r.match_id = :matchId AND r.status = 'CONFIRMED'"
+            + " AND NOT EXISTS (SELECT 1 FROM wallet w WHERE w.user_id = r.user_id)) u"
+            + " ON CONFLICT (user_id) DO NOTHING",
+            nativeQuery = true)
+    int createMissingWalletsForMatch(@Param("matchId") Long matchId, @Param("now") LocalDateTime now);
+
+    /**
+     * Cancel every confirmed registration of a match and refund the paid ones
+     * in a single statement: one registrations UPDATE, one wallet UPDATE per
+     * refunded user and one multi-row ledger INSERT. Each refund carries the
+     * key MREF_<matchId>_<registrationId>; the status guard, the NOT EXISTS
+     * check and the unique index on that key make a retry a no-op.
+     */
+    @Query(value = "WITH regs AS ("
+            + " UPDATE registrations r SET status = 'CANCELLED', updated_at = :now,"
+            + "   payment_status = CASE WHEN r.amount_paid > 0 THEN 'REFUNDED' ELSE r.payment_status END"
+            + " FROM registrations old"
+            + " WHERE old.id = r.id AND r.match_id = :matchId AND r.status = 'CONFIRMED'"
+            + " RETURNING r.id, r.user_id, r.amount_paid, old.payment_status AS old_payment_status),"
+            + " due AS ("
+            + " SELECT regs.id AS registration_id, regs.user_id, CAST(regs.amount_paid AS numeric(10, 2)) AS amount,"
+            + "   'MREF_' || :matchId || '_' || regs.id AS refund_key"
+            + " FROM regs WHERE regs.amount_paid > 0 AND regs.old_payment_status <> 'REFUNDED'"
+            + " AND NOT EXISTS (SELECT 1 FROM wallet_transactions t"
+            + "   WHERE t.reference_id = 'MREF_' || :matchId || '_' || regs.id)),"
+            + " per_user AS (SELECT user_id, SUM(amount) AS total, COUNT(*) AS cnt FROM due GROUP BY user_id),"
+            + " w AS ("
+            + " UPDATE wallet SET balance = balance + p.total, updated_at = :now,"
+            + "   total_added = total_added + p.total, transaction_count = transaction_count + p.cnt"
+            + " FROM per_user p WHERE wallet.user_id = p.user_id"
+            + " RETURNING wallet.id, wallet.user_id, wallet.balance)"
+            + " INSERT INTO wallet_transactions (wallet_id, type, amount, description, reference_id, balance_after, created_at)"
+            + " SELECT w.id, 'CREDIT', d.amount, :description, d.refund_key,"
+            // Same-user rows are applied in registration order within the single balance change
+            + "   w.balance - COALESCE(SUM(d.amount) OVER (PARTITION BY d.user_id ORDER BY d.registration_id DESC"
+            + "     ROWS BETWEEN UNBOUNDED PRECEDING AND 1 PRECEDING), 0),"
+            + "   :now"
+            + " FROM due d JOIN w ON w.user_id = d.user_id"
+            + " RETURNING reference_id AS \"referenceId\", amount AS \"amount\"",
+            nativeQuery = true)
+    List<RefundEntry> refundCancelledMatch(@Param("matchId") Long matchId,
+            @Param("description") String description,
+            @Param("now") LocalDateTime now);
+
+    interface RefundEntry {
+
+        String getReferenceId();
+
+        BigDecimal getAmount();
+    }
+
+    @Query(value = "SELECT id FROM wallet WHERE total_added IS NULL OR total_spent IS NULL OR transaction_count IS NULL",
+            nativeQuery = true)
+    List<Long> findIdsMissingTotals();
+
+    @Query(value = "SELECT id FROM wallet WHERE id = :id FOR UPDATE", nativeQuery = true)
+    Long lockById(@Param("id") Long id);
+
+    /**
+     * Recompute running totals from the ledger. Call with the wallet row
+     * locked so no append can commit between the sums and the write.
+     */
+    @Modifying
+    @Query(value = "UPDATE wallet w SET"
+            + " total_added = (SELECT COALESCE(SUM(t.amount), 0) FROM wallet_transactions t WHERE t.wallet_id = w.id AND t.type = 'CREDIT'),"
+            + " total_spent = (SELECT COALESCE(SUM(t.amount), 0) FROM wallet_transactions t WHERE t.wallet_id = w.id AND t.type = 'DEBIT'),"
+            + " transaction_count = (SELECT COUNT(*) FROM wallet_transactions t WHERE t.wallet_id = w.id)"
+            + " WHERE w.id = :id", nativeQuery = true)
+    int recomputeTotals(@Param("id") Long id);
+
+    /**
+     * Wallets whose running totals disagree with the ledger. A single
+     * statement sees each wallet update and its ledger row together.
+     */
+    @Query(value = "SELECT w.id AS \"walletId\", w.total_added AS \"totalAdded\", w.total_spent AS \"totalSpent\","
+            + " w.transaction_count AS \"transactionCount\", l.added AS \"ledgerAdded\", l.spent AS \"ledgerSpent\","
+            + " l.cnt AS \"ledgerCount\""
+            + " FROM wallet w"
+            + " LEFT JOIN (SELECT wallet_id,"
+            + "   COALESCE(SUM(amount) FILTER (WHERE type = 'CREDIT'), 0) AS added,"
+            + "   COALESCE(SUM(amount) FILTER (WHERE type = 'DEBIT'), 0) AS spent,"
+            + "   COUNT(*) AS cnt"
+            + "   FROM wallet_transactions GROUP BY wallet_id) l ON l.wallet_id = w.id"
+            + " WHERE w.transaction_count IS NOT NULL"
+            + " AND (w.total_added <> COALESCE(l.added, 0) OR w.total_spent <> COALESCE(l.spent, 0)"
+            + " OR w.transaction_count <> COALESCE(l.cnt, 0))",
+            nativeQuery = true)
+    List<TotalsMismatch> findTotalsMismatches();
+
+    interface TotalsMismatch {
+
+        Long getWalletId();
+
+        BigDecimal getTotalAdded();
+
+        BigDecimal getTotalSpent();
+
+        Long getTransactionCount();
+
+        BigDecimal getLedgerAdded();
+
+        BigDecimal getLedgerSpent();
+
+        Long getLedgerCount();
+    }
+
+    interface LedgerEntry {
+
+        Long getId();
+
+        BigDecimal getBalanceAfter();
+
+        LocalDateTime getCreatedAt();
+    }
 }
@@ -2,12 +2,14 @@ package com.example.demo.repository;
 
 import com.example.demo.entity.WalletTransaction;
 import com.example.demo.entity.TransactionType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
@@ -17,6 +19,33 @@ public interface WalletTransactionRepository extends JpaRepository<WalletTransac
 
     List<WalletTransaction> findByWalletIdAndTypeOrderByCreatedAtDesc(Long walletId, TransactionType type);
 
+    // Keyset pages over (created_at, id), newest first; served by idx_wallet_tx_wallet_created_id
+    @Query("SELECT wt FROM WalletTransaction wt WHERE wt.wallet.id = :walletId ORDER BY wt.createdAt DESC, wt.id DESC")
+    List<WalletTransaction> findFirstPage(@Param("walletId") Long walletId, Pageable pageable);
+
+    @Query("SELECT wt FROM WalletTransaction wt WHERE wt.wallet.id = :walletId "
+            + "AND (wt.createdAt < :createdAt OR (wt.createdAt = :createdAt AND wt.id < :id)) "
+            + "ORDER BY wt.createdAt DESC, wt.id DESC")
+    List<WalletTransaction> findPageBefore(@Param("walletId") Long walletId,
+            @Param("createdAt") LocalDateTime createdAt,
+            @Param("id") Long id,
+            Pageable pageable);
+
+    @Query("SELECT wt FROM WalletTransaction wt WHERE wt.wallet.id = :walletId AND wt.type = :type "
+            + "ORDER BY wt.createdAt DESC, wt.id DESC")
+    List<WalletTransaction> findFirstPageByType(@Param("walletId") Long walletId,
+            @Param("type") TransactionType type,
+            Pageable pageable);
+
+    @Query("SELECT wt FROM WalletTransaction wt WHERE wt.wallet.id = :walletId AND wt.type = :type "
+            + "AND (wt.createdAt < :createdAt OR (wt.createdAt = :createdAt AND wt.id < :id)) "
+            + "ORDER BY wt.createdAt DESC, wt.id DESC")
+    List<WalletTransaction> findPageBeforeByType(@Param("walletId") Long walletId,
+            @Param("type") TransactionType type,
+            @Param("createdAt") LocalDateTime createdAt,
+            @Param("id") Long id,
+            Pageable pageable);
+
     @Query("SELECT SUM(wt.amount) FROM WalletTransaction wt WHERE wt.wallet.id = :walletId AND wt.type = :type")
     BigDecimal sumAmountByWalletIdAndType(@Param("walletId") Long walletId, @Param("type") TransactionType type);
 
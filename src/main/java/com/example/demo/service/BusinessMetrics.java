@@ -0,0 +1,62 @@
+package com.example.demo.service;
+
+import java.math.BigDecimal;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Recording helpers for the business meters that need tags only known inside
+ * the method (match type, outcome). Methods that just need a latency and an
+ * exception tag use Micrometer's {@code @Timed} instead. Micrometer caches
+ * each name and tag combination, so recording is a lookup plus an atomic
+ * add; start times are plain System.nanoTime values so callers allocate
+ * nothing.
+ */
+@Component
+public class BusinessMetrics {
+
+    public static final String SUCCESS = "success";
+    public static final String FAILURE = "failure";
+    public static final String UNKNOWN = "unknown";
+
+    private final MeterRegistry registry;
+
+    public BusinessMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    public void time(String name, long startedNanos, String... tags) {
+        registry.timer(name, tags).record(System.nanoTime() - startedNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void amount(String name, BigDecimal amount, String... tags) {
+        if (amount == null) {
+            return;
+        }
+        DistributionSummary.builder(name)
+                .baseUnit("inr")
+                .tags(tags)
+                .register(registry)
+                .record(amount.doubleValue());
+    }
+
+    public void count(String name, String... tags) {
+        registry.counter(name, tags).increment();
+    }
+
+    public void count(String name, double amount, String... tags) {
+        registry.counter(name, tags).increment(amount);
+    }
+
+    /**
+     * Lower-case tag value for an enum, e.g. match type; UNKNOWN for null.
+     */
+    public static String tag(Enum<?> value) {
+        return value != null ? value.name().toLowerCase(Locale.ROOT) : UNKNOWN;
+    }
+}
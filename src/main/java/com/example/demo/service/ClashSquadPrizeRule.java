@@ -0,0 +1,26 @@
+package com.example.demo.service;
+
+import java.util.List;
+
+import org.springframework.stereotype.Component;
+
+import com.example.demo.entity.MatchType;
+
+/**
+ * CLASH_SQUAD: the winning squad takes 85% of the pool.
+ */
+@Component
+public class ClashSquadPrizeRule implements PrizeRule {
+
+    private static final List<Integer> PLACEMENTS = List.of(8500);
+
+    @Override
+    public MatchType matchType() {
+        return MatchType.CLASH_SQUAD;
+    }
+
+    @Override
+    public List<Integer> placementBasisPoints() {
+        return PLACEMENTS;
+    }
+}
@@ -0,0 +1,181 @@
+package com.example.demo.service;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.DigestUtils;
+
+import com.example.demo.config.ReadFromPrimary;
+import com.example.demo.dto.CredentialDeliveryResponse;
+import com.example.demo.entity.EmailOutbox;
+import com.example.demo.entity.Match;
+import com.example.demo.entity.Registration;
+import com.example.demo.entity.RegistrationStatus;
+import com.example.demo.repository.EmailOutboxRepository;
+import com.example.demo.repository.MatchRepository;
+import com.example.demo.repository.RegistrationRepository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Sends room credentials to every confirmed registrant of a match. All
+ * registrants are loaded in one query, one high-priority outbox row per
+ * registration is written in a single JDBC batch, and the dispatcher is woken
+ * with enough parallel drains to push the whole match out in one round.
+ * Rows are keyed by registration and credential digest, so pressing send
+ * twice does not mail anyone twice, while changed credentials go out again.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CredentialFanoutService {
+
+    private static final String INSERT_SQL
+            = "INSERT INTO email_outbox (recipients, subject, html_body, inline_logo, status, attempts, priority,"
+            + " topic, dedupe_key, next_attempt_at, created_at)"
+            + " VALUES (?, ?, ?, ?, 'PENDING', 0, ?, ?, ?, ?, ?)"
+            + " ON CONFLICT (dedupe_key) DO NOTHING";
+
+    private static final DateTimeFormatter START_FORMAT = DateTimeFormatter.ofPattern("dd MMM yyyy, hh:mm a");
+
+    private final MatchRepository matchRepository;
+    private final RegistrationRepository registrationRepository;
+    private final EmailOutboxRepository outboxRepository;
+    private final EmailTemplates templates;
+    private final EmailOutboxDispatcher dispatcher;
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Queue the credentials mail for every confirmed registration and mark
+     * the match as sent. Returns the number of newly queued mails.
+     */
+    @Transactional
+    public int sendCredentials(Long matchId) {
+        Match match = matchRepository.findById(matchId)
+                .orElseThrow(() -> new IllegalArgumentException("Match not found with id: " + matchId));
+        if (match.getRoomId() == null || match.getRoomPassword() == null) {
+            throw new IllegalArgumentException("Room credentials not set for this match");
+        }
+
+        List<Registration> registrations = registrationRepository
+                .findByMatchIdAndStatusWithMatchAndUser(matchId, RegistrationStatus.CONFIRMED);
+
+        String topic = topic(matchId);
+        String digest = credentialDigest(match);
+        String startsAt = match.getScheduledAt() != null ? match.getScheduledAt().format(START_FORMAT) : "";
+        boolean inlineLogo = templates.logo() != null;
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        String subject = "PrimeArena - Room details for " + match.getTitle();
+
+        List<Object[]> rows = new ArrayList<>(registrations.size());
+        for (Registration reg : registrations) {
+            String email = reg.getUser().getEmail();
+            if (email == null || email.isBlank()) {
+                continue;
+            }
+            String html = templates.get("match-credentials")
+                    .with("logo", inlineLogo ? EmailService.LOGO_CID : null)
+                    .with("name", reg.getUser().getName() != null ? reg.getUser().getName() : "Player")
+                    .with("matchTitle", match.getTitle())
+                    .with("startsAt", startsAt)
+                    .with("roomId", match.getRoomId())
+                    .with("roomPassword", match.getRoomPassword())
+                    .with("slot", reg.getSlotNumber())
+                    .render();
+            rows.add(new Object[]{email, subject, html, inlineLogo, EmailOutbox.PRIORITY_HIGH,
+                topic, dedupePrefix(matchId) + reg.getId() + "_" + digest, now, now});
+        }
+
+        int queued = 0;
+        if (!rows.isEmpty()) {
+            for (int count : jdbcTemplate.batchUpdate(INSERT_SQL, rows)) {
+                // Drivers may report SUCCESS_NO_INFO (-2) for batched statements
+                queued += count < 0 ? 1 : count;
+            }
+        }
+
+        match.setCredentialsSent(true);
+        matchRepository.save(match);
+        if (queued > 0) {
+            dispatcher.wakeUpAfterCommit(queued);
+        }
+        log.info("Queued room credentials for match {}: {} new of {} registrants", matchId, queued, rows.size());
+        return queued;
+    }
+
+    /**
+     * Latest credentials mail per confirmed registration of the match.
+     */
+    @Transactional(readOnly = true)
+    @ReadFromPrimary
+    public List<CredentialDeliveryResponse> deliveryStatus(Long matchId) {
+        List<Registration> registrations = registrationRepository
+                .findByMatchIdAndStatusWithMatchAndUser(matchId, RegistrationStatus.CONFIRMED);
+
+        // Rows come oldest first, so the last one per registration wins; the recipient address
+        // may have changed since the mail was queued, the registration cannot
+        String prefix = dedupePrefix(matchId);
+        Map<Long, EmailOutbox> latest = new HashMap<>();
+        for (EmailOutbox row : outboxRepository.findByTopicOrderByIdAsc(topic(matchId))) {
+            Long registrationId = registrationId(row.getDedupeKey(), prefix);
+            if (registrationId != null) {
+                latest.put(registrationId, row);
+            }
+        }
+
+        List<CredentialDeliveryResponse> out = new ArrayList<>(registrations.size());
+        for (Registration reg : registrations) {
+            String email = reg.getUser().getEmail();
+            EmailOutbox row = latest.get(reg.getId());
+            out.add(CredentialDeliveryResponse.builder()
+                    .registrationId(reg.getId())
+                    .slotNumber(reg.getSlotNumber())
+                    .userName(reg.getUser().getName())
+                    .email(email)
+                    .status(row != null ? row.getStatus().name() : "NOT_QUEUED")
+                    .attempts(row != null ? row.getAttempts() : 0)
+                    .lastError(row != null ? row.getLastError() : null)
+                    .queuedAt(row != null ? row.getCreatedAt() : null)
+                    .sentAt(row != null ? row.getSentAt() : null)
+                    .build());
+        }
+        out.sort((a, b) -> Integer.compare(a.getSlotNumber(), b.getSlotNumber()));
+        return out;
+    }
+
+    private static String topic(Long matchId) {
+        return "MATCH_CREDENTIALS:" + matchId;
+    }
+
+    private static String dedupePrefix(Long matchId) {
+        return "CRED_" + matchId + "_";
+    }
+
+    // CRED_<matchId>_<registrationId>_<digest>
+    private static Long registrationId(String dedupeKey, String prefix) {
+        if (dedupeKey == null || !dedupeKey.startsWith(prefix)) {
+            return null;
+        }
+        int end = dedupeKey.indexOf('_', prefix.length());
+        try {
+            return Long.valueOf(end < 0 ? dedupeKey.substring(prefix.length()) : dedupeKey.substring(prefix.length(), end));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static String credentialDigest(Match match) {
+        String material = match.getRoomId() + "\n" + match.getRoomPassword();
+        return DigestUtils.md5DigestAsHex(material.getBytes(StandardCharsets.UTF_8)).substring(0, 12);
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.demo.service;
+
+import java.util.List;
+
+import org.springframework.stereotype.Component;
+
+import com.example.demo.entity.MatchType;
+
+/**
+ * DUO: top five teams share the pool 40/30/20/5/5.
+ */
+@Component
+public class DuoPrizeRule implements PrizeRule {
+
+    private static final List<Integer> PLACEMENTS = List.of(4000, 3000, 2000, 500, 500);
+
+    @Override
+    public MatchType matchType() {
+        return MatchType.DUO;
+    }
+
+    @Override
+    public List<Integer> placementBasisPoints() {
+        return PLACEMENTS;
+    }
+}
@@ -0,0 +1,303 @@
+package com.example.demo.service;
+
+import java.io.UnsupportedEncodingException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.demo.entity.EmailOutbox;
+import com.example.demo.entity.EmailOutboxStatus;
+import com.example.demo.repository.EmailOutboxRepository;
+
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.InternetAddress;
+import jakarta.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Drains the email outbox. Due rows are leased in batches, highest priority
+ * first, and each batch is handed to the mail sender in one call so it goes
+ * out over a single SMTP connection. Up to app.mail.outbox.workers drains run
+ * at once, each on its own batch and connection, so a fan-out of a few dozen
+ * mails is sent in parallel. Failed messages are retried with exponential backoff until
+ * max-attempts, then parked as FAILED. Delivery is at-least-once: a node that
+ * dies mid-send leaves its lease to expire and another node resends.
+ */
+@Service
+@Slf4j
+public class EmailOutboxDispatcher {
+
+    private final EmailOutboxRepository outboxRepository;
+    private final JavaMailSender mailSender;
+    private final EmailTemplates templates;
+    private final TransactionTemplate transactionTemplate;
+    private final Executor executor;
+
+    private final AtomicInteger activeDrains = new AtomicInteger();
+    private final AtomicLong pending = new AtomicLong();
+    private final Timer sendTimer;
+    private final Timer deliveryLag;
+    private final Counter sentCounter;
+    private final Counter failedCounter;
+
+    @Value("${spring.mail.username:noreply@primearena.com}")
+    private String fromEmail;
+
+    @Value("${app.mail.from.name:PrimeArena}")
+    private String fromName;
+
+    @Value("${app.mail.replyTo:}")
+    private String replyTo;
+
+    @Value("${app.mail.outbox.batch-size:20}")
+    private int batchSize;
+
+    @Value("${app.mail.outbox.workers:4}")
+    private int workers;
+
+    @Value("${app.mail.outbox.max-attempts:8}")
+    private int maxAttempts;
+
+    @Value("${app.mail.outbox.lease:2m}")
+    private Duration lease;
+
+    @Value("${app.mail.outbox.initial-backoff:30s}")
+    private Duration initialBackoff;
+
+    @Value("${app.mail.outbox.max-backoff:1h}")
+    private Duration maxBackoff;
+
+    public EmailOutboxDispatcher(EmailOutboxRepository outboxRepository,
+            JavaMailSender mailSender,
+            EmailTemplates templates,
+            TransactionTemplate transactionTemplate,
+            @Qualifier("taskExecutor") Executor executor,
+            MeterRegistry meterRegistry) {
+        this.outboxRepository = outboxRepository;
+        this.mailSender = mailSender;
+        this.templates = templates;
+        this.transactionTemplate = transactionTemplate;
+        this.executor = executor;
+        Gauge.builder("mail.outbox.pending", pending, AtomicLong::get)
+                .description("Emails waiting in the outbox")
+                .register(meterRegistry);
+        this.sendTimer = Timer.builder("mail.outbox.send")
+                .description("Time to hand one outbox batch to the SMTP server")
+                .register(meterRegistry);
+        this.deliveryLag = Timer.builder("mail.outbox.delivery.lag")
+                .description("Time from enqueue to successful send")
+                .register(meterRegistry);
+        this.sentCounter = Counter.builder("mail.outbox.sent").register(meterRegistry);
+        this.failedCounter = Counter.builder("mail.outbox.failed")
+                .description("Emails given up on after max-attempts")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Start a drain once the current transaction commits, so freshly queued
+     * mail (OTPs in particular) does not wait for the next poll.
+     */
+    public void wakeUpAfterCommit() {
+        wakeUpAfterCommit(1);
+    }
+
+    /**
+     * As above, starting enough parallel drains (up to workers) to cover
+     * {@code queued} messages in one round of batches.
+     */
+    public void wakeUpAfterCommit(int queued) {
+        int drains = Math.max(1, Math.min(workers, (queued + batchSize - 1) / batchSize));
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    wakeUp(drains);
+                }
+            });
+        } else {
+            wakeUp(drains);
+        }
+    }
+
+    private void wakeUp(int drains) {
+        try {
+            for (int i = 0; i < drains; i++) {
+                executor.execute(this::drain);
+            }
+        } catch (RejectedExecutionException e) {
+            log.debug("Outbox wake-up rejected, next poll will pick the mail up");
+        }
+    }
+
+    /**
+     * Picks up retries and anything a wake-up missed. Only hands the drain to
+     * the executor: the scheduler's two threads also fire registration
+     * cutoffs and the SSE heartbeat, and must never wait on SMTP.
+     */
+    @Scheduled(fixedDelayString = "${app.mail.outbox.poll-interval-ms:5000}")
+    @Timed("scheduler.tick")
+    public void poll() {
+        wakeUp(1);
+    }
+
+    void drain() {
+        if (activeDrains.incrementAndGet() > workers) {
+            activeDrains.decrementAndGet();
+            return;
+        }
+        try {
+            List<EmailOutbox> batch;
+            do {
+                LocalDateTime now = LocalDateTime.now();
+                batch = transactionTemplate.execute(status
+                        -> outboxRepository.claimBatch(now, now.plus(lease), batchSize));
+                if (batch == null || batch.isEmpty()) {
+                    break;
+                }
+                deliver(batch);
+            } while (batch.size() >= batchSize);
+        } catch (Exception e) {
+            log.warn("Email outbox drain failed: {}", e.getMessage(), e);
+        } finally {
+            activeDrains.decrementAndGet();
+            refreshPending();
+        }
+    }
+
+    private void deliver(List<EmailOutbox> batch) {
+        Map<MimeMessage, EmailOutbox> messages = new IdentityHashMap<>();
+        for (EmailOutbox row : batch) {
+            try {
+                messages.put(toMimeMessage(row), row);
+            } catch (MessagingException | UnsupportedEncodingException e) {
+                retryOrFail(row, e);
+            }
+        }
+        if (messages.isEmpty()) {
+            return;
+        }
+
+        Map<Object, Exception> failures;
+        Timer.Sample sample = Timer.start();
+        try {
+            mailSender.send(messages.keySet().toArray(new MimeMessage[0]));
+            failures = Map.of();
+        } catch (MailSendException e) {
+            // Per-message failures; a connect failure lists every message
+            failures = e.getFailedMessages();
+        } catch (MailException e) {
+            failures = new IdentityHashMap<>();
+            for (MimeMessage mime : messages.keySet()) {
+                failures.put(mime, e);
+            }
+        } finally {
+            sample.stop(sendTimer);
+        }
+
+        LocalDateTime sentAt = LocalDateTime.now();
+        List<Long> sentIds = new ArrayList<>();
+        for (Map.Entry<MimeMessage, EmailOutbox> entry : messages.entrySet()) {
+            EmailOutbox row = entry.getValue();
+            Exception failure = failures.get(entry.getKey());
+            if (failure == null) {
+                sentIds.add(row.getId());
+                deliveryLag.record(Duration.between(row.getCreatedAt(), sentAt));
+            } else {
+                retryOrFail(row, failure);
+            }
+        }
+        if (!sentIds.isEmpty()) {
+            transactionTemplate.executeWithoutResult(status -> outboxRepository.markSent(sentIds, sentAt));
+            sentCounter.increment(sentIds.size());
+            log.info("Sent {} outbox email(s)", sentIds.size());
+        }
+    }
+
+    private void retryOrFail(EmailOutbox row, Exception failure) {
+        String error = truncate(failure.getMessage());
+        // attempts already counts the delivery that just failed
+        if (row.getAttempts() >= maxAttempts) {
+            transactionTemplate.executeWithoutResult(status -> outboxRepository.markFailed(row.getId(), error));
+            failedCounter.increment();
+            log.error("Giving up on outbox email {} to {} after {} attempts: {}",
+                    row.getId(), row.getRecipients(), row.getAttempts(), error);
+        } else {
+            LocalDateTime next = LocalDateTime.now().plus(backoff(row.getAttempts()));
+            transactionTemplate.executeWithoutResult(status -> outboxRepository.reschedule(row.getId(), next, error));
+            log.warn("Outbox email {} failed (attempt {}), retrying at {}: {}",
+                    row.getId(), row.getAttempts(), next, error);
+        }
+    }
+
+    /**
+     * initial-backoff doubled per attempt, capped at max-backoff, with 20%
+     * jitter so a burst of failures does not retry in lockstep.
+     */
+    private Duration backoff(int attempts) {
+        long base = initialBackoff.toMillis() << Math.min(Math.max(attempts - 1, 0), 20);
+        long capped = Math.min(base, maxBackoff.toMillis());
+        long jitter = (long) (capped * 0.2 * ThreadLocalRandom.current().nextDouble());
+        return Duration.ofMillis(capped - jitter);
+    }
+
+    private MimeMessage toMimeMessage(EmailOutbox row) throws MessagingException, UnsupportedEncodingException {
+        MimeMessage mime = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(mime, true, "UTF-8");
+        helper.setFrom(new InternetAddress(fromEmail, fromName));
+        helper.setTo(row.getRecipients().split(","));
+        if (replyTo != null && !replyTo.isBlank()) {
+            helper.setReplyTo(replyTo);
+        }
+        helper.setSubject(row.getSubject());
+        helper.setText(row.getHtmlBody(), true);
+        if (row.isInlineLogo() && templates.logo() != null) {
+            helper.addInline(EmailService.LOGO_CID, templates.logo());
+        }
+        if (row.getAttachmentData() != null && row.getAttachmentName() != null) {
+            String contentType = row.getAttachmentType() != null ? row.getAttachmentType() : "application/octet-stream";
+            helper.addAttachment(row.getAttachmentName(), new ByteArrayResource(row.getAttachmentData()), contentType);
+        }
+        return mime;
+    }
+
+    private void refreshPending() {
+        try {
+            pending.set(outboxRepository.countByStatus(EmailOutboxStatus.PENDING));
+        } catch (Exception e) {
+            log.debug("Could not refresh outbox depth: {}", e.getMessage());
+        }
+    }
+
+    private static String truncate(String message) {
+        if (message == null) {
+            return null;
+        }
+        return message.length() > 1000 ? message.substring(0, 1000) : message;
+    }
+}
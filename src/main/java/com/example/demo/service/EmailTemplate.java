@@ -0,0 +1,197 @@
+package com.example.demo.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An email body parsed once into literal and placeholder segments. Supported
+ * markup is a small mustache subset:
+ * <ul>
+ * <li>{@code {{name}}} - value, HTML-escaped</li>
+ * <li>{@code {{{name}}}} - value inserted as-is (caller-built markup)</li>
+ * <li>{@code {{#name}}...{{/name}}} - rendered only when the value is
+ * non-blank</li>
+ * </ul>
+ * Names are resolved to slots at parse time, so rendering is a single pass
+ * over the segments into a presized builder.
+ */
+public final class EmailTemplate {
+
+    private final String name;
+    private final List<Segment> segments;
+    private final Map<String, Integer> slots;
+    private final int literalLength;
+
+    private EmailTemplate(String name, List<Segment> segments, Map<String, Integer> slots, int literalLength) {
+        this.name = name;
+        this.segments = segments;
+        this.slots = slots;
+        this.literalLength = literalLength;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public Model model() {
+        return new Model();
+    }
+
+    /**
+     * Values for one render. Unset names render as empty and hide their
+     * sections.
+     */
+    public final class Model {
+
+        private final Object[] values = new Object[slots.size()];
+
+        private Model() {
+        }
+
+        public Model with(String key, Object value) {
+            Integer slot = slots.get(key);
+            if (slot == null) {
+                throw new IllegalArgumentException("Template " + name + " has no placeholder " + key);
+            }
+            values[slot] = value;
+            return this;
+        }
+
+        public String render() {
+            StringBuilder out = new StringBuilder(literalLength + 32 * values.length);
+            renderInto(segments, values, out);
+            return out.toString();
+        }
+    }
+
+    private static void renderInto(List<Segment> segments, Object[] values, StringBuilder out) {
+        for (Segment segment : segments) {
+            switch (segment) {
+                case Literal literal ->
+                    out.append(literal.text());
+                case Value value -> {
+                    Object v = values[value.slot()];
+                    if (v != null) {
+                        if (value.raw()) {
+                            out.append(v);
+                        } else {
+                            escapeInto(String.valueOf(v), out);
+                        }
+                    }
+                }
+                case Section section -> {
+                    Object v = values[section.slot()];
+                    if (v != null && !String.valueOf(v).isBlank()) {
+                        renderInto(section.body(), values, out);
+                    }
+                }
+            }
+        }
+    }
+
+    public static String escape(String in) {
+        if (in == null) {
+            return "";
+        }
+        StringBuilder out = new StringBuilder(in.length() + 16);
+        escapeInto(in, out);
+        return out.toString();
+    }
+
+    private static void escapeInto(String in, StringBuilder out) {
+        for (int i = 0; i < in.length(); i++) {
+            char c = in.charAt(i);
+            switch (c) {
+                case '&' ->
+                    out.append("&amp;");
+                case '<' ->
+                    out.append("&lt;");
+                case '>' ->
+                    out.append("&gt;");
+                case '"' ->
+                    out.append("&quot;");
+                case '\'' ->
+                    out.append("&#39;");
+                default ->
+                    out.append(c);
+            }
+        }
+    }
+
+    /**
+     * Parse template source; malformed markup fails fast at startup rather
+     * than on the first send.
+     */
+    public static EmailTemplate parse(String name, String source) {
+        Map<String, Integer> slots = new HashMap<>();
+        List<List<Segment>> stack = new ArrayList<>();
+        List<String> open = new ArrayList<>();
+        List<Segment> current = new ArrayList<>();
+        int literalLength = 0;
+        int pos = 0;
+        while (pos < source.length()) {
+            int start = source.indexOf("{{", pos);
+            if (start < 0) {
+                current.add(new Literal(source.substring(pos)));
+                literalLength += source.length() - pos;
+                break;
+            }
+            if (start > pos) {
+                current.add(new Literal(source.substring(pos, start)));
+                literalLength += start - pos;
+            }
+            boolean raw = source.startsWith("{{{", start);
+            String close = raw ? "}}}" : "}}";
+            int end = source.indexOf(close, start);
+            if (end < 0) {
+                throw new IllegalStateException("Unclosed tag in email template " + name + " at offset " + start);
+            }
+            String tag = source.substring(start + (raw ? 3 : 2), end).trim();
+            pos = end + close.length();
+
+            if (!raw && tag.startsWith("#")) {
+                String key = tag.substring(1).trim();
+                stack.add(current);
+                open.add(key);
+                current = new ArrayList<>();
+            } else if (!raw && tag.startsWith("/")) {
+                String key = tag.substring(1).trim();
+                if (open.isEmpty() || !open.get(open.size() - 1).equals(key)) {
+                    throw new IllegalStateException("Unexpected {{/" + key + "}} in email template " + name);
+                }
+                open.remove(open.size() - 1);
+                Segment section = new Section(slot(slots, key), List.copyOf(current));
+                current = stack.remove(stack.size() - 1);
+                current.add(section);
+            } else {
+                current.add(new Value(slot(slots, tag), raw));
+            }
+        }
+        if (!open.isEmpty()) {
+            throw new IllegalStateException("Unclosed section {{#" + open.get(open.size() - 1) + "}} in email template " + name);
+        }
+        return new EmailTemplate(name, List.copyOf(current), Map.copyOf(slots), literalLength);
+    }
+
+    private static int slot(Map<String, Integer> slots, String key) {
+        return slots.computeIfAbsent(key, k -> slots.size());
+    }
+
+    private sealed interface Segment permits Literal, Value, Section {
+
+    }
+
+    private record Literal(String text) implements Segment {
+
+    }
+
+    private record Value(int slot, boolean raw) implements Segment {
+
+    }
+
+    private record Section(int slot, List<Segment> body) implements Segment {
+
+    }
+}
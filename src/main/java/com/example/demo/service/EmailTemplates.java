@@ -0,0 +1,84 @@
+package com.example.demo.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URLConnection;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.ResourcePatternResolver;
+import org.springframework.stereotype.Component;
+
+import jakarta.activation.DataSource;
+import jakarta.mail.util.ByteArrayDataSource;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Email bodies from classpath:templates/email/*.html, parsed once at startup,
+ * plus the inline logo read once into memory. Both are immutable afterwards
+ * and shared by every render and send.
+ */
+@Component
+@Slf4j
+public class EmailTemplates {
+
+    private static final String LOCATION = "classpath*:templates/email/*.html";
+
+    private final Map<String, EmailTemplate> templates;
+    private final DataSource logo;
+
+    public EmailTemplates(ResourcePatternResolver resolver,
+            @Value("${app.mail.logo.path:}") String logoPath) throws IOException {
+        Map<String, EmailTemplate> parsed = new HashMap<>();
+        for (Resource resource : resolver.getResources(LOCATION)) {
+            String filename = resource.getFilename();
+            if (filename == null) {
+                continue;
+            }
+            String name = filename.substring(0, filename.length() - ".html".length());
+            parsed.put(name, EmailTemplate.parse(name, resource.getContentAsString(StandardCharsets.UTF_8)));
+        }
+        this.templates = Map.copyOf(parsed);
+        this.logo = loadLogo(resolver, logoPath);
+        log.debug("Loaded {} email templates, inline logo {}", templates.size(), logo != null ? "present" : "absent");
+    }
+
+    public EmailTemplate.Model get(String name) {
+        EmailTemplate template = templates.get(name);
+        if (template == null) {
+            throw new IllegalStateException("Email template not found: " + name);
+        }
+        return template.model();
+    }
+
+    /**
+     * The inline logo, or null when app.mail.logo.path is unset or missing.
+     */
+    public DataSource logo() {
+        return logo;
+    }
+
+    private static DataSource loadLogo(ResourcePatternResolver resolver, String logoPath) {
+        if (logoPath == null || logoPath.isBlank()) {
+            return null;
+        }
+        Resource res = resolver.getResource(logoPath);
+        if (!res.exists()) {
+            log.warn("Logo resource not found at {}", logoPath);
+            return null;
+        }
+        String contentType = URLConnection.guessContentTypeFromName(res.getFilename());
+        try (InputStream in = res.getInputStream()) {
+            ByteArrayDataSource dataSource = new ByteArrayDataSource(in.readAllBytes(),
+                    contentType != null ? contentType : "image/png");
+            dataSource.setName(res.getFilename());
+            return dataSource;
+        } catch (IOException e) {
+            log.warn("Could not load logo from {}: {}", logoPath, e.getMessage());
+            return null;
+        }
+    }
+}
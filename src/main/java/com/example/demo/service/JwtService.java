@@ -1,17 +1,17 @@
 package com.example.demo.service;
 
-import java.security.Key;
 import java.util.Date;
-import java.util.function.Function;
+
+import javax.crypto.SecretKey;
 
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 
 @Service
 public class JwtService {
@@ -22,45 +22,54 @@ public class JwtService {
     @Value("${app.jwt.expiration:${JWT_EXPIRATION:3600000}}") // default 1 hour
     private long expirationMs;
 
-    public String generateToken(String email) {
+    // Derived once; both are immutable and safe to share across request threads
+    private SecretKey signingKey;
+    private JwtParser parser;
+
+    @PostConstruct
+    void init() {
         if (secretKey == null || secretKey.isBlank()) {
-            throw new IllegalStateException("JWT secret is not configured. Set env JWT_SECRET or app.jwt.secret");
+            return; // generateToken/parse report the missing secret when first used
         }
-        return Jwts.builder()
-                .setSubject(email)
-                .setIssuedAt(new Date(System.currentTimeMillis()))
-                .setExpiration(new Date(System.currentTimeMillis() + expirationMs))
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
-                .compact();
-    }
-
-    public String extractemail(String token) {
-        return extractClaim(token, Claims::getSubject);
+        signingKey = Keys.hmacShaKeyFor(secretKey.getBytes());
+        parser = Jwts.parser()
+                .verifyWith(signingKey)
+                .build();
     }
 
-    public boolean isTokenValid(String token, UserDetails userDetails) {
-        final String email = extractemail(token);
-        return email.equals(userDetails.getUsername()) && !isTokenExpired(token);
-    }
-
-    private boolean isTokenExpired(String token) {
-        return extractClaim(token, Claims::getExpiration).before(new Date());
+    public String generateToken(String email) {
+        requireConfigured();
+        long now = System.currentTimeMillis();
+        return Jwts.builder()
+                .subject(email)
+                .issuedAt(new Date(now))
+                .expiration(new Date(now + expirationMs))
+                .signWith(signingKey)
+                .compact();
     }
 
-    public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
-        return claimsResolver.apply(claims);
+    /**
+     * Verify the token once and expose its claims. Expired tokens surface as
+     * ExpiredJwtException, so callers never need a second parse to check the
+     * expiration.
+     */
+    public ParsedToken parse(String token) {
+        Claims claims = extractAllClaims(token);
+        return ParsedToken.builder()
+                .subject(claims.getSubject())
+                .issuedAt(claims.getIssuedAt() != null ? claims.getIssuedAt().toInstant() : null)
+                .expiresAt(claims.getExpiration() != null ? claims.getExpiration().toInstant() : null)
+                .build();
     }
 
     private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        requireConfigured();
+        return parser.parseSignedClaims(token).getPayload();
     }
 
-    private Key getSigningKey() {
-        return Keys.hmacShaKeyFor(secretKey.getBytes());
+    private void requireConfigured() {
+        if (signingKey == null) {
+            throw new IllegalStateException("JWT secret is not configured. Set env JWT_SECRET or app.jwt.secret");
+        }
     }
 }
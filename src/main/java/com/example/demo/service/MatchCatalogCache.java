@@ -0,0 +1,215 @@
+package com.example.demo.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.DigestUtils;
+
+import com.example.demo.config.DbBulkhead;
+import com.example.demo.entity.Match;
+import com.example.demo.repository.MatchRepository;
+import com.example.demo.repository.RegistrationRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Read-through cache of the public match catalog. Holds one immutable
+ * snapshot with the match lists and their pre-serialized JSON, so the
+ * anonymous list endpoints skip Hibernate and Jackson entirely. Once a
+ * snapshot exists it is always served: when it is invalidated (after
+ * commit), past its refresh age, or an upcoming match has started, readers
+ * keep getting it while one background reload runs. Only the very first
+ * read waits for a load. Callers get copies of the cached matches, never
+ * the shared instances.
+ */
+@Component
+public class MatchCatalogCache {
+
+    private static final Logger log = LoggerFactory.getLogger(MatchCatalogCache.class);
+
+    private final MatchRepository matchRepository;
+    private final RegistrationRepository registrationRepository;
+    private final ObjectMapper objectMapper;
+    private final Executor executor;
+    private final DbBulkhead bulkhead;
+
+    private final AtomicReference<Snapshot> current = new AtomicReference<>();
+    private final AtomicReference<Load> inFlight = new AtomicReference<>();
+    private final AtomicLong generation = new AtomicLong();
+
+    @Value("${app.matches.catalog.refresh-after:30s}")
+    private Duration refreshAfter;
+
+    public MatchCatalogCache(MatchRepository matchRepository,
+            RegistrationRepository registrationRepository,
+            ObjectMapper objectMapper,
+            @Qualifier("taskExecutor") Executor executor,
+            DbBulkhead bulkhead) {
+        this.matchRepository = matchRepository;
+        this.registrationRepository = registrationRepository;
+        this.objectMapper = objectMapper;
+        this.executor = executor;
+        this.bulkhead = bulkhead;
+    }
+
+    /**
+     * ETags are digests of the serialized bytes, so a reload that finds
+     * nothing changed keeps the same tag and clients keep getting 304s.
+     */
+    public record Snapshot(long generation, long loadedAtNanos, LocalDateTime nextStart,
+            List<Match> all, byte[] allJson, String allEtag,
+            List<Match> upcoming, byte[] upcomingJson, String upcomingEtag) {
+
+        @Override
+        public List<Match> all() {
+            return copies(all);
+        }
+
+        @Override
+        public List<Match> upcoming() {
+            return copies(upcoming);
+        }
+
+        private static List<Match> copies(List<Match> matches) {
+            return matches.stream().map(m -> m.toBuilder().build()).toList();
+        }
+    }
+
+    // A reload started at a given generation; it cannot satisfy a later one
+    private record Load(long generation, CompletableFuture<Snapshot> future) {
+
+    }
+
+    public Snapshot get() {
+        Snapshot snapshot = current.get();
+        if (snapshot == null) {
+            return refresh().join();
+        }
+        if (isStale(snapshot)) {
+            refresh();
+        }
+        return snapshot;
+    }
+
+    // An upcoming match starting makes the upcoming list wrong, so it is a reason to reload too
+    private boolean isStale(Snapshot snapshot) {
+        return snapshot.generation() != generation.get()
+                || System.nanoTime() - snapshot.loadedAtNanos() >= refreshAfter.toNanos()
+                || (snapshot.nextStart() != null && !LocalDateTime.now().isBefore(snapshot.nextStart()));
+    }
+
+    /**
+     * Mark the current snapshot stale once the surrounding transaction
+     * commits (or immediately outside one) and start reloading in the
+     * background.
+     */
+    public void invalidate() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidateNow();
+                }
+            });
+        } else {
+            invalidateNow();
+        }
+    }
+
+    private void invalidateNow() {
+        generation.incrementAndGet();
+        refresh();
+    }
+
+    // Single-flight reload: concurrent callers share the load already running,
+    // unless it started before the latest invalidation and may miss the change
+    private CompletableFuture<Snapshot> refresh() {
+        while (true) {
+            long gen = generation.get();
+            Load running = inFlight.get();
+            if (running != null && running.generation() >= gen) {
+                return running.future();
+            }
+            Load mine = new Load(gen, new CompletableFuture<>());
+            if (inFlight.compareAndSet(running, mine)) {
+                try {
+                    executor.execute(() -> load(mine));
+                } catch (RuntimeException e) {
+                    // Executor saturated; load on the caller, still within the SCHEDULER budget
+                    bulkhead.runAsBackground(() -> load(mine));
+                }
+                return mine.future();
+            }
+        }
+    }
+
+    private void load(Load target) {
+        try {
+            long gen = target.generation();
+            List<Match> all = matchRepository.findAll();
+            applyRegisteredCounts(all);
+
+            LocalDateTime now = LocalDateTime.now();
+            List<Match> upcoming = all.stream()
+                    .filter(m -> m.getScheduledAt() != null && m.getScheduledAt().isAfter(now))
+                    .sorted(Comparator.comparing(Match::getScheduledAt))
+                    .toList();
+            LocalDateTime nextStart = upcoming.isEmpty() ? null : upcoming.get(0).getScheduledAt();
+
+            byte[] allJson = objectMapper.writeValueAsBytes(all);
+            byte[] upcomingJson = objectMapper.writeValueAsBytes(upcoming);
+            Snapshot snapshot = new Snapshot(gen, System.nanoTime(), nextStart,
+                    List.copyOf(all), allJson, etag(allJson),
+                    upcoming, upcomingJson, etag(upcomingJson));
+            // A superseded load finishing late must not replace a newer snapshot
+            current.accumulateAndGet(snapshot, (prev, next) ->
+                    prev != null && prev.generation() > next.generation() ? prev : next);
+            target.future().complete(snapshot);
+        } catch (Exception e) {
+            log.warn("Failed to load match catalog: {}", e.getMessage());
+            target.future().completeExceptionally(e);
+        } finally {
+            inFlight.compareAndSet(target, null);
+        }
+    }
+
+    private static String etag(byte[] body) {
+        return "\"" + DigestUtils.md5DigestAsHex(body) + "\"";
+    }
+
+    private void applyRegisteredCounts(List<Match> matches) {
+        List<Long> ids = matches.stream()
+                .map(Match::getId)
+                .filter(Objects::nonNull)
+                .toList();
+        if (ids.isEmpty()) {
+            return;
+        }
+        Map<Long, Integer> counts = new HashMap<>();
+        for (Object[] row : registrationRepository.countConfirmedByMatchIds(ids)) {
+            Number cnt = (Number) row[1];
+            counts.put((Long) row[0], cnt != null ? cnt.intValue() : 0);
+        }
+        for (Match m : matches) {
+            Integer c = counts.get(m.getId());
+            if (c != null) {
+                m.setRegisteredTeams(c);
+            }
+        }
+    }
+}
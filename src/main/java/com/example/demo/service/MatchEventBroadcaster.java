@@ -0,0 +1,222 @@
+package com.example.demo.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.example.demo.config.DbBulkhead;
+import com.example.demo.dto.MatchDelta;
+import com.example.demo.entity.Match;
+import com.example.demo.repository.MatchRepository;
+
+import io.micrometer.core.annotation.Timed;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Fans match changes out to Server-Sent Events subscribers. Each subscriber
+ * keeps at most one pending delta per match (newer replaces older), so a slow
+ * client costs bounded memory and simply sees the latest state when it
+ * catches up. Sends run on virtual threads, one drain per subscriber at a
+ * time, so no request or scheduler thread ever blocks on a client socket.
+ * Delta loads run in the SCHEDULER bulkhead compartment, so a publish burst
+ * cannot take connections from player traffic.
+ */
+@Component
+public class MatchEventBroadcaster {
+
+    private static final Logger log = LoggerFactory.getLogger(MatchEventBroadcaster.class);
+
+    private final MatchRepository matchRepository;
+    private final DbBulkhead bulkhead;
+    private final ExecutorService sendExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    // Reserved before a subscriber is added, so concurrent subscribes cannot overshoot the cap
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    // Matches with a delta build running, mapped to whether they changed again since it
+    // started. One build per match at a time keeps deltas in order (an older load can
+    // never overwrite a newer one), and a burst of changes collapses into one reload.
+    private final Map<Long, Boolean> building = new ConcurrentHashMap<>();
+
+    @Value("${app.matches.stream.max-subscribers:10000}")
+    private int maxSubscribers;
+
+    @Value("${app.matches.stream.timeout:30m}")
+    private Duration timeout;
+
+    public MatchEventBroadcaster(MatchRepository matchRepository, DbBulkhead bulkhead) {
+        this.matchRepository = matchRepository;
+        this.bulkhead = bulkhead;
+    }
+
+    /**
+     * Register a new stream, or null when the node is at its subscriber cap.
+     */
+    public SseEmitter subscribe() {
+        if (subscriberCount.incrementAndGet() > maxSubscribers) {
+            subscriberCount.decrementAndGet();
+            return null;
+        }
+        SseEmitter emitter = newEmitter(timeout.toMillis());
+        Subscriber subscriber = new Subscriber(emitter);
+        subscribers.add(subscriber);
+        emitter.onCompletion(subscriber::remove);
+        emitter.onTimeout(subscriber::remove);
+        emitter.onError(e -> subscriber.remove());
+        return emitter;
+    }
+
+    int subscriberCount() {
+        return subscriberCount.get();
+    }
+
+    SseEmitter newEmitter(long timeoutMillis) {
+        return new SseEmitter(timeoutMillis);
+    }
+
+    /**
+     * Announce that a match's registrations or status changed. Inside a
+     * transaction the delta is built after commit, from committed data.
+     */
+    public void publish(Long matchId) {
+        if (matchId == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    markDirty(matchId);
+                }
+            });
+        } else {
+            markDirty(matchId);
+        }
+    }
+
+    private void markDirty(Long matchId) {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        boolean[] start = new boolean[1];
+        building.compute(matchId, (id, changedAgain) -> {
+            start[0] = changedAgain == null;
+            return changedAgain != null;
+        });
+        if (start[0]) {
+            sendExecutor.execute(() -> bulkhead.runAsBackground(() -> build(matchId)));
+        }
+    }
+
+    private void build(Long matchId) {
+        do {
+            try {
+                matchRepository.findById(matchId).map(this::toDelta).ifPresent(this::broadcast);
+            } catch (Exception e) {
+                log.warn("Failed to build match delta for id={}: {}", matchId, e.getMessage());
+            }
+            // Clear the flag and go again if it was set, or finish and drop the entry
+        } while (building.compute(matchId, (id, changedAgain) -> changedAgain ? Boolean.FALSE : null) != null);
+    }
+
+    private MatchDelta toDelta(Match match) {
+        Long minutesUntil = match.getScheduledAt() != null
+                ? Duration.between(LocalDateTime.now(), match.getScheduledAt()).toMinutes()
+                : null;
+        return MatchDelta.builder()
+                .matchId(match.getId())
+                .registeredTeams(match.getRegisteredTeams())
+                .status(match.getStatus() != null ? match.getStatus().name() : null)
+                .minutesUntilMatch(minutesUntil)
+                .build();
+    }
+
+    private void broadcast(MatchDelta delta) {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.pending.put(delta.getMatchId(), delta);
+            subscriber.scheduleDrain();
+        }
+    }
+
+    // Keeps idle connections open through proxies and detects dead clients
+    @Scheduled(fixedRate = 25_000)
+    @Timed("scheduler.tick")
+    public void heartbeat() {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.heartbeatDue = true;
+            subscriber.scheduleDrain();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        subscribers.forEach(s -> s.emitter.complete());
+        sendExecutor.shutdownNow();
+    }
+
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final Map<Long, MatchDelta> pending = new ConcurrentHashMap<>();
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private volatile boolean heartbeatDue;
+
+        private Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        void remove() {
+            // Completion, timeout and error callbacks may all fire; release the reservation once
+            if (subscribers.remove(this)) {
+                subscriberCount.decrementAndGet();
+            }
+        }
+
+        void scheduleDrain() {
+            if (draining.compareAndSet(false, true)) {
+                sendExecutor.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            try {
+                do {
+                    if (heartbeatDue) {
+                        heartbeatDue = false;
+                        emitter.send(SseEmitter.event().comment("heartbeat"));
+                    }
+                    Iterator<Map.Entry<Long, MatchDelta>> it = pending.entrySet().iterator();
+                    while (it.hasNext()) {
+                        Map.Entry<Long, MatchDelta> entry = it.next();
+                        // Only drop the entry we send; a newer delta stays queued
+                        if (pending.remove(entry.getKey(), entry.getValue())) {
+                            emitter.send(SseEmitter.event().name("match").data(entry.getValue()));
+                        }
+                    }
+                    draining.set(false);
+                    // Re-check: work may have arrived after the loop but before the flag cleared
+                } while ((!pending.isEmpty() || heartbeatDue) && draining.compareAndSet(false, true));
+            } catch (Exception e) {
+                // Client went away, or the event could not be written. Either way the
+                // stream is finished; draining stays set so nothing is scheduled for it again
+                remove();
+                emitter.completeWithError(e);
+            }
+        }
+    }
+}
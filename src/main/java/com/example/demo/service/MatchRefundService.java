@@ -0,0 +1,41 @@
+package com.example.demo.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.demo.repository.WalletRepository;
+import com.example.demo.repository.WalletRepository.RefundEntry;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Set-based refunds for cancelled matches. All confirmed registrations of the
+ * match are cancelled and their entry fees credited back in a couple of
+ * statements instead of a wallet round trip per registration. Safe to call
+ * again for the same match: already refunded registrations are skipped.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class MatchRefundService {
+
+    private final WalletRepository walletRepository;
+
+    @Transactional
+    public int refundCancelledMatch(Long matchId, String description) {
+        LocalDateTime now = LocalDateTime.now();
+        walletRepository.createMissingWalletsForMatch(matchId, now);
+        List<RefundEntry> refunds = walletRepository.refundCancelledMatch(matchId, description, now);
+
+        BigDecimal total = refunds.stream()
+                .map(RefundEntry::getAmount)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        log.info("Refunded {} registrations totalling {} for cancelled match id={}", refunds.size(), total, matchId);
+        return refunds.size();
+    }
+}
@@ -1,14 +1,18 @@
 package com.example.demo.service;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.example.demo.config.ReadFromPrimary;
 import com.example.demo.dto.MatchResultRequest;
 import com.example.demo.dto.MatchResultResponse;
 import com.example.demo.dto.PrizeDistributionResponse;
@@ -19,6 +23,7 @@ import com.example.demo.entity.RegistrationPlayer;
 import com.example.demo.entity.RegistrationStatus;
 import com.example.demo.repository.MatchRepository;
 import com.example.demo.repository.MatchResultRepository;
+import com.example.demo.repository.RegistrationPlayerRepository;
 import com.example.demo.repository.RegistrationRepository;
 
 import lombok.RequiredArgsConstructor;
@@ -29,53 +34,49 @@ public class MatchResultService {
 
     private final MatchResultRepository matchResultRepository;
     private final RegistrationRepository registrationRepository;
+    private final RegistrationPlayerRepository playerRepository;
     private final MatchRepository matchRepository;
-    private final WalletService walletService;
+    private final PrizeSettlementService prizeSettlementService;
+    private final PrizeRules prizeRules;
+    private final BusinessMetrics metrics;
 
     @Transactional(readOnly = true)
     public List<MatchResultResponse> getMatchResults(Long matchId) {
-        List<MatchResult> results = matchResultRepository.findByMatchIdOrderByPositionAsc(matchId);
+        List<MatchResult> results = matchResultRepository.findByMatchIdWithRegistrationAndUser(matchId);
+        Map<Long, RegistrationPlayer> primaryPlayers = findPrimaryPlayers(results.stream()
+                .map(r -> r.getRegistration().getId())
+                .toList());
         return results.stream()
-                .map(this::mapToResponse)
+                .map(r -> mapToResponse(r, primaryPlayers.get(r.getRegistration().getId())))
                 .collect(Collectors.toList());
     }
 
     @Transactional(readOnly = true)
+    @ReadFromPrimary
     public List<MatchResultResponse> getParticipantsForMatch(Long matchId) {
-        // Get all registrations for this match with eager user & match to avoid lazy init issues
-        List<Registration> registrations = registrationRepository.findByMatchIdAndStatusWithMatchAndUser(matchId, RegistrationStatus.CONFIRMED);
-
-        return registrations.stream()
-                .map(registration -> {
-                    // Check if result already exists
-                    MatchResult existingResult = matchResultRepository.findByRegistrationId(registration.getId()).orElse(null);
+        // One query for registrations (with user) and their optional result, one for all players
+        List<Object[]> rows = registrationRepository.findParticipantsWithResults(matchId, RegistrationStatus.CONFIRMED);
+        Map<Long, RegistrationPlayer> primaryPlayers = findPrimaryPlayers(rows.stream()
+                .map(row -> ((Registration) row[0]).getId())
+                .toList());
+
+        return rows.stream()
+                .map(row -> {
+                    Registration registration = (Registration) row[0];
+                    MatchResult existingResult = (MatchResult) row[1];
+                    RegistrationPlayer primary = primaryPlayers.get(registration.getId());
 
                     if (existingResult != null) {
-                        return mapToResponse(existingResult);
+                        return mapToResponse(existingResult, primary);
                     } else {
                         // Return participant without result data
-                        // Choose primary player data if present
-                        String gName = null;
-                        String gId = null;
-                        try {
-                            if (registration.getPlayers() != null && !registration.getPlayers().isEmpty()) {
-                                var primary = registration.getPlayers().stream()
-                                        .sorted((a, b) -> Integer.compare(a.getPlayerPosition(), b.getPlayerPosition()))
-                                        .findFirst().orElse(null);
-                                if (primary != null) {
-                                    gName = primary.getGameName();
-                                    gId = primary.getGameId();
-                                }
-                            }
-                        } catch (Exception ignored) {
-                        }
                         return MatchResultResponse.builder()
                                 .registrationId(registration.getId())
                                 .userId(registration.getUser().getId())
                                 .matchId(matchId)
                                 .playerName(registration.getUser().getName())
-                                .playerGameName(gName)
-                                .playerGameId(gId)
+                                .playerGameName(primary != null ? primary.getGameName() : null)
+                                .playerGameId(primary != null ? primary.getGameId() : null)
                                 .teamName("Team " + registration.getSlotNumber())
                                 .position(null)
                                 .kills(null)
@@ -113,7 +114,9 @@ public class MatchResultService {
         result.setPrizeAmount(prizeAmount);
 
         result = matchResultRepository.save(result);
-        return mapToResponse(result);
+        RegistrationPlayer primary = playerRepository.findByRegistrationIdOrderByPlayerPosition(registration.getId())
+                .stream().findFirst().orElse(null);
+        return mapToResponse(result, primary);
     }
 
     @Transactional(readOnly = true)
@@ -121,92 +124,30 @@ public class MatchResultService {
         Match match = matchRepository.findById(matchId)
                 .orElseThrow(() -> new RuntimeException("Match not found"));
 
-        List<MatchResult> results = matchResultRepository.findByMatchId(matchId);
+        List<MatchResult> results = matchResultRepository.findByMatchIdWithRegistrationAndUser(matchId);
 
         // Dynamic pool based on actual confirmed registrations
         int confirmed = registrationRepository.countConfirmedRegistrationsByMatchId(matchId);
         BigDecimal totalPrizePool = BigDecimal.valueOf((long) match.getEntryFee() * confirmed);
-
-        // Build distributions based on match type
-        List<PrizeDistributionResponse.PrizeDistributionDetail> distributions;
-        switch (match.getMatchType()) {
-            case SOLO:
-                // SOLO: per-kill payout at 80% of entry fee per kill
-                BigDecimal perKill = BigDecimal.valueOf(match.getEntryFee())
-                        .multiply(new BigDecimal("0.80"))
-                        .setScale(0, java.math.RoundingMode.HALF_UP);
-                distributions = results.stream()
-                        .filter(r -> (r.getKills() != null) && (r.getKills() > 0))
-                        .sorted(Comparator.comparing(MatchResult::getKills, Comparator.nullsFirst(Integer::compareTo)).reversed())
-                        .map(r -> PrizeDistributionResponse.PrizeDistributionDetail.builder()
-                        .userId(r.getUser().getId())
-                        .playerName(r.getUser().getName())
-                        .teamName("Team " + r.getRegistration().getSlotNumber())
-                        .position(null)
-                        .kills(r.getKills())
-                        .prizeAmount(perKill.multiply(BigDecimal.valueOf(r.getKills() == null ? 0L : r.getKills().longValue())))
-                        .alreadyCredited(r.getPrizeCredited())
-                        .build())
-                        .collect(Collectors.toList());
-                break;
-            case CLASH_SQUAD:
-                // Winner takes 85% of pool
-                BigDecimal clashPercent = new BigDecimal("0.85");
-                distributions = results.stream()
-                        .filter(r -> r.getPosition() != null && r.getPosition() == 1)
-                        .sorted((a, b) -> Integer.compare(a.getPosition(), b.getPosition()))
-                        .map(r -> PrizeDistributionResponse.PrizeDistributionDetail.builder()
-                        .userId(r.getUser().getId())
-                        .playerName(r.getUser().getName())
-                        .teamName("Team " + r.getRegistration().getSlotNumber())
-                        .position(r.getPosition())
-                        .kills(r.getKills())
-                        .prizeAmount(totalPrizePool.multiply(clashPercent).setScale(0, java.math.RoundingMode.HALF_UP))
-                        .alreadyCredited(r.getPrizeCredited())
-                        .build())
-                        .collect(Collectors.toList());
-                break;
-            case DUO:
-                // DUO: Top 5 by position with 40%, 30%, 20%, 5%, 5%
-                BigDecimal[] duoPercents = new BigDecimal[]{
-                    new BigDecimal("0.40"), new BigDecimal("0.30"), new BigDecimal("0.20"),
-                    new BigDecimal("0.05"), new BigDecimal("0.05")
-                };
-                distributions = results.stream()
-                        .filter(r -> r.getPosition() != null && r.getPosition() >= 1 && r.getPosition() <= 5)
-                        .sorted((a, b) -> Integer.compare(a.getPosition(), b.getPosition()))
-                        .map(r -> PrizeDistributionResponse.PrizeDistributionDetail.builder()
-                        .userId(r.getUser().getId())
-                        .playerName(r.getUser().getName())
-                        .teamName("Team " + r.getRegistration().getSlotNumber())
-                        .position(r.getPosition())
-                        .kills(r.getKills())
-                        .prizeAmount(totalPrizePool.multiply(duoPercents[r.getPosition() - 1]).setScale(0, java.math.RoundingMode.HALF_UP))
-                        .alreadyCredited(r.getPrizeCredited())
-                        .build())
-                        .collect(Collectors.toList());
-                break;
-            case SQUAD:
-            default:
-                // SQUAD and fallback: Top 3 by 40/30/20
-                BigDecimal[] trioPercents = new BigDecimal[]{
-                    new BigDecimal("0.40"), new BigDecimal("0.30"), new BigDecimal("0.20")
-                };
-                distributions = results.stream()
-                        .filter(r -> r.getPosition() != null && r.getPosition() >= 1 && r.getPosition() <= 3)
-                        .sorted((a, b) -> Integer.compare(a.getPosition(), b.getPosition()))
-                        .map(r -> PrizeDistributionResponse.PrizeDistributionDetail.builder()
-                        .userId(r.getUser().getId())
-                        .playerName(r.getUser().getName())
-                        .teamName("Team " + r.getRegistration().getSlotNumber())
-                        .position(r.getPosition())
-                        .kills(r.getKills())
-                        .prizeAmount(totalPrizePool.multiply(trioPercents[r.getPosition() - 1]).setScale(0, java.math.RoundingMode.HALF_UP))
-                        .alreadyCredited(r.getPrizeCredited())
-                        .build())
-                        .collect(Collectors.toList());
-                break;
-        }
+        PayoutTable table = prizeRules.payoutTable(match, confirmed);
+
+        // Kill-ranked formats (SOLO) list by kills and hide position; the rest rank by position
+        Comparator<MatchResult> ranking = table.killsOnly()
+                ? Comparator.comparing(MatchResult::getKills, Comparator.nullsFirst(Integer::compareTo)).reversed()
+                : Comparator.comparing(MatchResult::getPosition, Comparator.nullsLast(Integer::compareTo));
+        List<PrizeDistributionResponse.PrizeDistributionDetail> distributions = results.stream()
+                .filter(r -> table.pays(r.getPosition(), r.getKills()))
+                .sorted(ranking)
+                .map(r -> PrizeDistributionResponse.PrizeDistributionDetail.builder()
+                .userId(r.getUser().getId())
+                .playerName(r.getUser().getName())
+                .teamName("Team " + r.getRegistration().getSlotNumber())
+                .position(table.killsOnly() ? null : r.getPosition())
+                .kills(r.getKills())
+                .prizeAmount(table.prize(r.getPosition(), r.getKills()))
+                .alreadyCredited(r.getPrizeCredited())
+                .build())
+                .collect(Collectors.toList());
 
         BigDecimal toBeDistributed = distributions.stream()
                 .map(PrizeDistributionResponse.PrizeDistributionDetail::getPrizeAmount)
@@ -223,108 +164,75 @@ public class MatchResultService {
 
     @Transactional
     public String creditAllPrizes(Long matchId) {
-        List<MatchResult> uncreditedResults = matchResultRepository.findUncreditedResultsByMatchId(matchId);
-
-        int creditedCount = 0;
-        BigDecimal totalCredited = BigDecimal.ZERO;
-
-        for (MatchResult result : uncreditedResults) {
-            // Recompute prize under current rules
-            BigDecimal dynamicPrize = calculatePrizeAmount(result.getMatch(), result.getPosition(), result.getKills());
-            result.setPrizeAmount(dynamicPrize);
-            matchResultRepository.save(result);
-
-            if (dynamicPrize != null && dynamicPrize.compareTo(BigDecimal.ZERO) > 0) {
-                try {
-                    // Credit the prize to user's wallet
-                    String desc;
-                    if (result.getMatch().getMatchType() == com.example.demo.entity.MatchType.SOLO) {
-                        String kStr = String.valueOf(Optional.ofNullable(result.getKills()).orElse(0));
-                        desc = "Tournament Prize - " + kStr + " Kills - " + result.getMatch().getTitle();
-                    } else {
-                        desc = "Tournament Prize - Position " + result.getPosition() + " - " + result.getMatch().getTitle();
-                    }
-                    walletService.creditPrize(result.getUser().getId(), dynamicPrize, desc);
-
-                    // Mark as credited
-                    result.setPrizeCredited(true);
-                    matchResultRepository.save(result);
+        long started = System.nanoTime();
+        String matchType = BusinessMetrics.UNKNOWN;
+        String outcome = BusinessMetrics.FAILURE;
+        try {
+            List<MatchResult> uncreditedResults = matchResultRepository.findUncreditedResultsByMatchId(matchId);
+            if (uncreditedResults.isEmpty()) {
+                outcome = "nothing_to_credit";
+                return String.format("Successfully credited ₹%.2f to %d winners", BigDecimal.ZERO, 0);
+            }
 
-                    creditedCount++;
-                    totalCredited = totalCredited.add(dynamicPrize);
-                } catch (Exception e) {
-                    // Log error but continue with other prizes
-                    System.err.println("Failed to credit prize for user " + result.getUser().getId() + ": " + e.getMessage());
+            Match match = matchRepository.findById(matchId)
+                    .orElseThrow(() -> new RuntimeException("Match not found"));
+            matchType = BusinessMetrics.tag(match.getMatchType());
+            // Pool is fixed for the whole settlement, so count confirmed registrations once
+            PayoutTable table = payoutTable(match);
+
+            List<PrizeSettlementService.Payout> payouts = new ArrayList<>(uncreditedResults.size());
+            for (MatchResult result : uncreditedResults) {
+                // Recompute prize under current rules
+                BigDecimal dynamicPrize = table.prize(result.getPosition(), result.getKills());
+                String desc;
+                if (match.getMatchType() == com.example.demo.entity.MatchType.SOLO) {
+                    String kStr = String.valueOf(Optional.ofNullable(result.getKills()).orElse(0));
+                    desc = "Tournament Prize - " + kStr + " Kills - " + match.getTitle();
+                } else {
+                    desc = "Tournament Prize - Position " + result.getPosition() + " - " + match.getTitle();
                 }
+                payouts.add(new PrizeSettlementService.Payout(result.getId(), dynamicPrize, desc));
             }
+
+            PrizeSettlementService.Settlement settlement = prizeSettlementService.settle(matchId, payouts);
+            outcome = BusinessMetrics.SUCCESS;
+            metrics.amount("prizes.credited.amount", settlement.totalCredited(), "match_type", matchType);
+            metrics.count("prizes.credited.winners", settlement.creditedCount(), "match_type", matchType);
+            return String.format("Successfully credited ₹%.2f to %d winners", settlement.totalCredited(), settlement.creditedCount());
+        } finally {
+            metrics.time("prizes.settlement", started, "match_type", matchType, "outcome", outcome);
         }
+    }
 
-        return String.format("Successfully credited ₹%.2f to %d winners", totalCredited, creditedCount);
+    private PayoutTable payoutTable(Match match) {
+        // Kill-only formats do not depend on the pool, so skip the count
+        int confirmed = prizeRules.usesPool(match.getMatchType())
+                ? registrationRepository.countConfirmedRegistrationsByMatchId(match.getId())
+                : 0;
+        return prizeRules.payoutTable(match, confirmed);
     }
 
     private BigDecimal calculatePrizeAmount(Match match, Integer position, Integer kills) {
-        // SOLO: per-kill payout of 80% of entry fee
-        if (match.getMatchType() == com.example.demo.entity.MatchType.SOLO) {
-            int k = kills == null ? 0 : kills;
-            if (k <= 0) {
-                return BigDecimal.ZERO;
-            }
-            BigDecimal perKill = BigDecimal.valueOf(match.getEntryFee())
-                    .multiply(new BigDecimal("0.80"))
-                    .setScale(0, java.math.RoundingMode.HALF_UP);
-            return perKill.multiply(BigDecimal.valueOf(k));
-        }
+        return payoutTable(match).prize(position, kills);
+    }
 
-        // DUO: Top 5 (40%, 30%, 20%, 5%, 5%)
-        // SQUAD: Top 3 (40%, 30%, 20%)
-        // CLASH_SQUAD: Winner takes 85%
-        if (position == null || position <= 0) {
-            return BigDecimal.ZERO;
+    /**
+     * Primary player (first by position) per registration, loaded in one query.
+     */
+    private Map<Long, RegistrationPlayer> findPrimaryPlayers(List<Long> registrationIds) {
+        Map<Long, RegistrationPlayer> primary = new HashMap<>();
+        if (registrationIds.isEmpty()) {
+            return primary;
         }
-
-        int confirmed = registrationRepository.countConfirmedRegistrationsByMatchId(match.getId());
-        BigDecimal pool = BigDecimal.valueOf((long) match.getEntryFee() * confirmed);
-
-        BigDecimal[] percents;
-        if (match.getMatchType() == com.example.demo.entity.MatchType.DUO) {
-            percents = new BigDecimal[]{new BigDecimal("0.40"), new BigDecimal("0.30"), new BigDecimal("0.20"), new BigDecimal("0.05"), new BigDecimal("0.05")};
-            if (position > 5) {
-                return BigDecimal.ZERO;
-            }
-        } else if (match.getMatchType() == com.example.demo.entity.MatchType.CLASH_SQUAD) {
-            // Only position 1 gets 85%
-            if (position != 1) {
-                return BigDecimal.ZERO;
-            }
-            return pool.multiply(new BigDecimal("0.85")).setScale(0, java.math.RoundingMode.HALF_UP);
-        } else { // SQUAD or default
-            percents = new BigDecimal[]{new BigDecimal("0.40"), new BigDecimal("0.30"), new BigDecimal("0.20")};
-            if (position > 3) {
-                return BigDecimal.ZERO;
-            }
+        for (RegistrationPlayer p : playerRepository.findByRegistrationIdsOrderByPlayerPosition(registrationIds)) {
+            primary.putIfAbsent(p.getRegistration().getId(), p);
         }
-
-        BigDecimal share = pool.multiply(percents[position - 1]);
-        return share.setScale(0, java.math.RoundingMode.HALF_UP);
+        return primary;
     }
 
-    private MatchResultResponse mapToResponse(MatchResult result) {
-        // Derive primary player details (leader if available else first by position) from the registration
-        String playerGameName = null;
-        String playerGameId = null;
-        try {
-            Registration reg = result.getRegistration();
-            if (reg != null && reg.getPlayers() != null && !reg.getPlayers().isEmpty()) {
-                RegistrationPlayer primary = reg.getPlayers().stream()
-                        .sorted((a, b) -> Integer.compare(a.getPlayerPosition(), b.getPlayerPosition()))
-                        .findFirst().orElse(null);
-                if (primary != null) {
-                    playerGameName = primary.getGameName();
-                    playerGameId = primary.getGameId();
-                }
-            }
-        } catch (Exception ignored) {
-            /* swallow */ }
+    private MatchResultResponse mapToResponse(MatchResult result, RegistrationPlayer primary) {
+        String playerGameName = primary != null ? primary.getGameName() : null;
+        String playerGameId = primary != null ? primary.getGameId() : null;
         return MatchResultResponse.builder()
                 .id(result.getId())
                 .registrationId(result.getRegistration().getId())
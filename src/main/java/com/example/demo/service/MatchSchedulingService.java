@@ -1,26 +1,36 @@
 package com.example.demo.service;
 
-import java.math.BigDecimal;
 import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.stream.Collectors;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.TaskScheduler;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import com.example.demo.entity.Match;
 import com.example.demo.entity.MatchStatus;
 import com.example.demo.entity.MatchType;
-import com.example.demo.entity.PaymentStatus;
-import com.example.demo.entity.Registration;
-import com.example.demo.entity.RegistrationStatus;
 import com.example.demo.repository.MatchRepository;
 import com.example.demo.repository.RegistrationRepository;
 
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 
 @Service
@@ -29,69 +39,163 @@ public class MatchSchedulingService {
 
     private final MatchRepository matchRepository;
     private final RegistrationRepository registrationRepository;
-    private final WalletService walletService;
+    private final MatchRefundService matchRefundService;
+    private final MatchCatalogCache matchCatalogCache;
+    private final MatchEventBroadcaster matchEventBroadcaster;
+    private final SlotAllocator slotAllocator;
+    private final BusinessMetrics metrics;
+
+    private static final Logger log = LoggerFactory.getLogger(MatchSchedulingService.class);
+
+    // Registrations are evaluated this many minutes before the scheduled start
+    private static final long CUTOFF_MINUTES = 5;
+    // Matches this far past their start are left alone
+    private static final long EVALUATION_GRACE_MINUTES = 10;
+    private static final Duration RESYNC_HORIZON = Duration.ofHours(24);
+
+    private final TaskScheduler taskScheduler;
+    private final TransactionTemplate transactionTemplate;
+
+    // One pending cutoff evaluation per OPEN match, keyed by match id
+    private final Map<Long, Timer> timers = new ConcurrentHashMap<>();
 
     @Value("${app.timezone:Asia/Kolkata}")
     private String appTimezone;
 
-    // Runs every minute
-    @Scheduled(fixedRate = 60_000)
-    @Transactional
-    public void enforceMinimumsAndRefunds() {
-        ZoneId zone = ZoneId.of(appTimezone);
-        ZonedDateTime nowZ = ZonedDateTime.now(zone);
-        List<Match> all = matchRepository.findAll();
-        for (Match match : all) {
-            // Only consider scheduled, OPEN matches
-            if (match.getStatus() == MatchStatus.CANCELLED || match.getStatus() == MatchStatus.COMPLETED || match.getStatus() != MatchStatus.OPEN) {
-                continue;
-            }
-            LocalDateTime scheduledAt = match.getScheduledAt();
-            if (scheduledAt == null) {
-                continue;
-            }
+    /**
+     * Rebuild the timers from OPEN matches starting soon. Runs at startup and
+     * then coarsely, to pick up matches beyond the horizon and anything
+     * changed outside MatchService.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelay = 900_000, fixedDelay = 900_000)
+    @Timed("scheduler.tick")
+    public void resync() {
+        try {
+            LocalDateTime now = LocalDateTime.now(ZoneId.of(appTimezone));
+            List<Match> due = matchRepository.findByStatusAndScheduledAtBetween(MatchStatus.OPEN,
+                    now.minusMinutes(EVALUATION_GRACE_MINUTES), now.plus(RESYNC_HORIZON));
+            due.forEach(this::schedule);
+            // Evaluated timers stay in the map so an overlapping resync does not re-arm them; drop the
+            // ones whose match has left the window (started, cancelled or deleted)
+            Set<Long> dueIds = due.stream().map(Match::getId).collect(Collectors.toSet());
+            timers.entrySet().removeIf(e -> e.getValue().future().isDone() && !dueIds.contains(e.getKey()));
+            log.debug("Match lifecycle timers resynced, {} tracked", timers.size());
+        } catch (Exception e) {
+            log.warn("Failed to resync match lifecycle timers: {}", e.getMessage());
+        }
+    }
 
-            ZonedDateTime schedZ = scheduledAt.atZone(zone);
-            long minutesUntil = Duration.between(nowZ, schedZ).toMinutes();
+    /**
+     * (Re)arm the cutoff evaluation for a created or updated match, or drop it
+     * when the match is no longer OPEN. Inside a transaction this happens
+     * after commit so the evaluation sees the saved state.
+     */
+    public void track(Match match) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    schedule(match);
+                }
+            });
+        } else {
+            schedule(match);
+        }
+    }
 
-            if (minutesUntil > 5) {
-                continue; // Only act within 5-minute window before start
-            }
-            if (minutesUntil < -10) {
-                continue; // Skip matches long past start time
+    private void schedule(Match match) {
+        Long matchId = match.getId();
+        if (match.getStatus() != MatchStatus.OPEN || match.getScheduledAt() == null) {
+            Timer removed = timers.remove(matchId);
+            if (removed != null) {
+                removed.future().cancel(false);
             }
-
-            int confirmed = registrationRepository.countConfirmedRegistrationsByMatchId(match.getId());
-            int required = requiredTeams(match.getMatchType());
-
-            if (confirmed < required) {
-                // Cancel and refund
-                match.setStatus(MatchStatus.CANCELLED);
-                matchRepository.save(match);
-
-                List<Registration> regs = registrationRepository.findByMatchIdAndStatus(match.getId(), RegistrationStatus.CONFIRMED);
-                for (Registration reg : regs) {
-                    try {
-                        BigDecimal amount = BigDecimal.valueOf(reg.getAmountPaid());
-                        if (amount.compareTo(BigDecimal.ZERO) > 0 && reg.getPaymentStatus() != PaymentStatus.REFUNDED) {
-                            walletService.refundForTournament(
-                                    reg.getUser().getId(),
-                                    amount,
-                                    "Refund: Match cancelled due to low registrations - " + match.getTitle()
-                            );
-                            reg.setPaymentStatus(PaymentStatus.REFUNDED);
-                        }
-                        reg.setStatus(RegistrationStatus.CANCELLED);
-                        registrationRepository.save(reg);
-                    } catch (Exception ex) {
-                        // log and continue
-                        System.err.println("Refund failed for registration " + reg.getId() + ": " + ex.getMessage());
-                    }
+            return;
+        }
+        Instant fireAt = match.getScheduledAt().atZone(ZoneId.of(appTimezone))
+                .minusMinutes(CUTOFF_MINUTES)
+                .toInstant();
+        timers.compute(matchId, (id, current) -> {
+            if (current != null) {
+                if (current.fireAt().equals(fireAt)) {
+                    return current;
                 }
+                current.future().cancel(false);
             }
+            // A cutoff already in the past fires immediately
+            return new Timer(fireAt, taskScheduler.schedule(() -> fire(id, fireAt), fireAt));
+        });
+    }
+
+    /**
+     * The timer stays registered while it runs and after it succeeds, so a
+     * resync that overlaps it finds the same cutoff already armed instead of
+     * scheduling a second evaluation. A failed evaluation is dropped for the
+     * next resync to retry.
+     */
+    private void fire(Long matchId, Instant fireAt) {
+        long started = System.nanoTime();
+        String outcome = BusinessMetrics.FAILURE;
+        try {
+            transactionTemplate.executeWithoutResult(status -> enforceMinimumsAndRefunds(matchId));
+            outcome = BusinessMetrics.SUCCESS;
+        } catch (Exception e) {
+            log.error("Lifecycle evaluation failed for match id={}: {}", matchId, e.getMessage(), e);
+            timers.computeIfPresent(matchId, (id, t) -> t.fireAt().equals(fireAt) ? null : t);
+        } finally {
+            metrics.time("match.lifecycle.evaluation", started, "outcome", outcome);
         }
     }
 
+    /**
+     * Cancel and refund an OPEN match that reached its 5-minute cutoff
+     * without the minimum number of confirmed registrations.
+     */
+    private void enforceMinimumsAndRefunds(Long matchId) {
+        ZoneId zone = ZoneId.of(appTimezone);
+        ZonedDateTime nowZ = ZonedDateTime.now(zone);
+        Match match = matchRepository.findById(matchId).orElse(null);
+        // Only consider scheduled, OPEN matches
+        if (match == null || match.getStatus() != MatchStatus.OPEN) {
+            return;
+        }
+        LocalDateTime scheduledAt = match.getScheduledAt();
+        if (scheduledAt == null) {
+            return;
+        }
+
+        ZonedDateTime schedZ = scheduledAt.atZone(zone);
+        long minutesUntil = Duration.between(nowZ, schedZ).toMinutes();
+
+        if (minutesUntil > CUTOFF_MINUTES) {
+            schedule(match); // Rescheduled since the timer was armed
+            return;
+        }
+        if (minutesUntil < -EVALUATION_GRACE_MINUTES) {
+            return; // Skip matches long past start time
+        }
+
+        int confirmed = registrationRepository.countConfirmedRegistrationsByMatchId(match.getId());
+        int required = requiredTeams(match.getMatchType());
+
+        if (confirmed < required) {
+            // Cancel and refund
+            match.setStatus(MatchStatus.CANCELLED);
+            matchRepository.save(match);
+            slotAllocator.forget(match.getId());
+
+            matchRefundService.refundCancelledMatch(match.getId(),
+                    "Refund: Match cancelled due to low registrations - " + match.getTitle());
+            matchCatalogCache.invalidate();
+            matchEventBroadcaster.publish(match.getId());
+        }
+    }
+
+    private record Timer(Instant fireAt, ScheduledFuture<?> future) {
+
+    }
+
     // Minimum confirmed registrations required for the match to proceed
     // Keep in sync with MatchController.requiredTeams
     private int requiredTeams(MatchType type) {
@@ -1,6 +1,5 @@
 package com.example.demo.service;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeParseException;
 import java.util.List;
@@ -14,11 +13,7 @@ import com.example.demo.dto.MatchCreateRequest;
 import com.example.demo.entity.Match;
 import com.example.demo.entity.MatchStatus;
 import com.example.demo.entity.MatchType;
-import com.example.demo.entity.PaymentStatus;
-import com.example.demo.entity.Registration;
-import com.example.demo.entity.RegistrationStatus;
 import com.example.demo.repository.MatchRepository;
-import com.example.demo.repository.RegistrationRepository;
 
 import lombok.RequiredArgsConstructor;
 
@@ -27,8 +22,13 @@ import lombok.RequiredArgsConstructor;
 public class MatchService {
 
     private final MatchRepository matchRepository;
-    private final RegistrationRepository registrationRepository;
-    private final WalletService walletService;
+    private final SlotAllocator slotAllocator;
+    private final MatchSchedulingService matchSchedulingService;
+    private final MatchRefundService matchRefundService;
+    private final PrizeRules prizeRules;
+    private final MatchCatalogCache matchCatalogCache;
+    private final MatchEventBroadcaster matchEventBroadcaster;
+    private final CredentialFanoutService credentialFanoutService;
     private static final Logger log = LoggerFactory.getLogger(MatchService.class);
 
     public Match create(MatchCreateRequest req) {
@@ -45,24 +45,10 @@ public class MatchService {
         };
         int entryFee = req.getEntryFee() != null ? req.getEntryFee().intValue() : 0;
         int totalPool = entryFee * slots;
-        int prize1;
-        int prize2;
-        int prize3;
-        if (type == MatchType.CLASH_SQUAD) {
-            // Winner takes 85% for Clash Squad
-            prize1 = (int) Math.round(totalPool * 0.85);
-            prize2 = 0;
-            prize3 = 0;
-        } else if (type == MatchType.DUO) {
-            // Keep pool breakdown generic in entity; detailed distribution handled in results service
-            prize1 = (int) Math.round(totalPool * 0.40);
-            prize2 = (int) Math.round(totalPool * 0.30);
-            prize3 = (int) Math.round(totalPool * 0.20);
-        } else {
-            prize1 = (int) Math.round(totalPool * 0.40);
-            prize2 = (int) Math.round(totalPool * 0.30);
-            prize3 = (int) Math.round(totalPool * 0.20);
-        }
+        int[] headline = prizeRules.headlinePrizes(type, entryFee, slots);
+        int prize1 = headline[0];
+        int prize2 = headline[1];
+        int prize3 = headline[2];
         LocalDateTime when;
         try {
             when = LocalDateTime.parse(req.getScheduleDateTime());
@@ -87,7 +73,11 @@ public class MatchService {
                 .rules(req.getRules())
                 .rounds(type == MatchType.CLASH_SQUAD ? (req.getRounds() != null ? req.getRounds() : Integer.valueOf(7)) : null)
                 .build();
-        return matchRepository.save(match);
+        Match saved = matchRepository.save(match);
+        matchSchedulingService.track(saved);
+        matchCatalogCache.invalidate();
+        matchEventBroadcaster.publish(saved.getId());
+        return saved;
     }
 
     private MatchType deriveType(String title, String provided) {
@@ -116,50 +106,16 @@ public class MatchService {
         return MatchType.SOLO;
     }
 
+    /**
+     * All matches from the catalog cache, as detached copies the caller may
+     * modify.
+     */
     public List<Match> listAll() {
-        log.debug("listAll invoked");
-        List<Match> matches = matchRepository.findAll();
-        log.debug("fetched matches count={}", matches.size());
-        updateRegisteredCountsInMemory(matches);
-        return matches;
+        return matchCatalogCache.get().all();
     }
 
     public List<Match> upcoming() {
-        log.debug("upcoming invoked");
-        List<Match> matches = matchRepository.findByScheduledAtAfterOrderByScheduledAtAsc(LocalDateTime.now());
-        log.debug("upcoming matches count={}", matches.size());
-        updateRegisteredCountsInMemory(matches);
-        return matches;
-    }
-
-    private void updateRegisteredCountsInMemory(List<Match> matches) {
-        try {
-            if (matches == null || matches.isEmpty()) {
-                return;
-            }
-            List<Long> ids = matches.stream()
-                    .map(Match::getId)
-                    .filter(java.util.Objects::nonNull)
-                    .toList();
-            if (ids.isEmpty()) {
-                return;
-            }
-            var rows = registrationRepository.countConfirmedByMatchIds(ids);
-            java.util.Map<Long, Integer> counts = new java.util.HashMap<>();
-            for (Object[] row : rows) {
-                Long matchId = (Long) row[0];
-                Number cnt = (Number) row[1];
-                counts.put(matchId, cnt != null ? cnt.intValue() : 0);
-            }
-            for (Match m : matches) {
-                Integer c = counts.get(m.getId());
-                if (c != null) {
-                    m.setRegisteredTeams(c);
-                }
-            }
-        } catch (Exception ex) {
-            log.warn("Failed to batch update registered counts: {}", ex.getMessage());
-        }
+        return matchCatalogCache.get().upcoming();
     }
 
     @Transactional
@@ -186,31 +142,16 @@ public class MatchService {
         existingMatch.setRounds(updatedMatch.getRounds());
 
         Match saved = matchRepository.save(existingMatch);
-
-        // If admin changed status to CANCELLED, trigger refunds similar to scheduler
+        // Slot count or status may have changed; the bitmap is rebuilt on the next registration
+        slotAllocator.forget(saved.getId());
+        // Re-arm (or drop) the start-time cutoff evaluation
+        matchSchedulingService.track(saved);
+        matchCatalogCache.invalidate();
+        matchEventBroadcaster.publish(saved.getId());
+
+        // If admin changed status to CANCELLED, cancel and refund all registrations in bulk
         if (previousStatus != MatchStatus.CANCELLED && saved.getStatus() == MatchStatus.CANCELLED) {
-            try {
-                List<Registration> regs = registrationRepository.findByMatchIdAndStatus(saved.getId(), RegistrationStatus.CONFIRMED);
-                for (Registration reg : regs) {
-                    try {
-                        BigDecimal amount = BigDecimal.valueOf(reg.getAmountPaid());
-                        if (amount.compareTo(BigDecimal.ZERO) > 0 && reg.getPaymentStatus() != PaymentStatus.REFUNDED) {
-                            walletService.refundForTournament(
-                                    reg.getUser().getId(),
-                                    amount,
-                                    "Refund: Match cancelled by admin - " + saved.getTitle()
-                            );
-                            reg.setPaymentStatus(PaymentStatus.REFUNDED);
-                        }
-                        reg.setStatus(RegistrationStatus.CANCELLED);
-                        registrationRepository.save(reg);
-                    } catch (Exception ex) {
-                        log.error("Refund failed for registration {}: {}", reg.getId(), ex.getMessage(), ex);
-                    }
-                }
-            } catch (Exception e) {
-                log.error("Failed processing refunds on admin cancellation for match id={}: {}", saved.getId(), e.getMessage(), e);
-            }
+            matchRefundService.refundCancelledMatch(saved.getId(), "Refund: Match cancelled by admin - " + saved.getTitle());
         }
 
         return saved;
@@ -224,21 +165,18 @@ public class MatchService {
         match.setRoomPassword(roomPassword);
         // Don't set credentialsSent to true here - only save to database
 
-        return matchRepository.save(match);
+        Match saved = matchRepository.save(match);
+        matchCatalogCache.invalidate();
+        return saved;
     }
 
-    public void sendCredentialsToPlayers(Long id) {
-        Match match = matchRepository.findById(id)
-                .orElseThrow(() -> new IllegalArgumentException("Match not found with id: " + id));
-
-        if (match.getRoomId() == null || match.getRoomPassword() == null) {
-            throw new IllegalArgumentException("Room credentials not set for this match");
-        }
-
-        // TODO: Implement actual sending logic (email, SMS, notification service)
-        // For now, just mark as sent
-        match.setCredentialsSent(true);
-        matchRepository.save(match);
-
+    /**
+     * Mail the room credentials to every confirmed registrant and mark them
+     * sent; returns how many mails were newly queued.
+     */
+    public int sendCredentialsToPlayers(Long id) {
+        int queued = credentialFanoutService.sendCredentials(id);
+        matchCatalogCache.invalidate();
+        return queued;
     }
 }
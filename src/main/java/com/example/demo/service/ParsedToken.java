@@ -0,0 +1,23 @@
+package com.example.demo.service;
+
+import java.time.Instant;
+
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Claims of a JWT that has already been signature-checked by
+ * {@link JwtService#parse(String)}.
+ */
+@Value
+@Builder
+public class ParsedToken {
+
+    String subject;
+    Instant issuedAt;
+    Instant expiresAt;
+
+    public long expiresAtMillis() {
+        return expiresAt != null ? expiresAt.toEpochMilli() : 0L;
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.demo.service;
+
+import java.math.BigDecimal;
+
+/**
+ * Precomputed payouts, in paise, for one (rule, entry fee, confirmed count).
+ * Immutable and shared between the distribution preview and prize crediting.
+ */
+public final class PayoutTable {
+
+    private final long[] placementPaise;
+    private final long perKillPaise;
+    private final boolean paysKills;
+
+    PayoutTable(long[] placementPaise, long perKillPaise, boolean paysKills) {
+        this.placementPaise = placementPaise;
+        this.perKillPaise = perKillPaise;
+        this.paysKills = paysKills;
+    }
+
+    /**
+     * Whether a result with this position and kill count is in the money
+     * (it may still be worth zero when the pool is empty).
+     */
+    public boolean pays(Integer position, Integer kills) {
+        boolean placed = position != null && position >= 1 && position <= placementPaise.length;
+        return placed || (paysKills && kills != null && kills > 0);
+    }
+
+    /**
+     * True for formats ranked purely by kills, where position is ignored.
+     */
+    public boolean killsOnly() {
+        return placementPaise.length == 0 && paysKills;
+    }
+
+    public long placementPaise(int position) {
+        return position >= 1 && position <= placementPaise.length ? placementPaise[position - 1] : 0L;
+    }
+
+    public long prizePaise(Integer position, Integer kills) {
+        long prize = position != null ? placementPaise(position) : 0L;
+        if (paysKills && kills != null && kills > 0) {
+            prize += perKillPaise * kills;
+        }
+        return prize;
+    }
+
+    public BigDecimal prize(Integer position, Integer kills) {
+        return toRupees(prizePaise(position, kills));
+    }
+
+    static BigDecimal toRupees(long paise) {
+        // Whole-rupee amounts keep scale 0, as the ledger and responses always have
+        return paise % 100 == 0 ? BigDecimal.valueOf(paise / 100) : BigDecimal.valueOf(paise, 2);
+    }
+}
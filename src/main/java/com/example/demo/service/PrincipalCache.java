@@ -0,0 +1,77 @@
+package com.example.demo.service;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bounded in-memory cache of authenticated principals keyed by email, so a
+ * request carrying a valid JWT does not need a Profiles lookup. Entries never
+ * outlive the token that loaded them and are evicted explicitly whenever the
+ * underlying user row changes (see UserPrincipalListener).
+ */
+@Component
+public class PrincipalCache {
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    @Value("${app.auth.principal-cache.max-size:10000}")
+    private int maxSize;
+
+    @Value("${app.auth.principal-cache.ttl:5m}")
+    private Duration ttl;
+
+    public UserDetails get(String email) {
+        Entry entry = entries.get(email);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAtMillis <= System.currentTimeMillis()) {
+            entries.remove(email, entry);
+            return null;
+        }
+        return entry.principal;
+    }
+
+    /**
+     * Cache the principal until the earlier of the configured TTL and the
+     * expiry of the token it was loaded for.
+     */
+    public void put(String email, UserDetails principal, long tokenExpiresAtMillis) {
+        long now = System.currentTimeMillis();
+        long expiresAt = Math.min(now + ttl.toMillis(), tokenExpiresAtMillis);
+        if (expiresAt <= now) {
+            return;
+        }
+        if (entries.size() >= maxSize) {
+            purgeExpired(now);
+            if (entries.size() >= maxSize) {
+                // Still full of live entries; start over rather than grow unbounded
+                entries.clear();
+            }
+        }
+        entries.put(email, new Entry(principal, expiresAt));
+    }
+
+    public void invalidate(String email) {
+        if (email != null) {
+            entries.remove(email);
+        }
+    }
+
+    public void invalidateAll() {
+        entries.clear();
+    }
+
+    private void purgeExpired(long now) {
+        entries.values().removeIf(e -> e.expiresAtMillis <= now);
+    }
+
+    private record Entry(UserDetails principal, long expiresAtMillis) {
+
+    }
+}
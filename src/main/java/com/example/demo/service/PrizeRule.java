@@ -0,0 +1,37 @@
+package com.example.demo.service;
+
+import java.util.List;
+
+import com.example.demo.entity.MatchType;
+
+/**
+ * Prize formula for one match type. Implementations are Spring beans picked
+ * up by PrizeRules, so a new format only needs a new rule component. Shares
+ * are integer basis points (1/100 of a percent) and every payout is rounded
+ * half-up to whole rupees.
+ */
+public interface PrizeRule {
+
+    MatchType matchType();
+
+    /**
+     * Share of the pool (entry fee x confirmed registrations) for each
+     * finishing position; index 0 is 1st place. Empty when placement does
+     * not pay. Unmodifiable, since rules are shared singletons.
+     */
+    List<Integer> placementBasisPoints();
+
+    /**
+     * Payout per kill as a share of the entry fee; 0 when kills do not pay.
+     */
+    default int perKillBasisPoints() {
+        return 0;
+    }
+
+    /**
+     * Top-three split advertised on the match card when it is created.
+     */
+    default List<Integer> headlineBasisPoints() {
+        return placementBasisPoints();
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.demo.service;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.stereotype.Component;
+
+import com.example.demo.entity.Match;
+import com.example.demo.entity.MatchType;
+
+/**
+ * Registry of PrizeRule beans by match type, plus a cache of payout tables
+ * keyed by (match type, entry fee, confirmed count). Match types without a
+ * rule fall back to the SQUAD rule, as the original switch did.
+ */
+@Component
+public class PrizeRules {
+
+    private static final int MAX_CACHED_TABLES = 4096;
+
+    private final Map<MatchType, PrizeRule> rules = new EnumMap<>(MatchType.class);
+    private final Map<TableKey, PayoutTable> tables = new ConcurrentHashMap<>();
+
+    public PrizeRules(List<PrizeRule> prizeRules) {
+        for (PrizeRule rule : prizeRules) {
+            if (rules.putIfAbsent(rule.matchType(), rule) != null) {
+                throw new IllegalStateException("Duplicate prize rule for " + rule.matchType());
+            }
+        }
+        if (!rules.containsKey(MatchType.SQUAD)) {
+            throw new IllegalStateException("A SQUAD prize rule is required as the fallback");
+        }
+    }
+
+    public PrizeRule rule(MatchType type) {
+        PrizeRule rule = type != null ? rules.get(type) : null;
+        return rule != null ? rule : rules.get(MatchType.SQUAD);
+    }
+
+    /**
+     * Whether payouts depend on the pool, i.e. callers need the confirmed
+     * registration count.
+     */
+    public boolean usesPool(MatchType type) {
+        return !rule(type).placementBasisPoints().isEmpty();
+    }
+
+    public PayoutTable payoutTable(Match match, int confirmed) {
+        return payoutTable(match.getMatchType(), match.getEntryFee(), confirmed);
+    }
+
+    public PayoutTable payoutTable(MatchType type, int entryFee, int confirmed) {
+        PrizeRule rule = rule(type);
+        TableKey key = new TableKey(rule.matchType(), entryFee, confirmed);
+        PayoutTable table = tables.get(key);
+        if (table == null) {
+            if (tables.size() >= MAX_CACHED_TABLES) {
+                tables.clear();
+            }
+            table = tables.computeIfAbsent(key, k -> build(rule, entryFee, confirmed));
+        }
+        return table;
+    }
+
+    /**
+     * Headline 1st/2nd/3rd prizes in whole rupees for a match of this type
+     * with every slot filled.
+     */
+    public int[] headlinePrizes(MatchType type, int entryFee, int slots) {
+        List<Integer> bp = rule(type).headlineBasisPoints();
+        long pool = (long) entryFee * slots;
+        int[] prizes = new int[3];
+        for (int i = 0; i < prizes.length && i < bp.size(); i++) {
+            prizes[i] = (int) roundedShare(pool, bp.get(i));
+        }
+        return prizes;
+    }
+
+    private static PayoutTable build(PrizeRule rule, int entryFee, int confirmed) {
+        long pool = (long) entryFee * confirmed;
+        List<Integer> bp = rule.placementBasisPoints();
+        long[] placementPaise = new long[bp.size()];
+        for (int i = 0; i < placementPaise.length; i++) {
+            placementPaise[i] = roundedShare(pool, bp.get(i)) * 100;
+        }
+        int killBp = rule.perKillBasisPoints();
+        long perKillPaise = roundedShare(entryFee, killBp) * 100;
+        return new PayoutTable(placementPaise, perKillPaise, killBp > 0);
+    }
+
+    // amount x basisPoints / 10000, rounded half-up to whole rupees
+    private static long roundedShare(long amount, int basisPoints) {
+        return (amount * basisPoints + 5_000) / 10_000;
+    }
+
+    private record TableKey(MatchType type, int entryFee, int confirmed) {
+
+    }
+}
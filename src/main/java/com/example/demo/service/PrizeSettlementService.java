@@ -0,0 +1,115 @@
+package com.example.demo.service;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Applies precomputed prize payouts for a match in JDBC batches. Each payout
+ * is one statement that claims the result (prize_credited false to true),
+ * credits the winner's wallet and appends the ledger row, so a result can be
+ * paid at most once no matter how often settlement is retried.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PrizeSettlementService {
+
+    private static final String CREATE_MISSING_WALLETS_SQL
+            = "INSERT INTO wallet (user_id, balance, total_added, total_spent, transaction_count, created_at, updated_at)"
+            + " SELECT u.user_id, 0, 0, 0, 0, ?, ? FROM ("
+            + " SELECT DISTINCT mr.user_id FROM match_results mr"
+            + " WHERE mr.match_id = ? AND mr.prize_credited = false"
+            + " AND NOT EXISTS (SELECT 1 FROM wallet w WHERE w.user_id = mr.user_id)) u";
+
+    private static final String CREDIT_PRIZE_SQL
+            = "WITH claimed AS ("
+            + " UPDATE match_results SET prize_credited = true, prize_amount = ?, updated_at = ?"
+            + " WHERE id = ? AND prize_credited = false"
+            + " RETURNING user_id),"
+            + " w AS ("
+            + " UPDATE wallet SET balance = balance + ?, updated_at = ?,"
+            + "   total_added = total_added + ?, transaction_count = transaction_count + 1"
+            + " FROM claimed WHERE wallet.user_id = claimed.user_id"
+            + " RETURNING wallet.id, wallet.balance)"
+            + " INSERT INTO wallet_transactions (wallet_id, type, amount, description, reference_id, balance_after, created_at)"
+            + " SELECT w.id, 'CREDIT', ?, ?, ?, w.balance, ? FROM w";
+
+    private static final String SET_PRIZE_AMOUNT_SQL
+            = "UPDATE match_results SET prize_amount = ?, updated_at = ? WHERE id = ? AND prize_credited = false";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public record Payout(Long resultId, BigDecimal amount, String description) {
+
+    }
+
+    public record Settlement(int creditedCount, BigDecimal totalCredited) {
+
+    }
+
+    @Transactional
+    public Settlement settle(Long matchId, List<Payout> payouts) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Payout> credits = new ArrayList<>();
+        List<Payout> zeros = new ArrayList<>();
+        for (Payout p : payouts) {
+            if (p.amount() != null && p.amount().compareTo(BigDecimal.ZERO) > 0) {
+                credits.add(p);
+            } else {
+                zeros.add(p);
+            }
+        }
+
+        // Results without a payout only get their recomputed amount recorded
+        if (!zeros.isEmpty()) {
+            jdbcTemplate.batchUpdate(SET_PRIZE_AMOUNT_SQL, zeros, zeros.size(), (ps, p) -> {
+                ps.setBigDecimal(1, p.amount() != null ? p.amount() : BigDecimal.ZERO);
+                ps.setTimestamp(2, now);
+                ps.setLong(3, p.resultId());
+            });
+        }
+        if (credits.isEmpty()) {
+            return new Settlement(0, BigDecimal.ZERO);
+        }
+
+        jdbcTemplate.update(CREATE_MISSING_WALLETS_SQL, now, now, matchId);
+        int[][] counts = jdbcTemplate.batchUpdate(CREDIT_PRIZE_SQL, credits, credits.size(), (ps, p) -> {
+            ps.setBigDecimal(1, p.amount());
+            ps.setTimestamp(2, now);
+            ps.setLong(3, p.resultId());
+            ps.setBigDecimal(4, p.amount());
+            ps.setTimestamp(5, now);
+            ps.setBigDecimal(6, p.amount());
+            ps.setBigDecimal(7, p.amount());
+            ps.setString(8, p.description());
+            ps.setString(9, "PRIZE_MR_" + p.resultId());
+            ps.setTimestamp(10, now);
+        });
+
+        // A zero count means another settlement already paid that result
+        int credited = 0;
+        BigDecimal total = BigDecimal.ZERO;
+        int i = 0;
+        for (int[] batch : counts) {
+            for (int count : batch) {
+                if (count > 0) {
+                    credited++;
+                    total = total.add(credits.get(i).amount());
+                }
+                i++;
+            }
+        }
+        log.info("Settled prizes for match id={}: {} of {} payouts credited", matchId, credited, credits.size());
+        return new Settlement(credited, total);
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.demo.service;
+
+/**
+ * An expected registration refusal (match full, not enough balance, already
+ * registered). Still a RuntimeException carrying the user-facing message, so
+ * callers handle it as before; the outcome is the registration.attempts tag.
+ */
+class RegistrationRejectedException extends RuntimeException {
+
+    static final String FULL = "full";
+    static final String INSUFFICIENT_FUNDS = "insufficient_funds";
+    static final String DUPLICATE = "duplicate";
+
+    private final String outcome;
+
+    RegistrationRejectedException(String outcome, String message) {
+        super(message);
+        this.outcome = outcome;
+    }
+
+    String outcome() {
+        return outcome;
+    }
+}
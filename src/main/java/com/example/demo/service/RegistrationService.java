@@ -3,18 +3,25 @@ package com.example.demo.service;
 import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
-import java.util.Random;
+import java.util.Map;
 import java.util.stream.Collectors;
 
+import org.hibernate.exception.ConstraintViolationException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.example.demo.config.ReadFromPrimary;
 import com.example.demo.dto.RegistrationRequest;
 import com.example.demo.dto.RegistrationResponse;
 import com.example.demo.entity.Match;
+import com.example.demo.entity.MatchResult;
 import com.example.demo.entity.MatchStatus;
 import com.example.demo.entity.MatchType;
 import com.example.demo.entity.PaymentStatus;
@@ -37,27 +44,54 @@ public class RegistrationService {
 
     private static final Logger log = LoggerFactory.getLogger(RegistrationService.class);
 
+    /**
+     * Partial unique index on registrations (match_id, slot_number) for
+     * CONFIRMED rows, see V3__hot_query_indexes.sql.
+     */
+    private static final String SLOT_CONSTRAINT = "uq_registrations_match_slot_confirmed";
+
     private final RegistrationRepository registrationRepository;
     private final RegistrationPlayerRepository playerRepository;
     private final MatchRepository matchRepository;
     private final UserRepository userRepository;
     private final WalletService walletService;
-    private final Random random = new Random();
     private final MatchResultRepository matchResultRepository;
+    private final SlotAllocator slotAllocator;
+    private final MatchCatalogCache matchCatalogCache;
+    private final MatchEventBroadcaster matchEventBroadcaster;
+    private final BusinessMetrics metrics;
 
     @Transactional
     public RegistrationResponse registerForMatch(Long userId, RegistrationRequest request) {
+        long started = System.nanoTime();
+        String matchType = BusinessMetrics.UNKNOWN;
+        String outcome = BusinessMetrics.FAILURE;
+        try {
+            // Validate match
+            Match match = matchRepository.findById(request.getMatchId())
+                    .orElseThrow(() -> new RuntimeException("Match not found"));
+            matchType = BusinessMetrics.tag(match.getMatchType());
+
+            RegistrationResponse response = register(userId, request, match);
+            outcome = BusinessMetrics.SUCCESS;
+            metrics.amount("registration.entry.fee", BigDecimal.valueOf(match.getEntryFee()), "match_type", matchType);
+            return response;
+        } catch (RegistrationRejectedException e) {
+            outcome = e.outcome();
+            throw e;
+        } finally {
+            metrics.time("registration.attempts", started, "match_type", matchType, "outcome", outcome);
+        }
+    }
+
+    private RegistrationResponse register(Long userId, RegistrationRequest request, Match match) {
         // Validate user
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
-        // Validate match
-        Match match = matchRepository.findById(request.getMatchId())
-                .orElseThrow(() -> new RuntimeException("Match not found"));
-
         // Check if user already registered
         if (registrationRepository.existsByUserIdAndMatchIdAndStatus(userId, request.getMatchId(), RegistrationStatus.CONFIRMED)) {
-            throw new RuntimeException("Already registered for this match");
+            throw new RegistrationRejectedException(RegistrationRejectedException.DUPLICATE, "Already registered for this match");
         }
 
         // Block registration if match is not OPEN
@@ -74,19 +108,16 @@ public class RegistrationService {
             }
         }
 
-        // Check if match is full
-        int confirmedRegistrations = registrationRepository.countConfirmedRegistrationsByMatchId(request.getMatchId());
-        if (confirmedRegistrations >= match.getSlots()) {
-            throw new RuntimeException("Match is full");
-        }
+        // Validate player count based on match type
+        validatePlayerCount(match.getMatchType(), request.getPlayers());
 
-        // Check wallet balance and deduct entry fee
+        // Check wallet balance before anything is written
         BigDecimal entryFeeDecimal = BigDecimal.valueOf(match.getEntryFee());
         if (walletService.hasInsufficientBalance(userId, entryFeeDecimal)) {
             BigDecimal currentBalance = walletService.getCurrentBalance(userId);
             BigDecimal requiredAmount = walletService.getRequiredAmountToAdd(userId, entryFeeDecimal);
 
-            throw new RuntimeException(String.format(
+            throw new RegistrationRejectedException(RegistrationRejectedException.INSUFFICIENT_FUNDS, String.format(
                     "Insufficient wallet balance to register for this match. "
                     + "Entry fee: ₹%.2f | Your current balance: ₹%.2f | "
                     + "You need to add ₹%.2f more to register for this match",
@@ -94,15 +125,19 @@ public class RegistrationService {
             ));
         }
 
+        // Reserve capacity before the debit and the inserts: the conditional increment is the binding
+        // check, so a registration that loses the last slot fails here having written nothing. It locks
+        // the match row until commit; everything after it rolls back with it on failure.
+        if (matchRepository.reserveSlot(request.getMatchId()) == 0) {
+            throw new RegistrationRejectedException(RegistrationRejectedException.FULL, "Match is full");
+        }
+
         // Deduct entry fee from wallet
         walletService.deductForTournament(userId, entryFeeDecimal, "Tournament Registration - " + match.getTitle());
 
         try {
-            // Validate player count based on match type
-            validatePlayerCount(match.getMatchType(), request.getPlayers());
-
-            // Allocate random slot
-            int slotNumber = allocateRandomSlot(request.getMatchId(), match.getSlots());
+            // Allocate random slot (handed back automatically if this transaction rolls back)
+            int slotNumber = slotAllocator.claim(request.getMatchId(), match.getSlots());
 
             // Create registration
             Registration registration = Registration.builder()
@@ -132,17 +167,48 @@ public class RegistrationService {
                 players.add(player);
             }
             playerRepository.saveAll(players);
+            // Sequence ids defer the INSERTs: flush here so the registration and its players go out as
+            // one batch and a slot conflict surfaces inside this try rather than at commit
+            playerRepository.flush();
 
-            // Update match registered teams count
-            match.setRegisteredTeams(confirmedRegistrations + 1);
-            matchRepository.save(match);
+            matchCatalogCache.invalidate();
+            matchEventBroadcaster.publish(match.getId());
 
-            return buildRegistrationResponse(registration, players);
+            // A registration that was just created has no result yet
+            return buildRegistrationResponse(registration, players, null);
 
+        } catch (DataIntegrityViolationException e) {
+            if (!isSlotConflict(e)) {
+                throw e;
+            }
+            // The unique (match_id, slot_number) index rejected the slot: this node's bitmap was stale.
+            // Throwing rolls back the debit and the reservation with everything else.
+            slotAllocator.forget(request.getMatchId());
+            throw new RuntimeException("Slot allocation conflict. Please try again.", e);
+        }
+    }
+
+    private static boolean isSlotConflict(DataIntegrityViolationException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation) {
+                return SLOT_CONSTRAINT.equalsIgnoreCase(violation.getConstraintName());
+            }
+        }
+        return false;
+    }
+
+    /**
+     * registered_teams is maintained by reserveSlot; re-derive it once at
+     * startup in case rows were changed outside the registration path.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void resyncRegisteredTeams() {
+        try {
+            int updated = matchRepository.resyncRegisteredTeams();
+            log.debug("Resynced registered team counts for {} open matches", updated);
         } catch (Exception e) {
-            // If registration fails, refund the entry fee
-            walletService.refundForTournament(userId, entryFeeDecimal, "Refund for failed registration - " + match.getTitle());
-            throw e;
+            log.warn("Failed to resync registered team counts: {}", e.getMessage());
         }
     }
 
@@ -163,23 +229,6 @@ public class RegistrationService {
         }
     }
 
-    private int allocateRandomSlot(Long matchId, int totalSlots) {
-        List<Integer> allocatedSlots = registrationRepository.findAllocatedSlotsByMatchId(matchId);
-        List<Integer> availableSlots = new ArrayList<>();
-
-        for (int i = 1; i <= totalSlots; i++) {
-            if (!allocatedSlots.contains(i)) {
-                availableSlots.add(i);
-            }
-        }
-
-        if (availableSlots.isEmpty()) {
-            throw new RuntimeException("No slots available");
-        }
-
-        return availableSlots.get(random.nextInt(availableSlots.size()));
-    }
-
     @Transactional(readOnly = true)
     public List<RegistrationResponse> getUserRegistrations(Long userId) {
         try {
@@ -188,9 +237,7 @@ public class RegistrationService {
             List<Registration> registrations = registrationRepository.findByUserIdWithMatch(userId);
             log.debug("Found {} registrations", registrations.size());
 
-            return registrations.stream()
-                    .map(this::convertToResponse)
-                    .collect(Collectors.<RegistrationResponse>toList());
+            return convertToResponses(registrations);
         } catch (Exception e) {
             log.error("Error in getUserRegistrations: {}", e.getMessage());
             // Return empty list instead of throwing exception
@@ -198,11 +245,37 @@ public class RegistrationService {
         }
     }
 
-    @Transactional(readOnly = true)
-    private RegistrationResponse convertToResponse(Registration registration) {
+    /**
+     * Map registrations (with match already fetched) to responses, loading all
+     * players and results for the batch in one query each instead of per row.
+     */
+    private List<RegistrationResponse> convertToResponses(List<Registration> registrations) {
+        if (registrations.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<Long> ids = registrations.stream().map(Registration::getId).toList();
+
+        Map<Long, List<RegistrationPlayer>> playersByRegistration = new HashMap<>();
+        for (RegistrationPlayer p : playerRepository.findByRegistrationIdsOrderByPlayerPosition(ids)) {
+            playersByRegistration.computeIfAbsent(p.getRegistration().getId(), k -> new ArrayList<>()).add(p);
+        }
+        Map<Long, MatchResult> resultsByRegistration = new HashMap<>();
+        for (MatchResult mr : matchResultRepository.findByRegistrationIds(ids)) {
+            resultsByRegistration.putIfAbsent(mr.getRegistration().getId(), mr);
+        }
+
+        List<RegistrationResponse> responses = new ArrayList<>(registrations.size());
+        for (Registration registration : registrations) {
+            responses.add(convertToResponse(registration,
+                    playersByRegistration.getOrDefault(registration.getId(), Collections.emptyList()),
+                    resultsByRegistration.get(registration.getId())));
+        }
+        return responses;
+    }
+
+    private RegistrationResponse convertToResponse(Registration registration, List<RegistrationPlayer> players, MatchResult result) {
         try {
-            List<RegistrationPlayer> players = playerRepository.findByRegistrationIdOrderByPlayerPosition(registration.getId());
-            return buildRegistrationResponse(registration, players);
+            return buildRegistrationResponse(registration, players, result);
         } catch (Exception e) {
             log.error("Error in convertToResponse for registration {}: {}", registration.getId(), e.getMessage());
             // Return a minimal response with basic info
@@ -217,8 +290,7 @@ public class RegistrationService {
         }
     }
 
-    @Transactional(readOnly = true)
-    private RegistrationResponse buildRegistrationResponse(Registration registration, List<RegistrationPlayer> players) {
+    private RegistrationResponse buildRegistrationResponse(Registration registration, List<RegistrationPlayer> players, MatchResult result) {
         List<RegistrationResponse.PlayerInfo> playerInfos = players.stream()
                 .map(p -> RegistrationResponse.PlayerInfo.builder()
                 .playerName(p.getPlayerName())
@@ -242,15 +314,14 @@ public class RegistrationService {
                 .build();
 
         // Attach match result if exists
-        RegistrationResponse.ResultInfo resultInfo = matchResultRepository.findByRegistrationId(registration.getId())
-                .map(mr -> RegistrationResponse.ResultInfo.builder()
-                .position(mr.getPosition())
-                .kills(mr.getKills())
-                .prize(mr.getPrizeAmount())
-                .prizeCredited(mr.getPrizeCredited())
-                .updatedAt(mr.getUpdatedAt())
-                .build())
-                .orElse(null);
+        RegistrationResponse.ResultInfo resultInfo = result == null ? null
+                : RegistrationResponse.ResultInfo.builder()
+                        .position(result.getPosition())
+                        .kills(result.getKills())
+                        .prize(result.getPrizeAmount())
+                        .prizeCredited(result.getPrizeCredited())
+                        .updatedAt(result.getUpdatedAt())
+                        .build();
 
         return RegistrationResponse.builder()
                 .id(registration.getId())
@@ -268,6 +339,7 @@ public class RegistrationService {
     }
 
     @Transactional(readOnly = true)
+    @ReadFromPrimary
     public boolean isUserRegisteredForMatch(Long userId, Long matchId) {
         return registrationRepository.existsByUserIdAndMatchIdAndStatus(userId, matchId, RegistrationStatus.CONFIRMED);
     }
@@ -276,9 +348,7 @@ public class RegistrationService {
     public List<RegistrationResponse> getMatchRegistrations(Long matchId) {
         try {
             List<Registration> regs = registrationRepository.findByMatchIdAndStatusWithMatch(matchId, RegistrationStatus.CONFIRMED);
-            return regs.stream()
-                    .map(this::convertToResponse)
-                    .collect(Collectors.<RegistrationResponse>toList());
+            return convertToResponses(regs);
         } catch (Exception e) {
             log.error("Error in getMatchRegistrations: {}", e.getMessage());
             return Collections.emptyList();
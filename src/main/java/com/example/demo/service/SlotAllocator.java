@@ -0,0 +1,165 @@
+package com.example.demo.service;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.example.demo.repository.RegistrationRepository;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Per-match free-slot bitmaps for OPEN matches. Slots are claimed with a CAS
+ * on the bitmap word so concurrent registrations never pick the same slot,
+ * and a claim is handed back automatically if the surrounding transaction
+ * rolls back. The partial unique index on registrations (match_id,
+ * slot_number) for CONFIRMED rows stays the final arbiter across nodes.
+ */
+@Component
+@RequiredArgsConstructor
+public class SlotAllocator {
+
+    private static final Logger log = LoggerFactory.getLogger(SlotAllocator.class);
+
+    private final RegistrationRepository registrationRepository;
+    private final Map<Long, SlotBitmap> bitmaps = new ConcurrentHashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        try {
+            Map<Long, SlotBitmap> loaded = new HashMap<>();
+            for (Object[] row : registrationRepository.findAllocatedSlotsForOpenMatches()) {
+                Long matchId = (Long) row[0];
+                int slots = ((Number) row[1]).intValue();
+                SlotBitmap bitmap = loaded.computeIfAbsent(matchId, id -> new SlotBitmap(slots));
+                if (row[2] != null) {
+                    bitmap.mark(((Number) row[2]).intValue());
+                }
+            }
+            loaded.forEach(bitmaps::putIfAbsent);
+            log.debug("Slot allocator warmed for {} open matches", loaded.size());
+        } catch (Exception e) {
+            log.warn("Slot allocator warm-up skipped, bitmaps will load on demand: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Claim a random free slot (1-based) in the match. Must be called inside
+     * the registration transaction; the slot is released if it rolls back.
+     */
+    public int claim(Long matchId, int totalSlots) {
+        SlotBitmap bitmap = bitmaps.get(matchId);
+        if (bitmap == null || bitmap.size() != totalSlots) {
+            SlotBitmap fresh = load(matchId, totalSlots);
+            // Another thread may have installed a bitmap meanwhile; keep it if it fits
+            bitmap = bitmaps.compute(matchId, (id, cur) -> cur != null && cur.size() == totalSlots ? cur : fresh);
+        }
+
+        int slot = bitmap.claimRandom();
+        if (slot < 0) {
+            throw new RegistrationRejectedException(RegistrationRejectedException.FULL, "No slots available");
+        }
+        releaseOnRollback(bitmap, slot);
+        return slot;
+    }
+
+    /**
+     * Drop the bitmap for a match that is no longer OPEN or whose in-memory
+     * view disagreed with the database; it is rebuilt on the next claim.
+     */
+    public void forget(Long matchId) {
+        bitmaps.remove(matchId);
+    }
+
+    private SlotBitmap load(Long matchId, int totalSlots) {
+        SlotBitmap bitmap = new SlotBitmap(totalSlots);
+        List<Integer> allocated = registrationRepository.findAllocatedSlotsByMatchId(matchId);
+        for (Integer slot : allocated) {
+            if (slot != null) {
+                bitmap.mark(slot);
+            }
+        }
+        return bitmap;
+    }
+
+    private void releaseOnRollback(SlotBitmap bitmap, int slot) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    bitmap.clear(slot);
+                }
+            }
+        });
+    }
+
+    /**
+     * Fixed-size bitset over slots 1..size; a set bit means the slot is taken.
+     */
+    static final class SlotBitmap {
+
+        private final int size;
+        private final AtomicLongArray words;
+
+        SlotBitmap(int size) {
+            this.size = Math.max(size, 0);
+            this.words = new AtomicLongArray((this.size + 63) >>> 6);
+        }
+
+        int size() {
+            return size;
+        }
+
+        void mark(int slot) {
+            if (slot >= 1 && slot <= size) {
+                int i = slot - 1;
+                words.getAndAccumulate(i >>> 6, 1L << (i & 63), (cur, bit) -> cur | bit);
+            }
+        }
+
+        void clear(int slot) {
+            if (slot >= 1 && slot <= size) {
+                int i = slot - 1;
+                words.getAndAccumulate(i >>> 6, 1L << (i & 63), (cur, bit) -> cur & ~bit);
+            }
+        }
+
+        /**
+         * Scan from a random offset and CAS the first free bit; returns the
+         * claimed 1-based slot or -1 when the match is full.
+         */
+        int claimRandom() {
+            if (size == 0) {
+                return -1;
+            }
+            int start = ThreadLocalRandom.current().nextInt(size);
+            for (int n = 0; n < size; n++) {
+                int i = (start + n) % size;
+                int word = i >>> 6;
+                long bit = 1L << (i & 63);
+                long cur = words.get(word);
+                while ((cur & bit) == 0) {
+                    if (words.compareAndSet(word, cur, cur | bit)) {
+                        return i + 1;
+                    }
+                    cur = words.get(word);
+                }
+            }
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.demo.service;
+
+import java.util.List;
+
+import org.springframework.stereotype.Component;
+
+import com.example.demo.entity.MatchType;
+
+/**
+ * SOLO: every kill pays 80% of the entry fee; placement does not pay.
+ */
+@Component
+public class SoloPrizeRule implements PrizeRule {
+
+    private static final List<Integer> NO_PLACEMENTS = List.of();
+    // Match cards still advertise the generic top-three split of a full lobby
+    private static final List<Integer> HEADLINE = List.of(4000, 3000, 2000);
+
+    @Override
+    public MatchType matchType() {
+        return MatchType.SOLO;
+    }
+
+    @Override
+    public List<Integer> placementBasisPoints() {
+        return NO_PLACEMENTS;
+    }
+
+    @Override
+    public int perKillBasisPoints() {
+        return 8000;
+    }
+
+    @Override
+    public List<Integer> headlineBasisPoints() {
+        return HEADLINE;
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.demo.service;
+
+import java.util.List;
+
+import org.springframework.stereotype.Component;
+
+import com.example.demo.entity.MatchType;
+
+/**
+ * SQUAD (and the fallback for unknown types): top three share the pool
+ * 40/30/20.
+ */
+@Component
+public class SquadPrizeRule implements PrizeRule {
+
+    private static final List<Integer> PLACEMENTS = List.of(4000, 3000, 2000);
+
+    @Override
+    public MatchType matchType() {
+        return MatchType.SQUAD;
+    }
+
+    @Override
+    public List<Integer> placementBasisPoints() {
+        return PLACEMENTS;
+    }
+}
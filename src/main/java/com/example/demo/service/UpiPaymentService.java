@@ -15,17 +15,13 @@ import com.example.demo.dto.UpiAdminActionRequest;
 import com.example.demo.dto.UpiPaymentRequest;
 import com.example.demo.dto.UpiPaymentResponse;
 import com.example.demo.dto.UpiUtrSubmissionRequest;
-import com.example.demo.entity.TransactionType;
 import com.example.demo.entity.UpiPayment;
 import com.example.demo.entity.UpiPaymentStatus;
 import com.example.demo.entity.User;
-import com.example.demo.entity.Wallet;
-import com.example.demo.entity.WalletTransaction;
 import com.example.demo.repository.UpiPaymentRepository;
 import com.example.demo.repository.UserRepository;
-import com.example.demo.repository.WalletRepository;
-import com.example.demo.repository.WalletTransactionRepository;
 
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 
 @Service
@@ -34,9 +30,9 @@ public class UpiPaymentService {
 
     private final UpiPaymentRepository upiPaymentRepository;
     private final UserRepository userRepository;
-    private final WalletRepository walletRepository;
-    private final WalletTransactionRepository transactionRepository;
+    private final WalletBalanceEngine walletBalanceEngine;
     private final EmailService emailService;
+    private final BusinessMetrics metrics;
 
     // Receiving UPI ID and name (must be provided via env/properties)
     @Value("${business.upi.vpa:${BUSINESS_UPI_VPA:}}")
@@ -93,6 +89,7 @@ public class UpiPaymentService {
     }
 
     @Transactional
+    @Timed("upi.payment")
     public UpiPaymentResponse submitUtr(Long userId, UpiUtrSubmissionRequest request) {
         UpiPayment payment;
         if (request.getPaymentId() != null) {
@@ -134,6 +131,7 @@ public class UpiPaymentService {
         payment.setUtrSubmittedAt(LocalDateTime.now());
         payment.setStatus(UpiPaymentStatus.UTR_SUBMITTED);
         upiPaymentRepository.save(payment);
+        metrics.amount("upi.submitted.amount", payment.getAmount());
 
         // Notify admins that a credit request (UTR submitted) is pending review
         try {
@@ -167,40 +165,32 @@ public class UpiPaymentService {
     }
 
     @Transactional
+    @Timed("upi.payment")
     public String adminAction(UpiAdminActionRequest request) {
         UpiPayment payment = upiPaymentRepository.findById(request.getPaymentId())
                 .orElseThrow(() -> new RuntimeException("Payment not found"));
 
         if ("APPROVE".equalsIgnoreCase(request.getAction())) {
-            // Credit wallet
-            User user = payment.getUser();
-            Wallet wallet = walletRepository.findByUserId(user.getId())
-                    .orElseGet(() -> walletRepository.save(Wallet.builder().user(user).balance(BigDecimal.ZERO).build()));
-
-            BigDecimal newBalance = wallet.getBalance().add(payment.getAmount());
-            wallet.setBalance(newBalance);
-            wallet.setUpdatedAt(LocalDateTime.now());
-            walletRepository.save(wallet);
-
-            // Record transaction
-            WalletTransaction txn = WalletTransaction.builder()
-                    .wallet(wallet)
-                    .type(TransactionType.CREDIT)
-                    .amount(payment.getAmount())
-                    .description("UPI Add Money" + (payment.getUtr() != null ? (" (UTR: " + payment.getUtr() + ")") : ""))
-                    .referenceId(payment.getReferenceId())
-                    .balanceAfter(newBalance)
-                    .build();
-            transactionRepository.save(txn);
+            // Flip the status first so a double-clicked approval can never credit twice
+            LocalDateTime approvedAt = LocalDateTime.now();
+            int claimed = upiPaymentRepository.markApproved(payment.getId(), approvedAt, "ADMIN"); // optionally set from auth principal later
+            if (claimed == 0) {
+                throw new RuntimeException("Payment is not awaiting review");
+            }
 
-            payment.setStatus(UpiPaymentStatus.APPROVED);
-            payment.setApprovedAt(LocalDateTime.now());
-            payment.setApprovedBy("ADMIN"); // optionally set from auth principal later
-            upiPaymentRepository.save(payment);
+            // Credit wallet and record transaction
+            walletBalanceEngine.credit(
+                    payment.getUser().getId(),
+                    payment.getAmount(),
+                    "UPI Add Money" + (payment.getUtr() != null ? (" (UTR: " + payment.getUtr() + ")") : ""),
+                    payment.getReferenceId());
+            metrics.amount("upi.approved.amount", payment.getAmount());
             return "Payment approved and wallet credited";
         } else if ("REJECT".equalsIgnoreCase(request.getAction())) {
-            payment.setStatus(UpiPaymentStatus.REJECTED);
-            upiPaymentRepository.save(payment);
+            if (upiPaymentRepository.markRejected(payment.getId(), LocalDateTime.now()) == 0) {
+                throw new RuntimeException("Payment is not awaiting review");
+            }
+            metrics.count("upi.rejected");
             return "Payment rejected";
         } else {
             throw new RuntimeException("Unknown action");
@@ -0,0 +1,39 @@
+package com.example.demo.service;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.example.demo.entity.User;
+
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+/**
+ * Drops cached principals when a user row is updated or deleted so role
+ * changes take effect on the next request instead of after the cache TTL.
+ * Instantiated by Hibernate through Spring's bean container.
+ */
+public class UserPrincipalListener {
+
+    private final PrincipalCache principalCache;
+
+    public UserPrincipalListener(PrincipalCache principalCache) {
+        this.principalCache = principalCache;
+    }
+
+    @PostUpdate
+    @PostRemove
+    public void onUserChanged(User user) {
+        String email = user.getEmail();
+        principalCache.invalidate(email);
+        // A concurrent request may re-cache the old row before we commit; evict again afterwards
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    principalCache.invalidate(email);
+                }
+            });
+        }
+    }
+}
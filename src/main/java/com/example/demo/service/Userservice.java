@@ -14,6 +14,22 @@ import lombok.RequiredArgsConstructor;
 @RequiredArgsConstructor
 public class Userservice implements UserDetailsService {
     private final UserRepository userRepository;
+    private final PrincipalCache principalCache;
+
+    /**
+     * Resolve the principal for an already-verified token, hitting the
+     * database only when it is not cached yet.
+     */
+    public UserDetails loadPrincipal(String email, long tokenExpiresAtMillis) throws UsernameNotFoundException {
+        UserDetails cached = principalCache.get(email);
+        if (cached != null) {
+            return cached;
+        }
+        UserDetails loaded = loadUserByUsername(email);
+        principalCache.put(email, loaded, tokenExpiresAtMillis);
+        return loaded;
+    }
+
     @Override
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
         User user = userRepository.findByEmail(email)
@@ -0,0 +1,75 @@
+package com.example.demo.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.demo.dto.WalletTransactionResponse;
+import com.example.demo.entity.TransactionType;
+import com.example.demo.repository.WalletRepository;
+import com.example.demo.repository.WalletRepository.LedgerEntry;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Single entry point for every wallet balance mutation. Each debit or credit
+ * is one conditional UPDATE chained with the ledger INSERT, so concurrent
+ * registrations, refunds and prize credits can never lose an update or drive
+ * a balance negative, and no caller holds a lock across a read-modify-write.
+ */
+@Service
+@RequiredArgsConstructor
+public class WalletBalanceEngine {
+
+    private final WalletRepository walletRepository;
+
+    @Transactional
+    public WalletTransactionResponse debit(Long userId, BigDecimal amount, String description, String referenceId) {
+        requirePositive(amount);
+        LocalDateTime now = LocalDateTime.now();
+        LedgerEntry entry = walletRepository.debitAndRecord(userId, amount, description, referenceId, now)
+                .orElseThrow(() -> walletRepository.existsByUserId(userId)
+                ? new RuntimeException("Insufficient balance")
+                : new RuntimeException("Wallet not found"));
+        return toResponse(entry, TransactionType.DEBIT, amount, description, referenceId);
+    }
+
+    /**
+     * Credit the user's wallet, creating it first if the user has none.
+     */
+    @Transactional
+    public WalletTransactionResponse credit(Long userId, BigDecimal amount, String description, String referenceId) {
+        requirePositive(amount);
+        LocalDateTime now = LocalDateTime.now();
+        LedgerEntry entry = walletRepository.creditAndRecord(userId, amount, description, referenceId, now)
+                .orElse(null);
+        if (entry == null) {
+            // A concurrent credit may be creating the same wallet; whoever loses just credits the winner's row
+            walletRepository.createIfMissing(userId, now);
+            entry = walletRepository.creditAndRecord(userId, amount, description, referenceId, now)
+                    .orElseThrow(() -> new RuntimeException("Wallet not found"));
+        }
+        return toResponse(entry, TransactionType.CREDIT, amount, description, referenceId);
+    }
+
+    private static void requirePositive(BigDecimal amount) {
+        if (amount == null || amount.compareTo(BigDecimal.ZERO) <= 0) {
+            throw new IllegalArgumentException("Amount must be greater than zero");
+        }
+    }
+
+    private static WalletTransactionResponse toResponse(LedgerEntry entry, TransactionType type, BigDecimal amount,
+            String description, String referenceId) {
+        return WalletTransactionResponse.builder()
+                .id(entry.getId())
+                .type(type)
+                .amount(amount)
+                .description(description)
+                .referenceId(referenceId)
+                .balanceAfter(entry.getBalanceAfter())
+                .createdAt(entry.getCreatedAt())
+                .build();
+    }
+}
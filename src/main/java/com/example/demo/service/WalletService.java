@@ -1,15 +1,21 @@
 package com.example.demo.service;
 
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.util.Base64;
 import java.util.List;
 import java.util.stream.Collectors;
 
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.example.demo.config.ReadFromPrimary;
 import com.example.demo.dto.AddMoneyRequest;
 import com.example.demo.dto.WalletResponse;
+import com.example.demo.dto.WalletTransactionPage;
 import com.example.demo.dto.WalletTransactionResponse;
 import com.example.demo.dto.WithdrawMoneyRequest;
 import com.example.demo.dto.WithdrawalOtpResponse;
@@ -25,6 +31,7 @@ import com.example.demo.repository.WalletRepository;
 import com.example.demo.repository.WalletTransactionRepository;
 import com.example.demo.repository.WithdrawalRequestRepository;
 
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
@@ -39,9 +46,14 @@ public class WalletService {
     private final WithdrawalOtpService otpService;
     private final EmailService emailService;
     private final WithdrawalRequestRepository withdrawalRequestRepository;
+    private final WalletBalanceEngine balanceEngine;
+
+    private static final int DEFAULT_HISTORY_PAGE_SIZE = 50;
+    private static final int MAX_HISTORY_PAGE_SIZE = 100;
 
     // app.admin.emails is consumed inside EmailService
     @Transactional
+    @Timed("wallet.mutation")
     public Wallet createWalletForUser(User user) {
         if (walletRepository.existsByUserId(user.getId())) {
             return walletRepository.findByUserId(user.getId()).orElseThrow();
@@ -62,10 +74,15 @@ public class WalletService {
         Wallet wallet = walletRepository.findByUserId(userId)
                 .orElseGet(() -> createWalletForUser(user));
 
-        // Calculate statistics
-        BigDecimal totalAdded = transactionRepository.sumAmountByWalletIdAndType(wallet.getId(), TransactionType.CREDIT);
-        BigDecimal totalSpent = transactionRepository.sumAmountByWalletIdAndType(wallet.getId(), TransactionType.DEBIT);
-        Long totalTransactions = transactionRepository.countByWalletId(wallet.getId());
+        // Running totals live on the wallet row; aggregate the ledger only for wallets not yet backfilled
+        BigDecimal totalAdded = wallet.getTotalAdded();
+        BigDecimal totalSpent = wallet.getTotalSpent();
+        Long totalTransactions = wallet.getTransactionCount();
+        if (totalAdded == null || totalSpent == null || totalTransactions == null) {
+            totalAdded = transactionRepository.sumAmountByWalletIdAndType(wallet.getId(), TransactionType.CREDIT);
+            totalSpent = transactionRepository.sumAmountByWalletIdAndType(wallet.getId(), TransactionType.DEBIT);
+            totalTransactions = transactionRepository.countByWalletId(wallet.getId());
+        }
 
         if (totalAdded == null) {
             totalAdded = BigDecimal.ZERO;
@@ -84,80 +101,93 @@ public class WalletService {
     }
 
     @Transactional
+    @Timed("wallet.mutation")
     public WalletTransactionResponse addMoney(Long userId, AddMoneyRequest request) {
-        User user = userRepository.findById(userId)
+        userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
-        Wallet wallet = walletRepository.findByUserId(userId)
-                .orElseGet(() -> createWalletForUser(user));
-
-        // Update wallet balance
-        BigDecimal newBalance = wallet.getBalance().add(request.getAmount());
-        wallet.setBalance(newBalance);
-        walletRepository.save(wallet);
-
-        // Create transaction record
-        WalletTransaction transaction = WalletTransaction.builder()
-                .wallet(wallet)
-                .type(TransactionType.CREDIT)
-                .amount(request.getAmount())
-                .description("Money added via " + request.getPaymentMethod())
-                .referenceId(request.getPaymentReference())
-                .balanceAfter(newBalance)
-                .build();
-
-        transaction = transactionRepository.save(transaction);
-
-        return mapToTransactionResponse(transaction);
+        String referenceId = request.getPaymentReference() != null
+                ? request.getPaymentReference()
+                : "ADD_" + System.currentTimeMillis();
+        return balanceEngine.credit(userId, request.getAmount(),
+                "Money added via " + request.getPaymentMethod(), referenceId);
     }
 
     @Transactional
+    @Timed("wallet.mutation")
     public WalletTransactionResponse debitAmount(Long userId, BigDecimal amount, String description, String referenceId) {
-        Wallet wallet = walletRepository.findByUserId(userId)
-                .orElseThrow(() -> new RuntimeException("Wallet not found"));
-
-        if (wallet.getBalance().compareTo(amount) < 0) {
-            throw new RuntimeException("Insufficient balance");
-        }
-
-        // Update wallet balance
-        BigDecimal newBalance = wallet.getBalance().subtract(amount);
-        wallet.setBalance(newBalance);
-        walletRepository.save(wallet);
-
-        // Create transaction record
-        WalletTransaction transaction = WalletTransaction.builder()
-                .wallet(wallet)
-                .type(TransactionType.DEBIT)
-                .amount(amount)
-                .description(description)
-                .referenceId(referenceId)
-                .balanceAfter(newBalance)
-                .build();
-
-        transaction = transactionRepository.save(transaction);
-
-        return mapToTransactionResponse(transaction);
+        return balanceEngine.debit(userId, amount, description,
+                referenceId != null ? referenceId : "DBT_" + System.currentTimeMillis());
     }
 
-    public List<WalletTransactionResponse> getTransactionHistory(Long userId) {
+    /**
+     * One page of wallet history, newest first. The cursor is opaque to
+     * clients: pass back the nextCursor of the previous page to continue.
+     */
+    public WalletTransactionPage getTransactionHistory(Long userId, String cursor, TransactionType type, Integer limit) {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
         Wallet wallet = walletRepository.findByUserId(userId)
                 .orElseGet(() -> createWalletForUser(user));
 
-        List<WalletTransaction> transactions = transactionRepository.findByWalletIdOrderByCreatedAtDesc(wallet.getId());
+        int pageSize = limit == null || limit <= 0 ? DEFAULT_HISTORY_PAGE_SIZE : Math.min(limit, MAX_HISTORY_PAGE_SIZE);
+        // Fetch one extra row to know whether another page exists
+        Pageable pageable = PageRequest.of(0, pageSize + 1);
+
+        List<WalletTransaction> transactions;
+        if (cursor == null || cursor.isBlank()) {
+            transactions = type == null
+                    ? transactionRepository.findFirstPage(wallet.getId(), pageable)
+                    : transactionRepository.findFirstPageByType(wallet.getId(), type, pageable);
+        } else {
+            HistoryCursor after = HistoryCursor.decode(cursor);
+            transactions = type == null
+                    ? transactionRepository.findPageBefore(wallet.getId(), after.createdAt(), after.id(), pageable)
+                    : transactionRepository.findPageBeforeByType(wallet.getId(), type, after.createdAt(), after.id(), pageable);
+        }
 
-        return transactions.stream()
-                .map(this::mapToTransactionResponse)
-                .collect(Collectors.toList());
+        String nextCursor = null;
+        if (transactions.size() > pageSize) {
+            transactions = transactions.subList(0, pageSize);
+            WalletTransaction last = transactions.get(pageSize - 1);
+            nextCursor = new HistoryCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+
+        return WalletTransactionPage.builder()
+                .transactions(transactions.stream()
+                        .map(this::mapToTransactionResponse)
+                        .collect(Collectors.toList()))
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    /**
+     * Position in the (created_at, id) ordering, carried as base64url text.
+     */
+    record HistoryCursor(LocalDateTime createdAt, Long id) {
+
+        String encode() {
+            String raw = createdAt + "|" + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static HistoryCursor decode(String cursor) {
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                int sep = raw.lastIndexOf('|');
+                return new HistoryCursor(LocalDateTime.parse(raw.substring(0, sep)), Long.valueOf(raw.substring(sep + 1)));
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+        }
     }
 
     /**
      * Initiate withdrawal with OTP - Step 1: Send OTP
      */
     @Transactional
+    @Timed("wallet.mutation")
     public WithdrawalOtpResponse initiateWithdrawal(Long userId, WithdrawMoneyRequest request) {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found"));
@@ -206,6 +236,7 @@ public class WalletService {
      * process withdrawal
      */
     @Transactional
+    @Timed("wallet.mutation")
     public WalletTransactionResponse completeWithdrawal(Long userId, String otpCode) {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found"));
@@ -235,10 +266,6 @@ public class WalletService {
         wr = withdrawalRequestRepository.save(wr);
 
         // Immediately debit the user's wallet now (funds on hold) and link the transaction
-        BigDecimal newBalance = wallet.getBalance().subtract(verifiedOtp.getAmount());
-        wallet.setBalance(newBalance);
-        walletRepository.save(wallet);
-
         // Generate a reference like add-money style: PREFIX_<timestamp>_<8hex>
         String referenceId = "WREQ_" + System.currentTimeMillis() + "_" + java.util.UUID.randomUUID().toString().replace("-", "").substring(0, 8);
         // Build description without 'Pending Admin'; include reference number for traceability
@@ -249,15 +276,7 @@ public class WalletService {
                 : ""))
                 + " (Ref: " + referenceId + ")";
 
-        WalletTransaction transaction = WalletTransaction.builder()
-                .wallet(wallet)
-                .type(TransactionType.DEBIT)
-                .amount(verifiedOtp.getAmount())
-                .description(description)
-                .referenceId(referenceId)
-                .balanceAfter(newBalance)
-                .build();
-        transaction = transactionRepository.save(transaction);
+        WalletTransactionResponse transaction = balanceEngine.debit(userId, verifiedOtp.getAmount(), description, referenceId);
 
         // Store reference on the withdrawal request
         wr.setReferenceId(referenceId);
@@ -281,10 +300,11 @@ public class WalletService {
         }
 
         // Return the real transaction
-        return mapToTransactionResponse(transaction);
+        return transaction;
     }
 
     @Transactional
+    @Timed("wallet.mutation")
     public String adminApproveWithdrawal(Long requestId, String notes) {
         WithdrawalRequest wr = withdrawalRequestRepository.findById(requestId)
                 .orElseThrow(() -> new RuntimeException("Withdrawal request not found"));
@@ -313,6 +333,7 @@ public class WalletService {
     }
 
     @Transactional
+    @Timed("wallet.mutation")
     public String adminRejectWithdrawal(Long requestId, String notes) {
         WithdrawalRequest wr = withdrawalRequestRepository.findById(requestId)
                 .orElseThrow(() -> new RuntimeException("Withdrawal request not found"));
@@ -321,24 +342,9 @@ public class WalletService {
         }
 
         // Refund the previously debited amount
-        Wallet wallet = walletRepository.findByUserId(wr.getUser().getId())
-                .orElseThrow(() -> new RuntimeException("Wallet not found"));
-
-        BigDecimal newBalance = wallet.getBalance().add(wr.getAmount());
-        wallet.setBalance(newBalance);
-        walletRepository.save(wallet);
-
         String referenceId = "WRF_" + System.currentTimeMillis();
         String description = "Refund for rejected withdrawal request (" + wr.getMethod() + ")";
-        WalletTransaction txn = WalletTransaction.builder()
-                .wallet(wallet)
-                .type(TransactionType.CREDIT)
-                .amount(wr.getAmount())
-                .description(description)
-                .referenceId(referenceId)
-                .balanceAfter(newBalance)
-                .build();
-        transactionRepository.save(txn);
+        balanceEngine.credit(wr.getUser().getId(), wr.getAmount(), description, referenceId);
 
         wr.setStatus(WithdrawalStatus.REJECTED);
         wr.setAdminNotes(notes);
@@ -361,6 +367,7 @@ public class WalletService {
     }
 
     @Transactional(readOnly = true)
+    @ReadFromPrimary
     public List<com.example.demo.dto.WithdrawalRequestResponse> listPendingWithdrawals() {
         return withdrawalRequestRepository.findByStatusOrderByCreatedAtAsc(WithdrawalStatus.PENDING)
                 .stream()
@@ -385,20 +392,8 @@ public class WalletService {
     }
 
     @Transactional
+    @Timed("wallet.mutation")
     public WalletTransactionResponse withdrawMoney(Long userId, WithdrawMoneyRequest request) {
-        Wallet wallet = walletRepository.findByUserId(userId)
-                .orElseThrow(() -> new RuntimeException("Wallet not found"));
-
-        if (wallet.getBalance().compareTo(request.getAmount()) < 0) {
-            throw new RuntimeException("Insufficient balance");
-        }
-
-        // Update wallet balance
-        BigDecimal newBalance = wallet.getBalance().subtract(request.getAmount());
-        wallet.setBalance(newBalance);
-        walletRepository.save(wallet);
-
-        // Create transaction record
         String description = "Money withdrawn via " + request.getWithdrawalMethod();
         if ("BANK".equals(request.getWithdrawalMethod())) {
             description += " to account " + request.getAccountNumber();
@@ -406,18 +401,8 @@ public class WalletService {
             description += " to UPI " + request.getUpiId();
         }
 
-        WalletTransaction transaction = WalletTransaction.builder()
-                .wallet(wallet)
-                .type(TransactionType.DEBIT)
-                .amount(request.getAmount())
-                .description(description)
-                .referenceId("WTH_" + System.currentTimeMillis()) // Generate withdrawal reference
-                .balanceAfter(newBalance)
-                .build();
-
-        transaction = transactionRepository.save(transaction);
-
-        return mapToTransactionResponse(transaction);
+        // Generate withdrawal reference
+        return balanceEngine.debit(userId, request.getAmount(), description, "WTH_" + System.currentTimeMillis());
     }
 
     public boolean hasInsufficientBalance(Long userId, BigDecimal amount) {
@@ -445,83 +430,21 @@ public class WalletService {
     }
 
     @Transactional
+    @Timed("wallet.mutation")
     public void deductForTournament(Long userId, BigDecimal amount, String description) {
-        Wallet wallet = walletRepository.findByUserId(userId)
-                .orElseThrow(() -> new RuntimeException("Wallet not found"));
-
-        // Check if sufficient balance
-        if (wallet.getBalance().compareTo(amount) < 0) {
-            throw new RuntimeException("Insufficient balance");
-        }
-
-        // Deduct amount from wallet
-        BigDecimal newBalance = wallet.getBalance().subtract(amount);
-        wallet.setBalance(newBalance);
-        wallet.setUpdatedAt(LocalDateTime.now());
-        walletRepository.save(wallet);
-
-        // Create transaction record
-        WalletTransaction transaction = WalletTransaction.builder()
-                .wallet(wallet)
-                .type(TransactionType.DEBIT)
-                .amount(amount)
-                .description(description)
-                .referenceId("TRN_" + System.currentTimeMillis())
-                .balanceAfter(newBalance)
-                .build();
-
-        transactionRepository.save(transaction);
+        balanceEngine.debit(userId, amount, description, "TRN_" + System.currentTimeMillis());
     }
 
     @Transactional
+    @Timed("wallet.mutation")
     public void refundForTournament(Long userId, BigDecimal amount, String description) {
-        Wallet wallet = walletRepository.findByUserId(userId)
-                .orElseThrow(() -> new RuntimeException("Wallet not found"));
-
-        // Add amount back to wallet
-        BigDecimal newBalance = wallet.getBalance().add(amount);
-        wallet.setBalance(newBalance);
-        wallet.setUpdatedAt(LocalDateTime.now());
-        walletRepository.save(wallet);
-
-        // Create refund transaction record
-        WalletTransaction transaction = WalletTransaction.builder()
-                .wallet(wallet)
-                .type(TransactionType.CREDIT)
-                .amount(amount)
-                .description(description)
-                .referenceId("REF_" + System.currentTimeMillis())
-                .balanceAfter(newBalance)
-                .build();
-
-        transactionRepository.save(transaction);
+        balanceEngine.credit(userId, amount, description, "REF_" + System.currentTimeMillis());
     }
 
     @Transactional
+    @Timed("wallet.mutation")
     public void creditPrize(Long userId, BigDecimal amount, String description) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
-        Wallet wallet = walletRepository.findByUserId(userId)
-                .orElseGet(() -> createWalletForUser(user));
-
-        // Add prize amount to wallet
-        BigDecimal newBalance = wallet.getBalance().add(amount);
-        wallet.setBalance(newBalance);
-        wallet.setUpdatedAt(LocalDateTime.now());
-        walletRepository.save(wallet);
-
-        // Create prize credit transaction record
-        WalletTransaction transaction = WalletTransaction.builder()
-                .wallet(wallet)
-                .type(TransactionType.CREDIT)
-                .amount(amount)
-                .description(description)
-                .referenceId("PRIZE_" + System.currentTimeMillis())
-                .balanceAfter(newBalance)
-                .build();
-
-        transactionRepository.save(transaction);
+        balanceEngine.credit(userId, amount, description, "PRIZE_" + System.currentTimeMillis());
     }
 
     private WalletTransactionResponse mapToTransactionResponse(WalletTransaction transaction) {
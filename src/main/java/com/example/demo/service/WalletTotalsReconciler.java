@@ -0,0 +1,69 @@
+package com.example.demo.service;
+
+import java.util.List;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.demo.repository.WalletRepository;
+import com.example.demo.repository.WalletRepository.TotalsMismatch;
+
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Keeps the materialized wallet totals honest: backfills wallets created
+ * before the columns existed, and periodically compares every wallet's totals
+ * with its ledger, repairing any drift it finds.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class WalletTotalsReconciler {
+
+    private final WalletRepository walletRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        try {
+            List<Long> ids = walletRepository.findIdsMissingTotals();
+            for (Long id : ids) {
+                recompute(id);
+            }
+            if (!ids.isEmpty()) {
+                log.info("Backfilled running totals for {} wallets", ids.size());
+            }
+        } catch (Exception e) {
+            log.warn("Wallet totals backfill failed: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.wallet.reconcile-interval-ms:21600000}", initialDelay = 300_000)
+    @Timed("scheduler.tick")
+    public void reconcile() {
+        try {
+            List<TotalsMismatch> mismatches = walletRepository.findTotalsMismatches();
+            for (TotalsMismatch m : mismatches) {
+                log.warn("Wallet {} totals drifted from ledger: added {} vs {}, spent {} vs {}, count {} vs {}",
+                        m.getWalletId(), m.getTotalAdded(), m.getLedgerAdded(), m.getTotalSpent(),
+                        m.getLedgerSpent(), m.getTransactionCount(), m.getLedgerCount());
+                recompute(m.getWalletId());
+            }
+        } catch (Exception e) {
+            log.warn("Wallet totals reconciliation failed: {}", e.getMessage());
+        }
+    }
+
+    private void recompute(Long walletId) {
+        // Lock first so the sums are taken after every earlier append has committed
+        transactionTemplate.executeWithoutResult(status -> {
+            walletRepository.lockById(walletId);
+            walletRepository.recomputeTotals(walletId);
+        });
+    }
+}
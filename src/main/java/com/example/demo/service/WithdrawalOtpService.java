@@ -5,7 +5,6 @@ import java.security.SecureRandom;
 import java.time.LocalDateTime;
 import java.util.Optional;
 
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -14,6 +13,7 @@ import com.example.demo.entity.User;
 import com.example.demo.entity.WithdrawalOtp;
 import com.example.demo.repository.WithdrawalOtpRepository;
 
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
@@ -61,8 +61,8 @@ public class WithdrawalOtpService {
         // Save OTP
         otp = otpRepository.save(otp);
 
-        // Trigger async email (fire-and-forget). Any exception is logged inside the async method.
-        sendOtpEmailAsync(user.getEmail(), otpCode, user.getName(), amount.toString());
+        // Queue the email in this transaction; it is only sent if the OTP row commits
+        queueOtpEmail(user.getEmail(), otpCode, user.getName(), amount.toString());
 
         log.info("OTP generated for user {} for withdrawal amount {}", user.getId(), amount);
 
@@ -118,18 +118,11 @@ public class WithdrawalOtpService {
     }
 
     /**
-     * Send OTP email asynchronously
+     * Queue OTP email in the outbox
      */
-    @Async
-    private void sendOtpEmailAsync(String email, String otpCode, String userName, String amount) {
-        log.info("Starting async email send for OTP: {} to email: {}", otpCode, email);
-        try {
-            emailService.sendWithdrawalOtp(email, otpCode, userName, amount);
-            log.info("Async email send completed successfully for: {}", email);
-        } catch (Exception e) {
-            log.error("Failed to send OTP email to {} - Error: {}", email, e.getMessage(), e);
-            // We don't throw exception here to avoid rolling back the OTP creation
-        }
+    private void queueOtpEmail(String email, String otpCode, String userName, String amount) {
+        emailService.sendWithdrawalOtp(email, otpCode, userName, amount);
+        log.info("OTP email queued for: {}", email);
     }
 
     /**
@@ -137,6 +130,7 @@ public class WithdrawalOtpService {
      */
     @Scheduled(fixedRate = 600000) // 10 minutes
     @Transactional
+    @Timed("scheduler.tick")
     public void cleanupExpiredOtps() {
         try {
             LocalDateTime now = LocalDateTime.now();
@@ -0,0 +1,150 @@
+-- Baseline: the schema hibernate.ddl-auto=update produced before migrations were introduced.
+-- Existing databases are adopted at this version (spring.flyway.baseline-on-migrate) and never run it.
+
+CREATE TABLE "Profiles" (
+    user_id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    user_name VARCHAR(255),
+    user_email VARCHAR(255),
+    user_phone VARCHAR(255),
+    game_id VARCHAR(255),
+    role VARCHAR(255)
+);
+
+CREATE TABLE matches (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    title VARCHAR(255),
+    game VARCHAR(255),
+    match_type VARCHAR(255),
+    status VARCHAR(255),
+    slots INTEGER NOT NULL,
+    entry_fee INTEGER NOT NULL,
+    prize_pool INTEGER NOT NULL,
+    prize_first INTEGER NOT NULL,
+    prize_second INTEGER NOT NULL,
+    prize_third INTEGER NOT NULL,
+    scheduled_at TIMESTAMP(6),
+    map_name VARCHAR(255),
+    game_mode VARCHAR(255),
+    rules VARCHAR(2000),
+    room_id VARCHAR(255),
+    room_password VARCHAR(255),
+    credentials_sent BOOLEAN NOT NULL,
+    registered_teams INTEGER NOT NULL,
+    rounds INTEGER
+);
+
+CREATE TABLE registrations (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    user_id BIGINT NOT NULL REFERENCES "Profiles" (user_id),
+    match_id BIGINT NOT NULL REFERENCES matches (id),
+    status VARCHAR(255),
+    slot_number INTEGER NOT NULL,
+    amount_paid DOUBLE PRECISION NOT NULL,
+    payment_status VARCHAR(255),
+    transaction_id VARCHAR(255),
+    registered_at TIMESTAMP(6),
+    updated_at TIMESTAMP(6)
+);
+
+CREATE TABLE registration_players (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    registration_id BIGINT NOT NULL REFERENCES registrations (id),
+    player_name VARCHAR(255) NOT NULL,
+    game_name VARCHAR(255) NOT NULL,
+    game_id VARCHAR(255) NOT NULL,
+    role VARCHAR(255),
+    player_position INTEGER NOT NULL
+);
+
+CREATE TABLE match_results (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    registration_id BIGINT REFERENCES registrations (id),
+    match_id BIGINT REFERENCES matches (id),
+    user_id BIGINT REFERENCES "Profiles" (user_id),
+    position INTEGER,
+    kills INTEGER,
+    prize_amount NUMERIC(38, 2),
+    prize_credited BOOLEAN,
+    created_at TIMESTAMP(6),
+    updated_at TIMESTAMP(6)
+);
+
+CREATE TABLE wallet (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    user_id BIGINT NOT NULL UNIQUE REFERENCES "Profiles" (user_id),
+    balance NUMERIC(10, 2) NOT NULL,
+    created_at TIMESTAMP(6),
+    updated_at TIMESTAMP(6)
+);
+
+CREATE TABLE wallet_transactions (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    wallet_id BIGINT NOT NULL REFERENCES wallet (id),
+    type VARCHAR(255) NOT NULL,
+    amount NUMERIC(10, 2) NOT NULL,
+    description VARCHAR(255) NOT NULL,
+    reference_id VARCHAR(255),
+    balance_after NUMERIC(10, 2),
+    created_at TIMESTAMP(6)
+);
+
+CREATE TABLE upi_payments (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    user_id BIGINT REFERENCES "Profiles" (user_id),
+    amount NUMERIC(15, 2) NOT NULL,
+    upi_id VARCHAR(255),
+    payee_vpa VARCHAR(255),
+    payee_name VARCHAR(255),
+    note VARCHAR(255),
+    status VARCHAR(255) NOT NULL,
+    utr VARCHAR(64),
+    qr_code_url VARCHAR(255),
+    payment_app VARCHAR(255),
+    reference_id VARCHAR(255) NOT NULL,
+    admin_notes VARCHAR(255),
+    approved_at TIMESTAMP(6),
+    approved_by VARCHAR(255),
+    utr_number VARCHAR(255),
+    utr_submitted_at TIMESTAMP(6),
+    created_at TIMESTAMP(6),
+    updated_at TIMESTAMP(6)
+);
+CREATE INDEX idx_upi_user ON upi_payments (user_id);
+CREATE INDEX idx_upi_status ON upi_payments (status);
+
+CREATE TABLE withdrawal_otps (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    user_id BIGINT NOT NULL REFERENCES "Profiles" (user_id),
+    otp_code VARCHAR(6) NOT NULL,
+    amount NUMERIC(10, 2) NOT NULL,
+    withdrawal_method VARCHAR(255) NOT NULL,
+    account_number VARCHAR(255),
+    ifsc_code VARCHAR(255),
+    account_holder_name VARCHAR(255),
+    upi_id VARCHAR(255),
+    created_at TIMESTAMP(6) NOT NULL,
+    expires_at TIMESTAMP(6) NOT NULL,
+    is_verified BOOLEAN NOT NULL,
+    verified_at TIMESTAMP(6)
+);
+CREATE INDEX idx_wotp_user_active ON withdrawal_otps (user_id, is_verified, expires_at);
+CREATE INDEX idx_wotp_user_code ON withdrawal_otps (user_id, otp_code, is_verified, expires_at);
+CREATE INDEX idx_wotp_expires_at ON withdrawal_otps (expires_at);
+
+CREATE TABLE withdrawal_requests (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    user_id BIGINT NOT NULL REFERENCES "Profiles" (user_id),
+    amount NUMERIC(10, 2) NOT NULL,
+    status VARCHAR(255) NOT NULL,
+    method VARCHAR(255) NOT NULL,
+    upi_id VARCHAR(255),
+    account_number VARCHAR(255),
+    ifsc_code VARCHAR(255),
+    account_holder_name VARCHAR(255),
+    admin_notes VARCHAR(255),
+    reference_id VARCHAR(255),
+    created_at TIMESTAMP(6),
+    updated_at TIMESTAMP(6)
+);
+CREATE INDEX idx_withdrawal_status ON withdrawal_requests (status);
+CREATE INDEX idx_withdrawal_user ON withdrawal_requests (user_id);
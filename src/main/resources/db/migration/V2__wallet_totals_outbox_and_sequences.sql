@@ -0,0 +1,61 @@
+-- Schema changes after the baseline. Every statement is idempotent, so it is safe both on fresh databases and
+-- on ones where ddl-auto=update already added some of them.
+
+-- Running wallet totals; NULL until WalletTotalsReconciler backfills them from the ledger
+ALTER TABLE wallet ADD COLUMN IF NOT EXISTS total_added NUMERIC(12, 2);
+ALTER TABLE wallet ADD COLUMN IF NOT EXISTS total_spent NUMERIC(12, 2);
+ALTER TABLE wallet ADD COLUMN IF NOT EXISTS transaction_count BIGINT;
+
+-- Transactional email outbox
+CREATE TABLE IF NOT EXISTS email_outbox (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    recipients VARCHAR(2000) NOT NULL,
+    subject VARCHAR(255) NOT NULL,
+    html_body TEXT NOT NULL,
+    inline_logo BOOLEAN NOT NULL,
+    attachment_name VARCHAR(255),
+    attachment_type VARCHAR(255),
+    attachment_data BYTEA,
+    status VARCHAR(16) NOT NULL,
+    attempts INTEGER NOT NULL,
+    next_attempt_at TIMESTAMP(6) NOT NULL,
+    lease_until TIMESTAMP(6),
+    last_error VARCHAR(1000),
+    created_at TIMESTAMP(6) NOT NULL,
+    sent_at TIMESTAMP(6)
+);
+ALTER TABLE email_outbox ADD COLUMN IF NOT EXISTS priority INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE email_outbox ADD COLUMN IF NOT EXISTS topic VARCHAR(64);
+ALTER TABLE email_outbox ADD COLUMN IF NOT EXISTS dedupe_key VARCHAR(128);
+CREATE INDEX IF NOT EXISTS idx_email_outbox_status_next_attempt ON email_outbox (status, next_attempt_at);
+CREATE INDEX IF NOT EXISTS idx_email_outbox_topic ON email_outbox (topic);
+
+-- Pooled sequence ids (allocationSize 50) for the entities Hibernate inserts in batches, replacing IDENTITY.
+-- Each table: drop the identity (and its sequence), ensure <table>_id_seq increments by 50, move it past
+-- existing ids only when it is behind (never rewinds blocks other nodes hold), and make it the column default.
+-- wallet and wallet_transactions keep IDENTITY: their rows are written by native single-row and set-based
+-- inserts, where each nextval on a 50-step sequence would throw away a whole block of ids.
+ALTER TABLE registrations ALTER COLUMN id DROP IDENTITY IF EXISTS;
+CREATE SEQUENCE IF NOT EXISTS registrations_id_seq INCREMENT BY 50;
+ALTER SEQUENCE registrations_id_seq INCREMENT BY 50 OWNED BY registrations.id;
+SELECT setval('registrations_id_seq', m.max_id)
+    FROM (SELECT MAX(id) AS max_id FROM registrations) m, registrations_id_seq s
+    WHERE m.max_id >= s.last_value;
+ALTER TABLE registrations ALTER COLUMN id SET DEFAULT nextval('registrations_id_seq');
+
+ALTER TABLE registration_players ALTER COLUMN id DROP IDENTITY IF EXISTS;
+CREATE SEQUENCE IF NOT EXISTS registration_players_id_seq INCREMENT BY 50;
+ALTER SEQUENCE registration_players_id_seq INCREMENT BY 50 OWNED BY registration_players.id;
+SELECT setval('registration_players_id_seq', m.max_id)
+    FROM (SELECT MAX(id) AS max_id FROM registration_players) m, registration_players_id_seq s
+    WHERE m.max_id >= s.last_value;
+ALTER TABLE registration_players ALTER COLUMN id SET DEFAULT nextval('registration_players_id_seq');
+
+ALTER TABLE match_results ALTER COLUMN id DROP IDENTITY IF EXISTS;
+CREATE SEQUENCE IF NOT EXISTS match_results_id_seq INCREMENT BY 50;
+ALTER SEQUENCE match_results_id_seq INCREMENT BY 50 OWNED BY match_results.id;
+SELECT setval('match_results_id_seq', m.max_id)
+    FROM (SELECT MAX(id) AS max_id FROM match_results) m, match_results_id_seq s
+    WHERE m.max_id >= s.last_value;
+ALTER TABLE match_results ALTER COLUMN id SET DEFAULT nextval('match_results_id_seq');
+
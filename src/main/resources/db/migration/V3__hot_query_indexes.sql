@@ -0,0 +1,134 @@
+-- Indexes and unique constraints for the hot queries.
+
+-- Slots double-booked before allocation was atomic: the earliest registration keeps the slot and each later
+-- one moves to the lowest slot still free within the match's capacity. A match with more confirmed
+-- registrations than slots has no free slot to offer, so the migration stops and lists those matches; cancel
+-- and refund the surplus registrations, then run it again.
+DO $$
+DECLARE
+    overbooked TEXT;
+BEGIN
+    SELECT string_agg(format('match %s: %s confirmed registrations for %s slots', m.id, c.cnt, m.slots),
+                      E'\n' ORDER BY m.id)
+    INTO overbooked
+    FROM matches m
+    JOIN (SELECT match_id, COUNT(*) AS cnt, COUNT(DISTINCT slot_number) AS distinct_slots
+          FROM registrations
+          WHERE status = 'CONFIRMED'
+          GROUP BY match_id) c ON c.match_id = m.id
+    WHERE c.cnt > c.distinct_slots AND c.cnt > m.slots;
+    IF overbooked IS NOT NULL THEN
+        RAISE EXCEPTION 'Double-booked matches with more confirmed registrations than slots:%', E'\n' || overbooked
+            USING HINT = 'Cancel and refund the surplus registrations, then run the migration again.';
+    END IF;
+END $$;
+
+WITH ranked AS (
+    SELECT id, match_id, slot_number,
+           ROW_NUMBER() OVER (PARTITION BY match_id, slot_number ORDER BY id) AS rn
+    FROM registrations
+    WHERE status = 'CONFIRMED'
+),
+dup AS (
+    SELECT id, match_id, ROW_NUMBER() OVER (PARTITION BY match_id ORDER BY id) AS n
+    FROM ranked
+    WHERE rn > 1
+),
+free AS (
+    SELECT m.id AS match_id, s.slot, ROW_NUMBER() OVER (PARTITION BY m.id ORDER BY s.slot) AS n
+    FROM matches m
+    CROSS JOIN LATERAL generate_series(1, m.slots) AS s(slot)
+    WHERE m.id IN (SELECT match_id FROM dup)
+      AND NOT EXISTS (SELECT 1 FROM ranked k
+                      WHERE k.match_id = m.id AND k.rn = 1 AND k.slot_number = s.slot)
+)
+UPDATE registrations r
+SET slot_number = free.slot
+FROM dup
+JOIN free ON free.match_id = dup.match_id AND free.n = dup.n
+WHERE r.id = dup.id;
+
+-- Final arbiter for slot allocation: at most one confirmed registration per slot in a match
+CREATE UNIQUE INDEX IF NOT EXISTS uq_registrations_match_slot_confirmed
+    ON registrations (match_id, slot_number)
+    WHERE status = 'CONFIRMED';
+
+-- Participants, slot maps and confirmed counts per match (findByMatchIdAndStatus*, countConfirmed*)
+CREATE INDEX IF NOT EXISTS idx_registrations_match_status
+    ON registrations (match_id, status);
+
+-- "Already registered?" checks and a player's own registrations (existsByUserIdAndMatchIdAndStatus, findByUserId*)
+CREATE INDEX IF NOT EXISTS idx_registrations_user_match_status
+    ON registrations (user_id, match_id, status);
+
+-- Team members of a registration, in position order
+CREATE INDEX IF NOT EXISTS idx_registration_players_registration
+    ON registration_players (registration_id, player_position);
+
+-- Leaderboards and settlement per match; result lookup per registration
+CREATE INDEX IF NOT EXISTS idx_match_results_match_position
+    ON match_results (match_id, position);
+CREATE INDEX IF NOT EXISTS idx_match_results_registration
+    ON match_results (registration_id);
+CREATE INDEX IF NOT EXISTS idx_match_results_user_created
+    ON match_results (user_id, created_at DESC);
+
+-- Lifecycle timers are rebuilt from OPEN matches in a scheduled_at window
+CREATE INDEX IF NOT EXISTS idx_matches_status_scheduled_at
+    ON matches (status, scheduled_at);
+
+-- Keyset pagination of wallet history: (created_at, id) newest first per wallet
+CREATE INDEX IF NOT EXISTS idx_wallet_tx_wallet_created_id
+    ON wallet_transactions (wallet_id, created_at DESC, id DESC);
+
+-- History filtered by type and the per-type totals of the reconciler
+CREATE INDEX IF NOT EXISTS idx_wallet_tx_wallet_type_created_id
+    ON wallet_transactions (wallet_id, type, created_at DESC, id DESC);
+
+-- At most one refund ledger row per registration of a cancelled match (MREF_<matchId>_<registrationId>)
+CREATE UNIQUE INDEX IF NOT EXISTS uq_wallet_tx_match_refund_key
+    ON wallet_transactions (reference_id)
+    WHERE reference_id LIKE 'MREF\_%';
+
+-- At most one prize ledger row per match result (PRIZE_MR_<resultId>)
+CREATE UNIQUE INDEX IF NOT EXISTS uq_wallet_tx_prize_result_key
+    ON wallet_transactions (reference_id)
+    WHERE reference_id LIKE 'PRIZE\_MR\_%';
+
+-- Login and signup lookups by email / phone
+CREATE INDEX IF NOT EXISTS idx_profiles_user_email
+    ON "Profiles" (user_email);
+CREATE INDEX IF NOT EXISTS idx_profiles_user_phone
+    ON "Profiles" (user_phone);
+
+-- Admin review queue: only UTR_SUBMITTED payments, so the index stays as small as the queue
+CREATE INDEX IF NOT EXISTS idx_upi_payments_utr_submitted
+    ON upi_payments (created_at)
+    WHERE status = 'UTR_SUBMITTED';
+
+-- A player's payment history
+CREATE INDEX IF NOT EXISTS idx_upi_payments_user_created
+    ON upi_payments (user_id, created_at DESC);
+
+-- Admin payout queue (findByStatusOrderByCreatedAtAsc(PENDING)): only PENDING requests, oldest first
+CREATE INDEX IF NOT EXISTS idx_withdrawal_requests_pending
+    ON withdrawal_requests (created_at)
+    WHERE status = 'PENDING';
+
+-- A player's withdrawal history
+CREATE INDEX IF NOT EXISTS idx_withdrawal_requests_user_created
+    ON withdrawal_requests (user_id, created_at DESC);
+
+-- Unverified OTPs per user (findActiveOtpByUserId / findValidOtpByUserIdAndCode / countActiveOtpsByUserId)
+CREATE INDEX IF NOT EXISTS idx_wotp_user_unverified
+    ON withdrawal_otps (user_id, expires_at DESC)
+    WHERE is_verified = false;
+
+-- Outbox claim: due PENDING rows by priority then age, matching claimBatch's ORDER BY
+CREATE INDEX IF NOT EXISTS idx_email_outbox_pending_claim
+    ON email_outbox (priority DESC, next_attempt_at, id)
+    WHERE status = 'PENDING';
+
+-- Idempotent outbox inserts (ON CONFLICT (dedupe_key) DO NOTHING); rows without a key never conflict
+CREATE UNIQUE INDEX IF NOT EXISTS uq_email_outbox_dedupe_key
+    ON email_outbox (dedupe_key);
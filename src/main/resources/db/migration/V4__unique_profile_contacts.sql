@@ -0,0 +1,35 @@
+-- One account per email and per phone number. Signup already checks both, but the check raced and profile
+-- completion never checked the phone, so older databases can hold duplicates. Which account keeps a shared
+-- contact is for support to decide, so this migration changes no profile: if duplicates exist it stops and
+-- lists the accounts involved. Change the contact on all but one account of each group, then run it again.
+DO $$
+DECLARE
+    conflicts TEXT;
+BEGIN
+    SELECT string_agg(format('%s shared by users %s', contact_column, user_ids), E'\n'
+                      ORDER BY contact_column, user_ids)
+    INTO conflicts
+    FROM (SELECT 'user_email' AS contact_column, string_agg(user_id::text, ', ' ORDER BY user_id) AS user_ids
+          FROM "Profiles"
+          WHERE user_email IS NOT NULL
+          GROUP BY user_email
+          HAVING COUNT(*) > 1
+          UNION ALL
+          SELECT 'user_phone', string_agg(user_id::text, ', ' ORDER BY user_id)
+          FROM "Profiles"
+          WHERE user_phone IS NOT NULL
+          GROUP BY user_phone
+          HAVING COUNT(*) > 1) dup;
+    IF conflicts IS NOT NULL THEN
+        RAISE EXCEPTION 'Accounts share a contact that must be unique:%', E'\n' || conflicts
+            USING HINT = 'Change the contact on all but one account of each group, then run the migration again.';
+    END IF;
+END $$;
+
+-- The unique indexes serve the login and signup lookups too, so the plain V3 ones go
+CREATE UNIQUE INDEX IF NOT EXISTS uq_profiles_user_email
+    ON "Profiles" (user_email);
+CREATE UNIQUE INDEX IF NOT EXISTS uq_profiles_user_phone
+    ON "Profiles" (user_phone);
+DROP INDEX IF EXISTS idx_profiles_user_email;
+DROP INDEX IF EXISTS idx_profiles_user_phone;
@@ -0,0 +1,159 @@
+package com.example.demo;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntConsumer;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import com.example.demo.dto.RegistrationRequest;
+import com.example.demo.dto.RegistrationResponse;
+import com.example.demo.entity.Match;
+import com.example.demo.entity.MatchStatus;
+import com.example.demo.entity.MatchType;
+import com.example.demo.entity.Role;
+import com.example.demo.entity.User;
+import com.example.demo.repository.MatchRepository;
+import com.example.demo.repository.UserRepository;
+import com.example.demo.service.RegistrationService;
+import com.example.demo.service.WalletBalanceEngine;
+
+/**
+ * Base for tests that need a real PostgreSQL. The schema comes from the Flyway
+ * migrations, as in production. One container is shared by every subclass,
+ * and the tests are skipped when Docker is not available. SqlStatementCounter
+ * is installed so tests can count the statements they issue.
+ */
+@SpringBootTest(properties = {
+        "DB_USER=test",
+        "DB_PASSWORD=test",
+        "EMAIL_USERNAME=test",
+        "EMAIL_PASSWORD=test",
+        "app.jwt.secret=integration-test-secret-0123456789abcdef",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.example.demo.SqlStatementCounter"
+})
+@Testcontainers(disabledWithoutDocker = true)
+public abstract class PostgresIntegrationTest {
+
+    @ServiceConnection
+    protected static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    static {
+        POSTGRES.start();
+    }
+
+    @Autowired
+    protected UserRepository userRepository;
+
+    @Autowired
+    protected MatchRepository matchRepository;
+
+    @Autowired
+    protected WalletBalanceEngine walletBalanceEngine;
+
+    @Autowired
+    protected RegistrationService registrationService;
+
+    protected Long newUser() {
+        return userRepository.save(User.builder()
+                .name("player")
+                .email("player-" + UUID.randomUUID() + "@example.com")
+                .role(Role.USER)
+                .build()).getId();
+    }
+
+    protected Long fundedUser(BigDecimal balance) {
+        Long userId = newUser();
+        walletBalanceEngine.credit(userId, balance, "seed", null);
+        return userId;
+    }
+
+    /**
+     * An OPEN match a day out, so registration is not past its cutoff.
+     */
+    protected Match openMatch(MatchType type, int slots, int entryFee) {
+        return matchRepository.save(Match.builder()
+                .title(type + " test match")
+                .game("Free Fire")
+                .matchType(type)
+                .status(MatchStatus.OPEN)
+                .slots(slots)
+                .entryFee(entryFee)
+                .scheduledAt(LocalDateTime.now().plusDays(1))
+                .build());
+    }
+
+    protected RegistrationResponse register(Long userId, Match match) {
+        return registrationService.registerForMatch(userId, registrationRequest(match));
+    }
+
+    /**
+     * A request with the team size the match type requires.
+     */
+    protected static RegistrationRequest registrationRequest(Match match) {
+        int teamSize = switch (match.getMatchType()) {
+            case SOLO -> 1;
+            case DUO -> 2;
+            case SQUAD, CLASH_SQUAD -> 4;
+        };
+        List<RegistrationRequest.PlayerDetails> players = new ArrayList<>(teamSize);
+        for (int i = 0; i < teamSize; i++) {
+            RegistrationRequest.PlayerDetails details = new RegistrationRequest.PlayerDetails();
+            details.setPlayerName("player" + i);
+            details.setGameName("gamer" + i);
+            details.setGameId(String.valueOf(100000 + i));
+            details.setRole(i == 0 ? "LEADER" : "MEMBER");
+            players.add(details);
+        }
+        RegistrationRequest request = new RegistrationRequest();
+        request.setMatchId(match.getId());
+        request.setPlayers(players);
+        request.setPaymentMethod("wallet");
+        return request;
+    }
+
+    /**
+     * Run the task on {@code threads} threads released together, and return
+     * the exceptions that the task threw.
+     */
+    protected static List<Throwable> runConcurrently(int threads, IntConsumer task) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> futures = new ArrayList<>(threads);
+            for (int i = 0; i < threads; i++) {
+                int worker = i;
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    task.accept(worker);
+                    return null;
+                }));
+            }
+            start.countDown();
+            List<Throwable> failures = new ArrayList<>();
+            for (Future<?> future : futures) {
+                try {
+                    future.get(2, TimeUnit.MINUTES);
+                } catch (ExecutionException e) {
+                    failures.add(e.getCause());
+                }
+            }
+            return failures;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
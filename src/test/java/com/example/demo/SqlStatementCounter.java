@@ -0,0 +1,52 @@
+package com.example.demo;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Counts the SQL statements Hibernate prepares on the calling thread, so
+ * tests can assert round trips without picking up background jobs. A JDBC
+ * batch is one prepared statement however many rows it carries. Registered
+ * by PostgresIntegrationTest through hibernate.session_factory.statement_inspector.
+ */
+public class SqlStatementCounter implements StatementInspector {
+
+    private static final ThreadLocal<List<String>> CAPTURED = new ThreadLocal<>();
+
+    /**
+     * Statements prepared on this thread while running the task.
+     */
+    public static int count(Runnable task) {
+        return statements(task).size();
+    }
+
+    /**
+     * The SQL of each statement prepared on this thread while running the
+     * task, in order.
+     */
+    public static List<String> statements(Runnable task) {
+        List<String> outer = CAPTURED.get();
+        List<String> seen = new ArrayList<>();
+        CAPTURED.set(seen);
+        try {
+            task.run();
+        } finally {
+            if (outer != null) {
+                outer.addAll(seen);
+            }
+            CAPTURED.set(outer);
+        }
+        return List.copyOf(seen);
+    }
+
+    @Override
+    public String inspect(String sql) {
+        List<String> seen = CAPTURED.get();
+        if (seen != null) {
+            seen.add(sql);
+        }
+        return sql;
+    }
+}
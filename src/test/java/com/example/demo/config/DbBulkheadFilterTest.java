@@ -0,0 +1,60 @@
+package com.example.demo.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.core.annotation.Order;
+
+import com.example.demo.config.DbBulkhead.Compartment;
+
+class DbBulkheadFilterTest {
+
+    @Test
+    void ungatedTraffic() {
+        assertNull(DbBulkheadFilter.classify("OPTIONS", "/api/wallet/balance"));
+        assertNull(DbBulkheadFilter.classify("GET", "/api/matches/stream"));
+        assertNull(DbBulkheadFilter.classify("GET", "/actuator/prometheus"));
+        assertNull(DbBulkheadFilter.classify("GET", "/"));
+    }
+
+    @Test
+    void adminEndpointsAreAdminWhateverTheMethod() {
+        assertEquals(Compartment.ADMIN, DbBulkheadFilter.classify("GET", "/api/upi/admin/pending"));
+        assertEquals(Compartment.ADMIN, DbBulkheadFilter.classify("POST", "/api/upi/admin/action"));
+        assertEquals(Compartment.ADMIN, DbBulkheadFilter.classify("POST", "/api/withdrawals/admin/approve"));
+        assertEquals(Compartment.ADMIN, DbBulkheadFilter.classify("GET", "/api/match-results/7"));
+    }
+
+    @Test
+    void matchReadsArePlayerReadsAndWritesAreAdmin() {
+        assertEquals(Compartment.PLAYER_READS, DbBulkheadFilter.classify("GET", "/api/matches"));
+        assertEquals(Compartment.PLAYER_READS, DbBulkheadFilter.classify("HEAD", "/api/matches/upcoming"));
+        assertEquals(Compartment.ADMIN, DbBulkheadFilter.classify("POST", "/api/matches"));
+        assertEquals(Compartment.ADMIN, DbBulkheadFilter.classify("DELETE", "/api/matches/7"));
+    }
+
+    @Test
+    void moneyAndAccountWritesArePayments() {
+        assertEquals(Compartment.PAYMENTS, DbBulkheadFilter.classify("POST", "/api/wallet/withdraw"));
+        assertEquals(Compartment.PAYMENTS, DbBulkheadFilter.classify("POST", "/api/upi/submit-utr"));
+        assertEquals(Compartment.PAYMENTS, DbBulkheadFilter.classify("POST", "/api/registrations"));
+        assertEquals(Compartment.PAYMENTS, DbBulkheadFilter.classify("PUT", "/api/profile/update"));
+        assertEquals(Compartment.PAYMENTS, DbBulkheadFilter.classify("POST", "/auth/login"));
+        assertEquals(Compartment.PLAYER_READS, DbBulkheadFilter.classify("GET", "/api/wallet/transactions"));
+        assertEquals(Compartment.PLAYER_READS, DbBulkheadFilter.classify("GET", "/api/registrations/my"));
+    }
+
+    @Test
+    void otherApiTrafficIsPlayerReads() {
+        assertEquals(Compartment.PLAYER_READS, DbBulkheadFilter.classify("POST", "/api/something-new"));
+    }
+
+    @Test
+    void runsBeforeTheSecurityFilterChain() {
+        Order order = DbBulkheadFilter.class.getAnnotation(Order.class);
+        assertTrue(order.value() < SecurityProperties.DEFAULT_FILTER_ORDER);
+    }
+}
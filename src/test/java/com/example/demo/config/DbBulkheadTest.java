@@ -0,0 +1,158 @@
+package com.example.demo.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.example.demo.config.DbBulkhead.Compartment;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class DbBulkheadTest {
+
+    private final AtomicInteger open = new AtomicInteger();
+    private final DataSource pool = (DataSource) Proxy.newProxyInstance(DataSource.class.getClassLoader(),
+            new Class<?>[]{DataSource.class}, (p, m, args) -> {
+                if (m.getName().equals("getConnection")) {
+                    open.incrementAndGet();
+                    return rawConnection();
+                }
+                throw new UnsupportedOperationException(m.getName());
+            });
+
+    @AfterEach
+    void tearDown() {
+        DbBulkhead.unbind();
+    }
+
+    @Test
+    void exhaustedCompartmentShedsTheCheckout() throws Exception {
+        DataSource dataSource = bulkhead(1).wrap(pool);
+        DbBulkhead.bind(Compartment.PAYMENTS);
+        try (Connection first = dataSource.getConnection()) {
+            // A second transaction on another thread in the same compartment has to wait
+            onOtherThread(() -> {
+                DbBulkhead.bind(Compartment.PAYMENTS);
+                assertThrows(SQLTransientConnectionException.class, dataSource::getConnection);
+                assertTrue(DbBulkhead.wasShed());
+            });
+        }
+        assertFalse(DbBulkhead.wasShed());
+        try (Connection again = dataSource.getConnection()) {
+            assertEquals(2, open.get());
+        }
+    }
+
+    @Test
+    void nestedCheckoutOnTheSameThreadIsNotGated() throws Exception {
+        DataSource dataSource = bulkhead(1).wrap(pool);
+        DbBulkhead.bind(Compartment.ADMIN);
+        try (Connection outer = dataSource.getConnection(); Connection inner = dataSource.getConnection()) {
+            assertEquals(2, open.get());
+        }
+    }
+
+    @Test
+    void bulkheadTakesOverTheAdmissionGate() throws Exception {
+        VirtualThreadConfig.ConnectionAdmissionDataSource gate
+                = new VirtualThreadConfig.ConnectionAdmissionDataSource(pool, 1, 50);
+        DataSource dataSource = bulkhead(2).wrap(gate);
+
+        DbBulkhead.bind(Compartment.PLAYER_READS);
+        Connection first = dataSource.getConnection();
+        // Only one proxy between the caller and the pooled connection
+        Object handler = Proxy.getInvocationHandler(first);
+        assertTrue(handler.getClass().getName().startsWith(ReleasingConnection.class.getName()));
+        // The compartment has room, but the pool-sized gate does not
+        onOtherThread(() -> {
+            DbBulkhead.bind(Compartment.PLAYER_READS);
+            assertThrows(SQLTransientConnectionException.class, dataSource::getConnection);
+        });
+
+        first.close();
+        first.close();
+        try (Connection second = dataSource.getConnection(); Connection nested = dataSource.getConnection()) {
+            throw new AssertionError("gate admitted more connections than the pool has");
+        } catch (SQLTransientConnectionException expected) {
+            // Nested checkouts skip the compartment but never the pool gate
+        }
+        DbBulkhead.unbind();
+        try (Connection unbound = dataSource.getConnection()) {
+            assertEquals(3, open.get());
+        }
+    }
+
+    @Test
+    void backgroundWorkTakesItsOwnPermitAndRestoresTheCaller() throws Exception {
+        DbBulkhead bulkhead = bulkhead(1);
+        DataSource dataSource = bulkhead.wrap(pool);
+        DbBulkhead.bind(Compartment.PAYMENTS);
+        try (Connection held = dataSource.getConnection()) {
+            bulkhead.runAsBackground(() -> {
+                try (Connection background = dataSource.getConnection()) {
+                    // It holds the only SCHEDULER permit, not a nested free ride on PAYMENTS
+                    onOtherThread(() -> bulkhead.runAsBackground(() ->
+                            assertThrows(SQLTransientConnectionException.class, dataSource::getConnection)));
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+            assertFalse(DbBulkhead.wasShed());
+            // Still bound to PAYMENTS with its permit held, so this nests ungated
+            try (Connection nested = dataSource.getConnection()) {
+                assertEquals(3, open.get());
+            }
+        }
+    }
+
+    @Test
+    void budgetsMustLeaveThePaymentsReservationFree() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        Duration wait = Duration.ofMillis(50);
+        // Pool of 5 with 2 reserved for payments leaves 3 for everything else
+        new DbBulkhead(registry, 5, 2, 1, 1, 1, wait, 50);
+        assertThrows(IllegalStateException.class, () -> new DbBulkhead(registry, 5, 3, 2, 2, 2, wait, 50));
+        assertThrows(IllegalStateException.class, () -> new DbBulkhead(registry, 5, 2, 2, 1, 1, wait, 50));
+        assertThrows(IllegalStateException.class, () -> new DbBulkhead(registry, 5, 2, 0, 1, 1, wait, 50));
+    }
+
+    private static void onOtherThread(Runnable task) throws InterruptedException {
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread thread = Thread.ofPlatform().start(() -> {
+            try {
+                task.run();
+            } catch (Throwable t) {
+                failure.set(t);
+            } finally {
+                DbBulkhead.unbind();
+            }
+        });
+        thread.join();
+        if (failure.get() != null) {
+            throw new AssertionError("failed on other thread", failure.get());
+        }
+    }
+
+    private static DbBulkhead bulkhead(int perCompartment) {
+        return new DbBulkhead(new SimpleMeterRegistry(), 4 * perCompartment,
+                perCompartment, perCompartment, perCompartment, perCompartment, Duration.ofMillis(50), 50);
+    }
+
+    private static Connection rawConnection() {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (p, m, args) -> m.getName().equals("isClosed") ? Boolean.FALSE : null);
+    }
+}
@@ -0,0 +1,218 @@
+package com.example.demo.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.demo.config.ReadReplicaConfig.ReplicaLagMonitor;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Which pool a transaction's statements reach, with the routing DataSource
+ * wired as in ReadReplicaConfig and both pools replaced by stubs that count
+ * the connections handed out.
+ */
+class ReadReplicaConfigTest {
+
+    private final StubDataSource primary = new StubDataSource(0);
+    private final StubDataSource replica = new StubDataSource(0);
+
+    @Test
+    void readOnlyTransactionGoesToTheReplica() {
+        Routed routed = routed(monitor(new StubDataSource(0.2)));
+
+        routed.read();
+
+        assertEquals(1, replica.connections.get());
+        assertEquals(0, primary.connections.get());
+    }
+
+    @Test
+    void writeTransactionStaysOnThePrimary() {
+        Routed routed = routed(monitor(new StubDataSource(0.2)));
+
+        routed.write();
+
+        assertEquals(0, replica.connections.get());
+        assertEquals(1, primary.connections.get());
+    }
+
+    @Test
+    void readFromPrimaryKeepsReadOnlyTransactionsOnThePrimary() {
+        Routed routed = routed(monitor(new StubDataSource(0.2)));
+        AspectJProxyFactory factory = new AspectJProxyFactory(routed);
+        factory.setProxyTargetClass(true);
+        factory.addAspect(new ReadReplicaConfig.PrimaryReadsAspect());
+        Routed pinned = factory.getProxy();
+
+        pinned.readFromPrimary();
+        routed.read();
+
+        assertEquals(1, primary.connections.get());
+        assertEquals(1, replica.connections.get());
+    }
+
+    @Test
+    void laggingReplicaFallsBackToThePrimary() {
+        Routed routed = routed(monitor(new StubDataSource(30)));
+
+        routed.read();
+
+        assertEquals(0, replica.connections.get());
+        assertEquals(1, primary.connections.get());
+    }
+
+    @Test
+    void unreachableReplicaFallsBackToThePrimary() {
+        StubDataSource probe = new StubDataSource(0);
+        ReplicaLagMonitor monitor = monitor(probe);
+        Routed routed = routed(monitor);
+        routed.read();
+
+        probe.down = true;
+        monitor.check();
+        routed.read();
+
+        assertEquals(1, replica.connections.get());
+        assertEquals(1, primary.connections.get());
+    }
+
+    private ReplicaLagMonitor monitor(StubDataSource probe) {
+        ReplicaLagMonitor monitor = new ReplicaLagMonitor(probe, "SELECT lag", Duration.ofSeconds(5),
+                new SimpleMeterRegistry());
+        monitor.check();
+        return monitor;
+    }
+
+    private Routed routed(ReplicaLagMonitor monitor) {
+        DataSource dataSource = new ReadReplicaConfig().dataSource(primary, replica, monitor);
+        // The lazy proxy reads the pool's connection defaults from the first connection it hands out
+        try (Connection warmup = dataSource.getConnection()) {
+            warmup.getAutoCommit();
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+        primary.connections.set(0);
+        replica.connections.set(0);
+        return new Routed(dataSource);
+    }
+
+    /**
+     * Runs one statement in a read-only or read-write transaction; proxied
+     * by class in the test that applies the aspect.
+     */
+    static class Routed {
+
+        private final JdbcTemplate jdbcTemplate;
+        private final TransactionTemplate readOnly;
+        private final TransactionTemplate readWrite;
+
+        Routed(DataSource dataSource) {
+            DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+            this.jdbcTemplate = new JdbcTemplate(dataSource);
+            this.readOnly = new TransactionTemplate(transactionManager);
+            this.readOnly.setReadOnly(true);
+            this.readWrite = new TransactionTemplate(transactionManager);
+        }
+
+        // CGLIB needs a no-arg constructor; the proxy delegates to the real instance
+        Routed() {
+            this.jdbcTemplate = null;
+            this.readOnly = null;
+            this.readWrite = null;
+        }
+
+        public void read() {
+            readOnly.executeWithoutResult(status -> jdbcTemplate.queryForObject("SELECT 1", Number.class));
+        }
+
+        public void write() {
+            readWrite.executeWithoutResult(status -> jdbcTemplate.queryForObject("SELECT 1", Number.class));
+        }
+
+        @ReadFromPrimary
+        public void readFromPrimary() {
+            read();
+        }
+    }
+
+    /**
+     * Hands out connections whose every query returns {@code value}, and
+     * counts them; refuses connections while {@code down}.
+     */
+    private static final class StubDataSource extends AbstractDataSource {
+
+        private final double value;
+        private final AtomicInteger connections = new AtomicInteger();
+        private volatile boolean down;
+
+        StubDataSource(double value) {
+            this.value = value;
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            if (down) {
+                throw new SQLException("Connection refused");
+            }
+            connections.incrementAndGet();
+            ResultSetMetaData metaData = stub(ResultSetMetaData.class, (name, args) ->
+                    name.equals("getColumnCount") ? 1 : null);
+            AtomicInteger rows = new AtomicInteger();
+            ResultSet resultSet = stub(ResultSet.class, (name, args) -> switch (name) {
+                case "next" -> rows.getAndIncrement() == 0;
+                case "getMetaData" -> metaData;
+                case "getObject", "getDouble" -> value;
+                default -> null;
+            });
+            Statement statement = stub(Statement.class, (name, args) ->
+                    name.equals("executeQuery") ? resultSet : null);
+            return stub(Connection.class, (name, args) -> switch (name) {
+                case "getAutoCommit" -> true;
+                case "getTransactionIsolation" -> Connection.TRANSACTION_READ_COMMITTED;
+                case "createStatement" -> statement;
+                default -> null;
+            });
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return getConnection();
+        }
+    }
+
+    private interface Answer {
+
+        Object answer(String method, Object[] args);
+    }
+
+    // Interface double: the answer's value, or the type's default for primitives it leaves null
+    @SuppressWarnings("unchecked")
+    private static <T> T stub(Class<T> type, Answer answer) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (p, m, args) -> {
+            Object result = answer.answer(m.getName(), args);
+            if (result != null || !m.getReturnType().isPrimitive() || m.getReturnType() == void.class) {
+                return result;
+            }
+            return Array.get(Array.newInstance(m.getReturnType(), 1), 0);
+        });
+    }
+}
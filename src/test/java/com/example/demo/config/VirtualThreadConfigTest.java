@@ -0,0 +1,99 @@
+package com.example.demo.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Connection;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.test.context.TestPropertySource;
+
+import com.example.demo.PostgresIntegrationTest;
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Virtual-thread mode: @Async and scheduler work runs on virtual threads,
+ * and connection demand beyond the Hikari pool waits at the admission gate
+ * instead of inside Hikari.
+ */
+@TestPropertySource(properties = "spring.threads.virtual.enabled=true")
+class VirtualThreadConfigTest extends PostgresIntegrationTest {
+
+    @Autowired
+    @Qualifier("taskExecutor")
+    private Executor taskExecutor;
+
+    @Autowired
+    private TaskScheduler taskScheduler;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Test
+    void executorsRunOnVirtualThreads() throws Exception {
+        CompletableFuture<Boolean> async = new CompletableFuture<>();
+        taskExecutor.execute(() -> async.complete(Thread.currentThread().isVirtual()));
+        CompletableFuture<Boolean> scheduled = new CompletableFuture<>();
+        taskScheduler.schedule(() -> scheduled.complete(Thread.currentThread().isVirtual()), Instant.now());
+
+        assertTrue(async.get(10, TimeUnit.SECONDS), "@Async task ran on a platform thread");
+        assertTrue(scheduled.get(10, TimeUnit.SECONDS), "scheduled task ran on a platform thread");
+    }
+
+    @Test
+    void demandBeyondThePoolWaitsAtTheGate() throws Exception {
+        HikariDataSource hikari = dataSource.unwrap(HikariDataSource.class);
+        int poolSize = hikari.getMaximumPoolSize();
+        int workers = poolSize + 3;
+        AtomicInteger holding = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        List<Throwable> failures = new ArrayList<>();
+        for (int i = 0; i < workers; i++) {
+            threads.add(Thread.ofVirtual().start(() -> {
+                try (Connection connection = dataSource.getConnection()) {
+                    holding.incrementAndGet();
+                    release.await();
+                    connection.isValid(1);
+                } catch (Exception e) {
+                    synchronized (failures) {
+                        failures.add(e);
+                    }
+                }
+            }));
+        }
+        try {
+            // Settled once every worker either holds a connection or is parked waiting for one
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (threads.stream().anyMatch(t -> t.getState() == Thread.State.RUNNABLE)
+                    || holding.get() == 0) {
+                assertTrue(System.nanoTime() < deadline, "workers never settled");
+                Thread.sleep(10);
+            }
+            assertTrue(holding.get() <= poolSize, holding.get() + " connections out of a pool of " + poolSize);
+            assertTrue(holding.get() < workers, "nobody had to wait");
+            assertEquals(0, hikari.getHikariPoolMXBean().getThreadsAwaitingConnection());
+        } finally {
+            release.countDown();
+        }
+        for (Thread thread : threads) {
+            thread.join(TimeUnit.SECONDS.toMillis(30));
+        }
+
+        assertEquals(workers, holding.get());
+        assertEquals(List.of(), failures);
+    }
+}
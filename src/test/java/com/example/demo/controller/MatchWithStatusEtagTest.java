@@ -0,0 +1,75 @@
+package com.example.demo.controller;
+
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.math.BigDecimal;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.example.demo.PostgresIntegrationTest;
+import com.example.demo.entity.Match;
+import com.example.demo.entity.MatchType;
+import com.example.demo.service.JwtService;
+
+/**
+ * The per-user match list answers unchanged polls with 304 and gets a new
+ * tag once the user's registrations change.
+ */
+@AutoConfigureMockMvc
+class MatchWithStatusEtagTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Test
+    void unchangedViewIsNotModified() throws Exception {
+        Long userId = fundedUser(new BigDecimal("100.00"));
+        openMatch(MatchType.SOLO, 10, 20);
+        String token = token(userId);
+
+        String etag = fetch(token);
+
+        mockMvc.perform(get("/api/matches/with-status")
+                        .header("Authorization", "Bearer " + token)
+                        .header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void registeringChangesTheTag() throws Exception {
+        Long userId = fundedUser(new BigDecimal("100.00"));
+        Match match = openMatch(MatchType.SOLO, 10, 20);
+        String token = token(userId);
+        String before = fetch(token);
+
+        register(userId, match);
+
+        String after = mockMvc.perform(get("/api/matches/with-status")
+                        .header("Authorization", "Bearer " + token)
+                        .header("If-None-Match", before))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andReturn().getResponse().getHeader("ETag");
+        assertNotEquals(before, after);
+    }
+
+    private String fetch(String token) throws Exception {
+        return mockMvc.perform(get("/api/matches/with-status").header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andReturn().getResponse().getHeader("ETag");
+    }
+
+    private String token(Long userId) {
+        return jwtService.generateToken(userRepository.findById(userId).orElseThrow().getEmail());
+    }
+}
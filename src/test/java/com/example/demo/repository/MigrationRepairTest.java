@@ -0,0 +1,117 @@
+package com.example.demo.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.demo.PostgresIntegrationTest;
+import com.example.demo.entity.Match;
+import com.example.demo.entity.MatchType;
+
+/**
+ * The data repairs in the migrations, replayed inside a rolled-back
+ * transaction on data the unique indexes would normally refuse: V3 moves
+ * double-booked slots within capacity, and V3 and V4 stop with a list
+ * instead of guessing when the data cannot be repaired safely.
+ */
+class MigrationRepairTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void doubleBookedSlotsMoveToFreeSlotsWithinCapacity() {
+        Match match = openMatch(MatchType.SOLO, 3, 0);
+        Long first = newUser();
+        Long second = newUser();
+        Long third = newUser();
+
+        List<Integer> slots = rolledBack(jdbc -> {
+            jdbc.execute("DROP INDEX uq_registrations_match_slot_confirmed");
+            confirmed(jdbc, first, match, 1);
+            confirmed(jdbc, second, match, 1);
+            confirmed(jdbc, third, match, 1);
+
+            jdbc.execute(migration("V3__hot_query_indexes.sql"));
+        }, jdbc -> jdbc.queryForList("SELECT slot_number FROM registrations WHERE match_id = ? ORDER BY id",
+                Integer.class, match.getId()));
+
+        assertEquals(List.of(1, 2, 3), slots);
+    }
+
+    @Test
+    void overbookedDoubleBookingStopsTheMigration() {
+        Match match = openMatch(MatchType.SOLO, 2, 0);
+        Long first = newUser();
+        Long second = newUser();
+        Long third = newUser();
+
+        DataAccessException failure = assertThrows(DataAccessException.class, () -> rolledBack(jdbc -> {
+            jdbc.execute("DROP INDEX uq_registrations_match_slot_confirmed");
+            confirmed(jdbc, first, match, 1);
+            confirmed(jdbc, second, match, 1);
+            confirmed(jdbc, third, match, 2);
+
+            jdbc.execute(migration("V3__hot_query_indexes.sql"));
+        }, jdbc -> null));
+
+        assertTrue(failure.getMessage().contains("match " + match.getId() + ": 3 confirmed registrations for 2 slots"),
+                failure.getMessage());
+    }
+
+    @Test
+    void sharedContactsStopTheMigration() {
+        Long first = newUser();
+        Long second = newUser();
+        String phone = String.valueOf(System.nanoTime());
+
+        DataAccessException failure = assertThrows(DataAccessException.class, () -> rolledBack(jdbc -> {
+            jdbc.execute("DROP INDEX uq_profiles_user_phone");
+            jdbc.update("UPDATE \"Profiles\" SET user_phone = ? WHERE user_id IN (?, ?)", phone, first, second);
+
+            jdbc.execute(migration("V4__unique_profile_contacts.sql"));
+        }, jdbc -> null));
+
+        assertTrue(failure.getMessage().contains("user_phone shared by users " + first + ", " + second),
+                failure.getMessage());
+    }
+
+    private <T> T rolledBack(Consumer<JdbcTemplate> setup, Function<JdbcTemplate, T> result) {
+        return transactionTemplate.execute(status -> {
+            status.setRollbackOnly();
+            setup.accept(jdbcTemplate);
+            return result.apply(jdbcTemplate);
+        });
+    }
+
+    private static void confirmed(JdbcTemplate jdbc, Long userId, Match match, int slot) {
+        jdbc.update("INSERT INTO registrations (user_id, match_id, status, slot_number, amount_paid, payment_status,"
+                + " registered_at, updated_at) VALUES (?, ?, 'CONFIRMED', ?, 0, 'COMPLETED', now(), now())",
+                userId, match.getId(), slot);
+    }
+
+    private static String migration(String name) {
+        try {
+            return new ClassPathResource("db/migration/" + name).getContentAsString(StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.example.demo.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.demo.PostgresIntegrationTest;
+import com.example.demo.SqlStatementCounter;
+import com.example.demo.entity.MatchStatus;
+import com.example.demo.entity.RegistrationStatus;
+import com.example.demo.entity.Role;
+import com.example.demo.entity.UpiPaymentStatus;
+import com.example.demo.entity.User;
+
+/**
+ * The hot repository queries are served by the migration indexes. Each test
+ * captures the SQL Hibernate generates for a repository call and asks
+ * PostgreSQL for its generic plan with sequential scans disabled: a plan that
+ * still scans the table means no index fits the query. Test tables are tiny,
+ * so without that the planner would rightly prefer a scan anyway.
+ * <p>
+ * Queries served by partial indexes (pending withdrawals, submitted UPI
+ * payments, active OTPs) bind their status as a parameter, which a generic
+ * plan cannot match against the index predicate, so they are not covered.
+ */
+class QueryPlanIndexTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private RegistrationRepository registrationRepository;
+
+    @Autowired
+    private MatchResultRepository matchResultRepository;
+
+    @Autowired
+    private WalletTransactionRepository walletTransactionRepository;
+
+    @Autowired
+    private WithdrawalRequestRepository withdrawalRequestRepository;
+
+    @Autowired
+    private UpiPaymentRepository upiPaymentRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void loginAndSignupLookupsUseTheUniqueContactIndexes() {
+        assertUsesIndex("uq_profiles_user_email", () -> userRepository.findByEmail("nobody@example.com"));
+        assertUsesIndex("uq_profiles_user_phone", () -> userRepository.findByPhonenumber("0000000000"));
+    }
+
+    @Test
+    void emailAndPhoneAreUnique() {
+        String email = "unique-" + UUID.randomUUID() + "@example.com";
+        String phone = String.valueOf(System.nanoTime());
+        userRepository.save(user(email, phone));
+
+        assertThrows(DataIntegrityViolationException.class,
+                () -> userRepository.saveAndFlush(user(email, null)));
+        assertThrows(DataIntegrityViolationException.class,
+                () -> userRepository.saveAndFlush(user("other-" + email, phone)));
+    }
+
+    @Test
+    void registrationLookupsUseIndexes() {
+        assertUsesIndex("idx_registrations_user_match_status", () -> registrationRepository.findByUserIdAndMatchId(-1L, -1L));
+        assertUsesIndex(() -> registrationRepository.findByMatchIdAndStatus(-1L, RegistrationStatus.CONFIRMED));
+        assertUsesIndex(() -> registrationRepository.findByUserId(-1L));
+    }
+
+    @Test
+    void resultLookupsUseIndexes() {
+        assertUsesIndex("idx_match_results_match_position", () -> matchResultRepository.findByMatchIdOrderByPositionAsc(-1L));
+        assertUsesIndex("idx_match_results_registration", () -> matchResultRepository.findByRegistrationId(-1L));
+        assertUsesIndex("idx_match_results_user_created", () -> matchResultRepository.findByUserIdOrderByCreatedAtDesc(-1L));
+    }
+
+    @Test
+    void walletHistoryPagesUseTheKeysetIndexes() {
+        assertUsesIndex("idx_wallet_tx_wallet_created_id",
+                () -> walletTransactionRepository.findFirstPage(-1L, PageRequest.of(0, 20)));
+        assertUsesIndex("idx_wallet_tx_wallet_created_id",
+                () -> walletTransactionRepository.findPageBefore(-1L, LocalDateTime.now(), Long.MAX_VALUE, PageRequest.of(0, 20)));
+    }
+
+    @Test
+    void matchAndPaymentHistoryLookupsUseIndexes() {
+        LocalDateTime now = LocalDateTime.now();
+        assertUsesIndex("idx_matches_status_scheduled_at",
+                () -> matchRepository.findByStatusAndScheduledAtBetween(MatchStatus.OPEN, now, now.plusHours(1)));
+        assertUsesIndex("idx_withdrawal_requests_user_created",
+                () -> withdrawalRequestRepository.findByUserIdOrderByCreatedAtDesc(-1L));
+        assertUsesIndex("idx_upi_payments_user_created",
+                () -> upiPaymentRepository.findByUserIdAndStatusNotOrderByCreatedAtDesc(-1L, UpiPaymentStatus.REJECTED));
+    }
+
+    private void assertUsesIndex(Runnable query) {
+        assertUsesIndex(null, query);
+    }
+
+    private void assertUsesIndex(String index, Runnable query) {
+        // The ids match no rows, so the call prepares only its own select and no follow-up loads
+        List<String> statements = SqlStatementCounter.statements(query);
+        assertEquals(1, statements.size(), () -> "expected one statement: " + statements);
+        String plan = genericPlan(statements.get(0));
+        assertFalse(plan.contains("Seq Scan"), "sequential scan in\n" + plan);
+        assertTrue(plan.contains("Index"), "no index in\n" + plan);
+        if (index != null) {
+            assertTrue(plan.contains(index), index + " not used in\n" + plan);
+        }
+    }
+
+    private String genericPlan(String sql) {
+        StringBuilder numbered = new StringBuilder(sql.length() + 16);
+        int parameter = 0;
+        for (int i = 0; i < sql.length(); i++) {
+            char c = sql.charAt(i);
+            if (c == '?') {
+                numbered.append('$').append(++parameter);
+            } else {
+                numbered.append(c);
+            }
+        }
+        return transactionTemplate.execute(status -> {
+            status.setRollbackOnly();
+            jdbcTemplate.execute("SET LOCAL enable_seqscan = off");
+            return String.join("\n", jdbcTemplate.queryForList("EXPLAIN (GENERIC_PLAN) " + numbered, String.class));
+        });
+    }
+
+    private static User user(String email, String phone) {
+        return User.builder()
+                .name("player")
+                .email(email)
+                .phonenumber(phone)
+                .role(Role.USER)
+                .build();
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.demo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.demo.entity.MatchType;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class BusinessMetricsTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final BusinessMetrics metrics = new BusinessMetrics(registry);
+
+    @Test
+    void timeRecordsElapsedSinceStartUnderItsTags() {
+        long started = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(5);
+
+        metrics.time("registration.attempts", started, "match_type", "solo", "outcome", "full");
+        metrics.time("registration.attempts", started, "match_type", "solo", "outcome", "full");
+        metrics.time("registration.attempts", started, "match_type", "solo", "outcome", "success");
+
+        Timer full = registry.get("registration.attempts").tags("match_type", "solo", "outcome", "full").timer();
+        assertEquals(2, full.count());
+        assertTrue(full.max(TimeUnit.MILLISECONDS) >= 5);
+        assertEquals(1, registry.get("registration.attempts").tag("outcome", "success").timer().count());
+    }
+
+    @Test
+    void amountsAreRecordedInRupeesAndNullIsSkipped() {
+        metrics.amount("registration.entry.fee", new BigDecimal("49.50"), "match_type", "squad");
+        metrics.amount("registration.entry.fee", null, "match_type", "duo");
+
+        DistributionSummary fee = registry.get("registration.entry.fee").tag("match_type", "squad").summary();
+        assertEquals(1, fee.count());
+        assertEquals(49.5, fee.totalAmount());
+        assertEquals("inr", fee.getId().getBaseUnit());
+        assertNull(registry.find("registration.entry.fee").tag("match_type", "duo").summary());
+    }
+
+    @Test
+    void countsIncrementByOneOrByAmount() {
+        metrics.count("auth.jwt", "outcome", "expired");
+        metrics.count("auth.jwt", "outcome", "expired");
+        metrics.count("prizes.credited", 3, "match_type", "solo");
+
+        assertEquals(2.0, registry.get("auth.jwt").tag("outcome", "expired").counter().count());
+        assertEquals(3.0, registry.get("prizes.credited").counter().count());
+    }
+
+    @Test
+    void enumTagsAreLowerCaseAndNullIsUnknown() {
+        assertEquals("clash_squad", BusinessMetrics.tag(MatchType.CLASH_SQUAD));
+        assertEquals(BusinessMetrics.UNKNOWN, BusinessMetrics.tag(null));
+    }
+}
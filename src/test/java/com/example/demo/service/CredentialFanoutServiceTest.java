@@ -0,0 +1,74 @@
+package com.example.demo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.example.demo.PostgresIntegrationTest;
+import com.example.demo.dto.CredentialDeliveryResponse;
+import com.example.demo.dto.RegistrationResponse;
+import com.example.demo.entity.Match;
+import com.example.demo.entity.MatchType;
+
+/**
+ * Credential fan-out queues one mail per confirmed registration, however
+ * often it is pressed, and reports delivery per registration.
+ */
+class CredentialFanoutServiceTest extends PostgresIntegrationTest {
+
+    private static final BigDecimal FUNDS = new BigDecimal("50.00");
+
+    @Autowired
+    private CredentialFanoutService credentialFanoutService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void sendingTwiceQueuesOneMailPerConfirmedRegistration() {
+        Match match = openMatch(MatchType.SOLO, 10, 10);
+        RegistrationResponse first = register(fundedUser(FUNDS), match);
+        RegistrationResponse second = register(fundedUser(FUNDS), match);
+        RegistrationResponse cancelled = register(fundedUser(FUNDS), match);
+        jdbcTemplate.update("UPDATE registrations SET status = 'CANCELLED' WHERE id = ?", cancelled.getId());
+        setRoom(match, "ROOM1");
+
+        assertEquals(2, credentialFanoutService.sendCredentials(match.getId()));
+        assertEquals(0, credentialFanoutService.sendCredentials(match.getId()));
+
+        List<String> keys = jdbcTemplate.queryForList("SELECT dedupe_key FROM email_outbox WHERE topic = ? ORDER BY id",
+                String.class, "MATCH_CREDENTIALS:" + match.getId());
+        assertEquals(2, keys.size());
+        assertEquals(List.of(first.getId(), second.getId()), keys.stream()
+                .map(key -> Long.valueOf(key.split("_")[2]))
+                .toList());
+    }
+
+    @Test
+    void deliveryStatusFollowsTheRegistrationNotTheAddress() {
+        Match match = openMatch(MatchType.SOLO, 10, 10);
+        Long userId = fundedUser(FUNDS);
+        RegistrationResponse registration = register(userId, match);
+        setRoom(match, "ROOM2");
+        credentialFanoutService.sendCredentials(match.getId());
+
+        // The player changes their address after the mail was queued
+        jdbcTemplate.update("UPDATE \"Profiles\" SET user_email = ? WHERE user_id = ?",
+                "moved-" + userId + "@example.com", userId);
+
+        List<CredentialDeliveryResponse> status = credentialFanoutService.deliveryStatus(match.getId());
+        assertEquals(1, status.size());
+        assertEquals(registration.getId(), status.get(0).getRegistrationId());
+        assertNotEquals("NOT_QUEUED", status.get(0).getStatus());
+    }
+
+    private void setRoom(Match match, String roomId) {
+        jdbcTemplate.update("UPDATE matches SET room_id = ?, room_password = 'secret' WHERE id = ?", roomId, match.getId());
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.demo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+
+import com.example.demo.PostgresIntegrationTest;
+import com.example.demo.entity.EmailOutbox;
+import com.example.demo.entity.EmailOutboxStatus;
+import com.example.demo.repository.EmailOutboxRepository;
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+
+import jakarta.mail.Address;
+import jakarta.mail.internet.MimeMessage;
+
+/**
+ * The outbox end to end against an in-process SMTP server: queued mail is
+ * delivered exactly once per recipient, the poll picks up rows nobody woke it
+ * for, and an SMTP outage is retried rather than lost. The scheduled poll is
+ * pushed out of the way so each test drives delivery itself.
+ */
+@TestPropertySource(properties = {
+        "spring.mail.host=localhost",
+        "spring.mail.port=3025",
+        "spring.mail.properties.mail.smtp.auth=false",
+        "spring.mail.properties.mail.smtp.ssl.enable=false",
+        "app.mail.outbox.poll-interval-ms=3600000",
+        "app.mail.outbox.initial-backoff=1s"
+})
+class EmailOutboxDispatcherTest extends PostgresIntegrationTest {
+
+    @RegisterExtension
+    static final GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    @Autowired
+    private EmailService emailService;
+
+    @Autowired
+    private EmailOutboxDispatcher dispatcher;
+
+    @Autowired
+    private EmailOutboxRepository outboxRepository;
+
+    @Test
+    void burstIsDeliveredOncePerRecipient() throws Exception {
+        String run = UUID.randomUUID().toString();
+        int mails = 45;
+        for (int i = 0; i < mails; i++) {
+            emailService.sendWithdrawalOtp(recipient(run, i), String.valueOf(100000 + i), "player" + i, "50");
+        }
+
+        assertTrue(greenMail.waitForIncomingEmail(30_000, mails));
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (receivedBy(run).size() < mails && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+        }
+        Map<String, Integer> received = receivedBy(run);
+        assertEquals(mails, received.size());
+        assertTrue(received.values().stream().allMatch(n -> n == 1), () -> "duplicate delivery: " + received);
+    }
+
+    @Test
+    void pollDeliversMailThatNobodyWokeItFor() throws Exception {
+        String run = UUID.randomUUID().toString();
+        Long id = outboxRepository.save(mail(recipient(run, 0))).getId();
+
+        dispatcher.poll();
+
+        assertTrue(greenMail.waitForIncomingEmail(30_000, 1));
+        awaitStatus(id, EmailOutboxStatus.SENT);
+        assertEquals(Map.of(recipient(run, 0), 1), receivedBy(run));
+    }
+
+    @Test
+    void smtpOutageIsRetriedNotLost() throws Exception {
+        String run = UUID.randomUUID().toString();
+        greenMail.stop();
+        Long id = outboxRepository.save(mail(recipient(run, 0))).getId();
+        LocalDateTime beforeDrain = LocalDateTime.now();
+
+        dispatcher.drain();
+
+        EmailOutbox failed = outboxRepository.findById(id).orElseThrow();
+        assertEquals(EmailOutboxStatus.PENDING, failed.getStatus());
+        assertEquals(1, failed.getAttempts());
+        assertNotNull(failed.getLastError());
+        assertTrue(failed.getNextAttemptAt().isAfter(beforeDrain));
+
+        greenMail.start();
+        failed.setNextAttemptAt(LocalDateTime.now().minusSeconds(1));
+        outboxRepository.save(failed);
+        dispatcher.drain();
+
+        assertTrue(greenMail.waitForIncomingEmail(30_000, 1));
+        awaitStatus(id, EmailOutboxStatus.SENT);
+        assertEquals(2, outboxRepository.findById(id).orElseThrow().getAttempts());
+    }
+
+    private void awaitStatus(Long id, EmailOutboxStatus status) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (outboxRepository.findById(id).orElseThrow().getStatus() != status && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+        }
+        assertEquals(status, outboxRepository.findById(id).orElseThrow().getStatus());
+    }
+
+    // Recipients of this run only; other tests share the database and may queue mail too
+    private static Map<String, Integer> receivedBy(String run) throws Exception {
+        Map<String, Integer> counts = new HashMap<>();
+        for (MimeMessage message : greenMail.getReceivedMessages()) {
+            for (Address address : message.getAllRecipients()) {
+                if (address.toString().contains(run)) {
+                    counts.merge(address.toString(), 1, Integer::sum);
+                }
+            }
+        }
+        return counts;
+    }
+
+    private static String recipient(String run, int i) {
+        return "player" + i + "-" + run + "@example.com";
+    }
+
+    private static EmailOutbox mail(String recipient) {
+        return EmailOutbox.builder()
+                .recipients(recipient)
+                .subject("Outbox test")
+                .htmlBody("<p>hello</p>")
+                .build();
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.demo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+
+class EmailTemplateTest {
+
+    @Test
+    void valuesAreEscapedAndTripleBracesAreNot() {
+        EmailTemplate template = EmailTemplate.parse("t", "<p>{{name}}</p><div>{{{rows}}}</div>");
+
+        String html = template.model()
+                .with("name", "<b>Tom & \"Jerry\"</b> o'neil")
+                .with("rows", "<tr><td>1</td></tr>")
+                .render();
+
+        assertEquals("<p>&lt;b&gt;Tom &amp; &quot;Jerry&quot;&lt;/b&gt; o&#39;neil</p>"
+                + "<div><tr><td>1</td></tr></div>", html);
+    }
+
+    @Test
+    void escapeHandlesNullAndPlainText() {
+        assertEquals("", EmailTemplate.escape(null));
+        assertEquals("plain text 123", EmailTemplate.escape("plain text 123"));
+        assertEquals("&amp;amp;", EmailTemplate.escape("&amp;"));
+    }
+
+    @Test
+    void sectionsRenderOnlyForNonBlankValues() {
+        EmailTemplate template = EmailTemplate.parse("t", "a{{#logo}}<img src='cid:{{logo}}'/>{{/logo}}b");
+
+        assertEquals("a<img src='cid:logo.png'/>b", template.model().with("logo", "logo.png").render());
+        assertEquals("ab", template.model().with("logo", "  ").render());
+        assertEquals("ab", template.model().render());
+    }
+
+    @Test
+    void nestedSectionsAndRepeatedNamesShareOneSlot() {
+        EmailTemplate template = EmailTemplate.parse("t",
+                "{{ name }}{{#a}}[{{#b}}{{name}}{{/b}}]{{/a}}");
+
+        assertEquals("x[x]", template.model().with("name", "x").with("a", 1).with("b", true).render());
+        assertEquals("x[]", template.model().with("name", "x").with("a", 1).render());
+        assertEquals("x", template.model().with("name", "x").with("b", true).render());
+    }
+
+    @Test
+    void unsetValuesRenderEmptyAndModelsAreIndependent() {
+        EmailTemplate template = EmailTemplate.parse("t", "Hi {{name}}!");
+
+        EmailTemplate.Model first = template.model().with("name", "one");
+        EmailTemplate.Model second = template.model();
+
+        assertEquals("Hi one!", first.render());
+        assertEquals("Hi !", second.render());
+        assertEquals("no markup at all", EmailTemplate.parse("t", "no markup at all").model().render());
+    }
+
+    @Test
+    void malformedMarkupFailsAtParse() {
+        assertThrows(IllegalStateException.class, () -> EmailTemplate.parse("t", "Hi {{name"));
+        assertThrows(IllegalStateException.class, () -> EmailTemplate.parse("t", "{{#a}}open"));
+        assertThrows(IllegalStateException.class, () -> EmailTemplate.parse("t", "{{#a}}x{{/b}}"));
+        assertThrows(IllegalStateException.class, () -> EmailTemplate.parse("t", "x{{/a}}"));
+    }
+
+    @Test
+    void unknownPlaceholderIsRejected() {
+        EmailTemplate template = EmailTemplate.parse("support-request", "{{message}}");
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> template.model().with("mesage", "typo"));
+        assertTrue(e.getMessage().contains("support-request"));
+    }
+
+    @Test
+    void shippedTemplatesParseAndEscapeUserInput() throws Exception {
+        EmailTemplates templates = new EmailTemplates(new PathMatchingResourcePatternResolver(), "");
+
+        String html = templates.get("withdrawal-otp")
+                .with("name", "<script>alert(1)</script>")
+                .with("amount", "50")
+                .with("otp", "123456")
+                .render();
+
+        assertTrue(html.contains("Dear &lt;script&gt;alert(1)&lt;/script&gt;,"));
+        assertTrue(html.contains(">123456<"));
+        // No logo configured, so the image section is dropped
+        assertFalse(html.contains("cid:"));
+        assertNull(templates.logo());
+        assertThrows(IllegalStateException.class, () -> templates.get("missing"));
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.demo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.demo.service.WalletService.HistoryCursor;
+
+class HistoryCursorTest {
+
+    @Test
+    void roundTripsMicrosecondTimestamps() {
+        HistoryCursor cursor = new HistoryCursor(LocalDateTime.of(2025, 3, 14, 9, 26, 53, 589_793_000), 238_462L);
+
+        assertEquals(cursor, HistoryCursor.decode(cursor.encode()));
+    }
+
+    @Test
+    void roundTripsWholeMinuteTimestamps() {
+        // LocalDateTime.toString drops zero seconds ("2025-01-01T00:00")
+        HistoryCursor cursor = new HistoryCursor(LocalDateTime.of(2025, 1, 1, 0, 0), 1L);
+
+        assertEquals(cursor, HistoryCursor.decode(cursor.encode()));
+    }
+
+    @Test
+    void encodedCursorIsUrlSafe() {
+        String encoded = new HistoryCursor(LocalDateTime.of(2025, 12, 31, 23, 59, 59, 999_999_000), Long.MAX_VALUE).encode();
+
+        assertFalse(encoded.matches(".*[+/=].*"), encoded);
+    }
+
+    @Test
+    void rejectsMalformedCursors() {
+        assertThrows(IllegalArgumentException.class, () -> HistoryCursor.decode("not base64!"));
+        assertThrows(IllegalArgumentException.class, () -> HistoryCursor.decode(encode("2025-01-01T00:00")));
+        assertThrows(IllegalArgumentException.class, () -> HistoryCursor.decode(encode("yesterday|5")));
+        assertThrows(IllegalArgumentException.class, () -> HistoryCursor.decode(encode("2025-01-01T00:00|five")));
+    }
+
+    private static String encode(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,215 @@
+package com.example.demo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.demo.config.DbBulkhead;
+import com.example.demo.entity.Match;
+import com.example.demo.entity.MatchStatus;
+import com.example.demo.entity.MatchType;
+import com.example.demo.repository.MatchRepository;
+import com.example.demo.repository.RegistrationRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class MatchCatalogCacheTest {
+
+    private final List<Match> rows = new CopyOnWriteArrayList<>();
+    private final List<Runnable> queued = new ArrayList<>();
+
+    @Test
+    void invalidationDuringALoadStartsAFreshOne() {
+        MatchCatalogCache cache = newCache(queued::add);
+        rows.add(match(1L, "before"));
+        cache.invalidate();
+        assertEquals(1, queued.size());
+
+        // The queued load has not read the table yet, but it was started before this change
+        rows.set(0, match(1L, "after"));
+        cache.invalidate();
+        assertEquals(2, queued.size());
+
+        queued.get(0).run();
+        queued.get(1).run();
+        assertEquals("after", cache.get().all().get(0).getTitle());
+    }
+
+    @Test
+    void lateStaleLoadDoesNotReplaceNewerSnapshot() {
+        MatchCatalogCache cache = newCache(queued::add);
+        rows.add(match(1L, "before"));
+        cache.invalidate();
+        rows.set(0, match(1L, "after"));
+        cache.invalidate();
+
+        queued.get(1).run();
+        // The superseded load reads what it reads, and finishes last
+        rows.set(0, match(1L, "stale"));
+        queued.get(0).run();
+        assertEquals("after", cache.get().all().get(0).getTitle());
+        assertEquals(2, queued.size());
+    }
+
+    @Test
+    void concurrentFirstReadsShareOneLoad() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService loader = Executors.newSingleThreadExecutor();
+        MatchCatalogCache cache = newCache(task -> loader.execute(() -> {
+            loads.incrementAndGet();
+            awaitQuietly(release);
+            task.run();
+        }));
+        rows.add(match(1L, "first"));
+        List<MatchCatalogCache.Snapshot> seen = new CopyOnWriteArrayList<>();
+        List<Thread> readers = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            readers.add(Thread.startVirtualThread(() -> seen.add(cache.get())));
+        }
+        try {
+            // Every reader is parked on the one load before it is allowed to finish
+            while (readers.stream().anyMatch(t -> t.getState() != Thread.State.WAITING)) {
+                Thread.sleep(5);
+            }
+            release.countDown();
+            for (Thread reader : readers) {
+                reader.join();
+            }
+        } finally {
+            loader.shutdownNow();
+        }
+
+        assertEquals(1, loads.get());
+        assertEquals(8, seen.size());
+        assertTrue(seen.stream().allMatch(s -> s == seen.get(0)), "readers got different snapshots");
+    }
+
+    @Test
+    void invalidatedSnapshotIsServedWhileOneReloadRuns() {
+        MatchCatalogCache cache = newCache(queued::add);
+        rows.add(match(1L, "before"));
+        cache.invalidate();
+        queued.remove(0).run();
+        MatchCatalogCache.Snapshot loaded = cache.get();
+
+        rows.set(0, match(1L, "after"));
+        cache.invalidate();
+        assertSame(loaded, cache.get());
+        assertSame(loaded, cache.get());
+        assertEquals(1, queued.size());
+
+        queued.remove(0).run();
+        assertEquals("after", cache.get().all().get(0).getTitle());
+        assertTrue(queued.isEmpty(), "a fresh snapshot should not reload");
+    }
+
+    @Test
+    void snapshotIsReloadedOnceAnUpcomingMatchStarts() {
+        MatchCatalogCache cache = newCache(queued::add);
+        rows.add(match(1L, "later"));
+        cache.invalidate();
+        queued.remove(0).run();
+        cache.get();
+        assertTrue(queued.isEmpty(), "nothing has started yet");
+
+        // Same snapshot, but its first upcoming match started a moment ago
+        MatchCatalogCache.Snapshot loaded = cache.get();
+        MatchCatalogCache.Snapshot started = new MatchCatalogCache.Snapshot(loaded.generation(),
+                loaded.loadedAtNanos(), LocalDateTime.now().minusSeconds(1),
+                loaded.all(), loaded.allJson(), loaded.allEtag(),
+                loaded.upcoming(), loaded.upcomingJson(), loaded.upcomingEtag());
+        ReflectionTestUtils.setField(cache, "current", new AtomicReference<>(started));
+
+        assertSame(started, cache.get());
+        assertEquals(1, queued.size());
+        queued.remove(0).run();
+        assertNotSame(started, cache.get());
+    }
+
+    @Test
+    void callersGetCopiesOfTheCachedMatches() {
+        MatchCatalogCache cache = newCache(Runnable::run);
+        rows.add(match(1L, "original"));
+
+        Match first = cache.get().all().get(0);
+        first.setTitle("changed by caller");
+        cache.get().upcoming().get(0).setRegisteredTeams(99);
+
+        Match again = cache.get().all().get(0);
+        assertNotSame(first, again);
+        assertEquals("original", again.getTitle());
+        assertEquals(0, cache.get().upcoming().get(0).getRegisteredTeams());
+    }
+
+    @Test
+    void saturatedExecutorLoadsOnTheCaller() {
+        MatchCatalogCache cache = newCache(task -> {
+            throw new RejectedExecutionException("full");
+        });
+        rows.add(match(1L, "loaded inline"));
+
+        assertEquals("loaded inline", cache.get().all().get(0).getTitle());
+    }
+
+    private MatchCatalogCache newCache(Executor executor) {
+        MatchRepository matchRepository = proxy(MatchRepository.class, "findAll", () -> new ArrayList<>(rows));
+        RegistrationRepository registrationRepository = proxy(RegistrationRepository.class,
+                "countConfirmedByMatchIds", List::of);
+        DbBulkhead bulkhead = new DbBulkhead(new SimpleMeterRegistry(), 4, 1, 1, 1, 1, Duration.ofMillis(250), 1000);
+        MatchCatalogCache cache = new MatchCatalogCache(matchRepository, registrationRepository,
+                new ObjectMapper().findAndRegisterModules(), executor, bulkhead);
+        ReflectionTestUtils.setField(cache, "refreshAfter", Duration.ofSeconds(30));
+        return cache;
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static Match match(Long id, String title) {
+        return Match.builder()
+                .id(id)
+                .title(title)
+                .matchType(MatchType.SOLO)
+                .status(MatchStatus.OPEN)
+                .slots(48)
+                .scheduledAt(LocalDateTime.now().plusDays(1))
+                .build();
+    }
+
+    // Repository double answering one query method; anything else is a test bug
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, String method, Supplier<Object> answer) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (p, m, args) -> {
+            if (m.getName().equals(method)) {
+                return answer.get();
+            }
+            throw new UnsupportedOperationException(m.getName());
+        });
+    }
+}
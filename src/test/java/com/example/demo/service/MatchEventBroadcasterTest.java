@@ -0,0 +1,187 @@
+package com.example.demo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.example.demo.config.DbBulkhead;
+import com.example.demo.dto.MatchDelta;
+import com.example.demo.entity.Match;
+import com.example.demo.entity.MatchStatus;
+import com.example.demo.repository.MatchRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Fan-out to 5,000 SSE subscribers without a servlet container: emitters
+ * record what they are sent. Prints how long a burst of updates takes to
+ * reach every subscriber.
+ */
+class MatchEventBroadcasterTest {
+
+    private static final int SUBSCRIBERS = 5_000;
+
+    private final AtomicInteger registeredTeams = new AtomicInteger();
+    private final AtomicInteger loads = new AtomicInteger();
+    private MatchEventBroadcaster broadcaster;
+
+    @AfterEach
+    void tearDown() {
+        if (broadcaster != null) {
+            broadcaster.shutdown();
+        }
+    }
+
+    @Test
+    void everySubscriberConvergesOnTheLatestDelta() throws Exception {
+        List<RecordingEmitter> emitters = new ArrayList<>();
+        broadcaster = newBroadcaster(SUBSCRIBERS, emitters, false);
+        for (int i = 0; i < SUBSCRIBERS; i++) {
+            assertNotNull(broadcaster.subscribe());
+        }
+
+        long started = System.nanoTime();
+        int updates = 50;
+        for (int i = 1; i <= updates; i++) {
+            registeredTeams.set(i);
+            broadcaster.publish(7L);
+        }
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        for (RecordingEmitter emitter : emitters) {
+            while (emitter.lastTeams != updates && System.nanoTime() < deadline) {
+                Thread.sleep(1);
+            }
+            assertEquals(updates, emitter.lastTeams, "subscriber never saw the latest delta");
+        }
+        long elapsedMs = (System.nanoTime() - started) / 1_000_000;
+        System.out.printf("%d updates reached %d subscribers in %dms (%d loads)%n",
+                updates, SUBSCRIBERS, elapsedMs, loads.get());
+
+        // Bursts collapse: far fewer loads than updates, and no subscriber gets more events than updates
+        assertTrue(loads.get() <= updates);
+        assertTrue(emitters.stream().allMatch(e -> e.events.get() <= updates));
+    }
+
+    @Test
+    void concurrentSubscribesNeverExceedTheCap() throws Exception {
+        int cap = 1_000;
+        broadcaster = newBroadcaster(cap, new ArrayList<>(), false);
+        AtomicInteger accepted = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(32);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 32; t++) {
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < 100; i++) {
+                        if (broadcaster.subscribe() != null) {
+                            accepted.incrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        assertEquals(cap, accepted.get());
+        assertEquals(cap, broadcaster.subscriberCount());
+        assertNull(broadcaster.subscribe());
+    }
+
+    @Test
+    void failedSendDropsTheSubscriberAndFreesItsPlace() throws Exception {
+        List<RecordingEmitter> emitters = new ArrayList<>();
+        broadcaster = newBroadcaster(1, emitters, true);
+        assertNotNull(broadcaster.subscribe());
+        assertNull(broadcaster.subscribe());
+
+        broadcaster.publish(7L);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (broadcaster.subscriberCount() != 0 && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertEquals(0, broadcaster.subscriberCount());
+        assertNotNull(broadcaster.subscribe());
+    }
+
+    private MatchEventBroadcaster newBroadcaster(int maxSubscribers, List<RecordingEmitter> emitters, boolean failing) {
+        MatchRepository matchRepository = (MatchRepository) Proxy.newProxyInstance(MatchRepository.class.getClassLoader(),
+                new Class<?>[]{MatchRepository.class}, (p, m, args) -> {
+                    if (m.getName().equals("findById")) {
+                        loads.incrementAndGet();
+                        return Optional.of(Match.builder()
+                                .id((Long) args[0])
+                                .status(MatchStatus.OPEN)
+                                .registeredTeams(registeredTeams.get())
+                                .scheduledAt(LocalDateTime.now().plusHours(1))
+                                .build());
+                    }
+                    throw new UnsupportedOperationException(m.getName());
+                });
+        DbBulkhead bulkhead = new DbBulkhead(new SimpleMeterRegistry(), 4, 1, 1, 1, 1, Duration.ofMillis(250), 1000);
+        MatchEventBroadcaster created = new MatchEventBroadcaster(matchRepository, bulkhead) {
+            @Override
+            SseEmitter newEmitter(long timeoutMillis) {
+                RecordingEmitter emitter = new RecordingEmitter(failing);
+                synchronized (emitters) {
+                    emitters.add(emitter);
+                }
+                return emitter;
+            }
+        };
+        ReflectionTestUtils.setField(created, "maxSubscribers", maxSubscribers);
+        ReflectionTestUtils.setField(created, "timeout", Duration.ofMinutes(30));
+        return created;
+    }
+
+    private static final class RecordingEmitter extends SseEmitter {
+
+        private final boolean failing;
+        private final AtomicInteger events = new AtomicInteger();
+        private volatile int lastTeams = -1;
+
+        RecordingEmitter(boolean failing) {
+            this.failing = failing;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            if (failing) {
+                throw new IllegalArgumentException("cannot serialize");
+            }
+            for (ResponseBodyEmitter.DataWithMediaType data : builder.build()) {
+                if (data.getData() instanceof MatchDelta delta) {
+                    events.incrementAndGet();
+                    lastTeams = delta.getRegisteredTeams();
+                }
+            }
+        }
+    }
+}
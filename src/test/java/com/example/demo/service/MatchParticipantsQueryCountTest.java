@@ -0,0 +1,66 @@
+package com.example.demo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import com.example.demo.PostgresIntegrationTest;
+import com.example.demo.SqlStatementCounter;
+import com.example.demo.dto.MatchResultRequest;
+import com.example.demo.entity.Match;
+import com.example.demo.entity.MatchType;
+
+/**
+ * The admin results screen loads participants (with optional result and
+ * primary player) and results in two queries, however full the match is.
+ */
+class MatchParticipantsQueryCountTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private MatchResultService matchResultService;
+
+    @Test
+    void participantsAndResultsCostTwoQueriesAtAnySize() {
+        Match small = openMatch(MatchType.SQUAD, 12, 10);
+        fillWithResults(small, 2);
+        Match full = openMatch(MatchType.SQUAD, 12, 10);
+        fillWithResults(full, 12);
+
+        int smallParticipants = SqlStatementCounter.count(
+                () -> assertEquals(2, matchResultService.getParticipantsForMatch(small.getId()).size()));
+        int fullParticipants = SqlStatementCounter.count(
+                () -> assertEquals(12, matchResultService.getParticipantsForMatch(full.getId()).size()));
+        assertEquals(smallParticipants, fullParticipants, "participant query count grew with the match");
+        assertTrue(fullParticipants <= 2, () -> "expected at most 2 queries, got " + fullParticipants);
+
+        int smallResults = SqlStatementCounter.count(
+                () -> assertEquals(1, matchResultService.getMatchResults(small.getId()).size()));
+        int fullResults = SqlStatementCounter.count(
+                () -> assertEquals(6, matchResultService.getMatchResults(full.getId()).size()));
+        assertEquals(smallResults, fullResults, "result query count grew with the match");
+        assertTrue(fullResults <= 2, () -> "expected at most 2 queries, got " + fullResults);
+    }
+
+    /**
+     * Register {@code teams} squads and record a result for every other one.
+     */
+    private void fillWithResults(Match match, int teams) {
+        List<Long> registrationIds = new ArrayList<>(teams);
+        for (int i = 0; i < teams; i++) {
+            registrationIds.add(register(fundedUser(new BigDecimal("100.00")), match).getId());
+        }
+        for (int i = 0; i < teams; i += 2) {
+            matchResultService.updateMatchResult(match.getId(), MatchResultRequest.builder()
+                    .registrationId(registrationIds.get(i))
+                    .position(i + 1)
+                    .kills(i)
+                    .build());
+        }
+    }
+}
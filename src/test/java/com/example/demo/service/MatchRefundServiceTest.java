@@ -0,0 +1,92 @@
+package com.example.demo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.example.demo.PostgresIntegrationTest;
+import com.example.demo.entity.Match;
+import com.example.demo.entity.MatchStatus;
+import com.example.demo.entity.MatchType;
+
+/**
+ * The set-based refund of a cancelled match: one ledger row per paid
+ * registration, running balances per user, and nothing more on a retry.
+ */
+class MatchRefundServiceTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private MatchRefundService matchRefundService;
+
+    @Autowired
+    private WalletService walletService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void refundsEachRegistrationOnceAcrossRetries() {
+        Match match = openMatch(MatchType.SOLO, 10, 20);
+        Long single = fundedUser(new BigDecimal("100.00"));
+        Long other = fundedUser(new BigDecimal("50.00"));
+        Long twice = fundedUser(new BigDecimal("100.00"));
+        register(single, match);
+        register(other, match);
+        register(twice, match);
+        // Registration refuses a second entry, so the second one for the same user is written directly
+        walletService.deductForTournament(twice, new BigDecimal("20.00"), "second entry");
+        jdbcTemplate.update("INSERT INTO registrations (user_id, match_id, status, slot_number, amount_paid,"
+                + " payment_status, registered_at, updated_at)"
+                + " VALUES (?, ?, 'CONFIRMED', 10, 20, 'COMPLETED', now(), now())", twice, match.getId());
+
+        match.setStatus(MatchStatus.CANCELLED);
+        matchRepository.save(match);
+        int first = matchRefundService.refundCancelledMatch(match.getId(), "Match cancelled");
+        int second = matchRefundService.refundCancelledMatch(match.getId(), "Match cancelled");
+
+        assertEquals(4, first);
+        assertEquals(0, second);
+
+        List<Map<String, Object>> refunds = jdbcTemplate.queryForList("SELECT r.id AS registration_id, r.user_id,"
+                + " t.reference_id, t.amount, t.balance_after"
+                + " FROM registrations r JOIN wallet_transactions t ON t.reference_id = 'MREF_' || r.match_id || '_' || r.id"
+                + " WHERE r.match_id = ? ORDER BY r.id", match.getId());
+        assertEquals(4, refunds.size());
+        assertEquals(0L, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM registrations"
+                + " WHERE match_id = ? AND (status <> 'CANCELLED' OR payment_status <> 'REFUNDED')",
+                Long.class, match.getId()));
+
+        // The user with two entries is credited in registration order: 60 -> 80 -> 100
+        List<Object> twiceBalances = refunds.stream()
+                .filter(row -> twice.equals(((Number) row.get("user_id")).longValue()))
+                .map(row -> row.get("balance_after"))
+                .toList();
+        assertEquals(2, twiceBalances.size());
+        assertAmount("80.00", twiceBalances.get(0));
+        assertAmount("100.00", twiceBalances.get(1));
+
+        assertWallet(single, "100.00", "120.00", 3);
+        assertWallet(other, "50.00", "70.00", 3);
+        assertWallet(twice, "100.00", "140.00", 5);
+    }
+
+    private void assertWallet(Long userId, String balance, String totalAdded, long transactionCount) {
+        Map<String, Object> wallet = jdbcTemplate.queryForMap(
+                "SELECT balance, total_added, transaction_count FROM wallet WHERE user_id = ?", userId);
+        assertAmount(balance, wallet.get("balance"));
+        assertAmount(totalAdded, wallet.get("total_added"));
+        assertEquals(transactionCount, ((Number) wallet.get("transaction_count")).longValue());
+        assertEquals(transactionCount, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM wallet_transactions t"
+                + " JOIN wallet w ON w.id = t.wallet_id WHERE w.user_id = ?", Long.class, userId));
+    }
+
+    private static void assertAmount(String expected, Object actual) {
+        assertEquals(0, new BigDecimal(expected).compareTo((BigDecimal) actual), () -> expected + " vs " + actual);
+    }
+}
@@ -0,0 +1,276 @@
+package com.example.demo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.Proxy;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.demo.entity.Match;
+import com.example.demo.entity.MatchStatus;
+import com.example.demo.entity.MatchType;
+import com.example.demo.repository.MatchRepository;
+import com.example.demo.repository.RegistrationRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Cutoff timers against a scheduler that only records what it is asked to
+ * run; tests fire the recorded tasks themselves.
+ */
+class MatchSchedulingServiceTest {
+
+    private static final ZoneId ZONE = ZoneId.of("Asia/Kolkata");
+
+    private final Map<Long, Match> matches = new ConcurrentHashMap<>();
+    private final List<Armed> armed = new ArrayList<>();
+    private final AtomicInteger evaluations = new AtomicInteger();
+    private final AtomicInteger refunds = new AtomicInteger();
+    private volatile int confirmed;
+    private Runnable duringEvaluation = () -> {
+    };
+
+    private final MatchSchedulingService service = newService();
+
+    @Test
+    void createdMatchGetsExactlyOneTimer() {
+        Match match = open(1L, LocalDateTime.now(ZONE).plusHours(2));
+
+        service.track(match);
+        service.track(match);
+        service.resync();
+
+        assertEquals(1, live().size());
+        assertEquals(match.getScheduledAt().minusMinutes(5).atZone(ZONE).toInstant(), live().get(0).at);
+    }
+
+    @Test
+    void rescheduleReplacesTheTimer() {
+        Match match = open(1L, LocalDateTime.now(ZONE).plusHours(2));
+        service.track(match);
+
+        match.setScheduledAt(match.getScheduledAt().plusHours(1));
+        service.track(match);
+
+        assertEquals(2, armed.size());
+        assertTrue(armed.get(0).cancelled);
+        assertEquals(List.of(armed.get(1)), live());
+    }
+
+    @Test
+    void cancelledMatchLosesItsTimer() {
+        Match match = open(1L, LocalDateTime.now(ZONE).plusHours(2));
+        service.track(match);
+
+        match.setStatus(MatchStatus.CANCELLED);
+        service.track(match);
+
+        assertTrue(armed.get(0).cancelled);
+        assertEquals(List.of(), live());
+    }
+
+    @Test
+    void deletedMatchIsNotEvaluatedAndIsPrunedOnResync() {
+        Match match = open(1L, LocalDateTime.now(ZONE).plusMinutes(3));
+        service.resync();
+        matches.remove(1L);
+
+        armed.get(0).run();
+        service.resync();
+
+        assertEquals(0, refunds.get());
+        @SuppressWarnings("unchecked")
+        Map<Long, ?> timers = (Map<Long, ?>) ReflectionTestUtils.getField(service, "timers");
+        assertFalse(timers.containsKey(match.getId()));
+    }
+
+    @Test
+    void cutoffPassedWhileDownIsPickedUpByResync() {
+        // Starts in three minutes: the five-minute cutoff went by while this node was down
+        Match match = open(1L, LocalDateTime.now(ZONE).plusMinutes(3));
+
+        service.resync();
+
+        assertEquals(1, live().size());
+        assertFalse(live().get(0).at.isAfter(Instant.now()));
+        confirmed = 0;
+        live().get(0).run();
+        assertEquals(MatchStatus.CANCELLED, match.getStatus());
+        assertEquals(1, refunds.get());
+    }
+
+    @Test
+    void overlappingResyncDoesNotEvaluateTwice() {
+        open(1L, LocalDateTime.now(ZONE).plusMinutes(3));
+        confirmed = 30;
+        service.resync();
+        // A resync lands while the timer is evaluating, and another after it finished
+        duringEvaluation = service::resync;
+
+        armed.get(0).run();
+        duringEvaluation = () -> {
+        };
+        service.resync();
+
+        assertEquals(1, armed.size());
+        assertEquals(1, evaluations.get());
+    }
+
+    private List<Armed> live() {
+        return armed.stream().filter(a -> !a.cancelled && !a.done).toList();
+    }
+
+    private Match open(Long id, LocalDateTime scheduledAt) {
+        Match match = Match.builder()
+                .id(id)
+                .title("match " + id)
+                .matchType(MatchType.SOLO)
+                .status(MatchStatus.OPEN)
+                .slots(48)
+                .scheduledAt(scheduledAt)
+                .build();
+        matches.put(id, match);
+        return match;
+    }
+
+    private MatchSchedulingService newService() {
+        MatchRepository matchRepository = proxy(MatchRepository.class, (name, args) -> switch (name) {
+            case "findByStatusAndScheduledAtBetween" -> matches.values().stream()
+                    .filter(m -> m.getStatus() == args[0])
+                    .filter(m -> !m.getScheduledAt().isBefore((LocalDateTime) args[1])
+                            && !m.getScheduledAt().isAfter((LocalDateTime) args[2]))
+                    .map(m -> m.toBuilder().build())
+                    .toList();
+            case "findById" -> {
+                evaluations.incrementAndGet();
+                duringEvaluation.run();
+                yield Optional.ofNullable(matches.get((Long) args[0]));
+            }
+            case "save" -> args[0];
+            default -> throw new UnsupportedOperationException(name);
+        });
+        RegistrationRepository registrationRepository = proxy(RegistrationRepository.class, (name, args) -> {
+            if (name.equals("countConfirmedRegistrationsByMatchId")) {
+                return confirmed;
+            }
+            throw new UnsupportedOperationException(name);
+        });
+        TaskScheduler scheduler = proxy(TaskScheduler.class, (name, args) -> {
+            if (name.equals("schedule") && args[1] instanceof Instant at) {
+                Armed task = new Armed((Runnable) args[0], at);
+                armed.add(task);
+                return task;
+            }
+            throw new UnsupportedOperationException(name);
+        });
+        PlatformTransactionManager transactions = proxy(PlatformTransactionManager.class,
+                (name, args) -> name.equals("getTransaction") ? new SimpleTransactionStatus() : null);
+
+        MatchRefundService refundService = new MatchRefundService(null) {
+            @Override
+            public int refundCancelledMatch(Long matchId, String description) {
+                return refunds.incrementAndGet();
+            }
+        };
+        MatchCatalogCache catalogCache = new MatchCatalogCache(null, null, null, null, null) {
+            @Override
+            public void invalidate() {
+            }
+        };
+        MatchEventBroadcaster broadcaster = new MatchEventBroadcaster(null, null) {
+            @Override
+            public void publish(Long matchId) {
+            }
+        };
+        MatchSchedulingService created = new MatchSchedulingService(matchRepository, registrationRepository,
+                refundService, catalogCache, broadcaster, new SlotAllocator(registrationRepository),
+                new BusinessMetrics(new SimpleMeterRegistry()), scheduler, new TransactionTemplate(transactions));
+        ReflectionTestUtils.setField(created, "appTimezone", ZONE.getId());
+        return created;
+    }
+
+    private interface Answer {
+
+        Object answer(String method, Object[] args);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, Answer answer) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                (p, m, args) -> answer.answer(m.getName(), args));
+    }
+
+    // A scheduled task that runs only when the test says so
+    private static final class Armed implements ScheduledFuture<Object> {
+
+        private final Runnable task;
+        private final Instant at;
+        private volatile boolean cancelled;
+        private volatile boolean done;
+
+        Armed(Runnable task, Instant at) {
+            this.task = task;
+            this.at = at;
+        }
+
+        void run() {
+            task.run();
+            done = true;
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(at.toEpochMilli() - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(getDelay(TimeUnit.NANOSECONDS), other.getDelay(TimeUnit.NANOSECONDS));
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            cancelled = true;
+            return true;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        @Override
+        public boolean isDone() {
+            return done || cancelled;
+        }
+
+        @Override
+        public Object get() {
+            return null;
+        }
+
+        @Override
+        public Object get(long timeout, TimeUnit unit) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.demo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class PrincipalCacheTest {
+
+    private PrincipalCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = newCache(100, Duration.ofMinutes(5));
+    }
+
+    @Test
+    void returnsCachedPrincipalUntilTokenExpiry() throws InterruptedException {
+        UserDetails principal = principal("a@example.com");
+        cache.put("a@example.com", principal, System.currentTimeMillis() + 50);
+
+        assertSame(principal, cache.get("a@example.com"));
+        Thread.sleep(80);
+        assertNull(cache.get("a@example.com"));
+    }
+
+    @Test
+    void ttlCapsEntriesForLongLivedTokens() throws InterruptedException {
+        cache = newCache(100, Duration.ofMillis(50));
+        cache.put("a@example.com", principal("a@example.com"), System.currentTimeMillis() + 3_600_000);
+
+        Thread.sleep(80);
+        assertNull(cache.get("a@example.com"));
+    }
+
+    @Test
+    void expiredTokenIsNotCached() {
+        cache.put("a@example.com", principal("a@example.com"), System.currentTimeMillis() - 1);
+
+        assertNull(cache.get("a@example.com"));
+    }
+
+    @Test
+    void invalidateDropsTheEntry() {
+        cache.put("a@example.com", principal("a@example.com"), System.currentTimeMillis() + 60_000);
+        cache.put("b@example.com", principal("b@example.com"), System.currentTimeMillis() + 60_000);
+
+        cache.invalidate("a@example.com");
+        cache.invalidate(null);
+
+        assertNull(cache.get("a@example.com"));
+        assertEquals("b@example.com", cache.get("b@example.com").getUsername());
+        cache.invalidateAll();
+        assertNull(cache.get("b@example.com"));
+    }
+
+    @Test
+    void fullCachePurgesExpiredEntriesBeforeLiveOnes() throws InterruptedException {
+        cache = newCache(2, Duration.ofMinutes(5));
+        cache.put("old@example.com", principal("old@example.com"), System.currentTimeMillis() + 30);
+        cache.put("live@example.com", principal("live@example.com"), System.currentTimeMillis() + 60_000);
+        Thread.sleep(50);
+
+        cache.put("new@example.com", principal("new@example.com"), System.currentTimeMillis() + 60_000);
+
+        assertEquals("live@example.com", cache.get("live@example.com").getUsername());
+        assertEquals("new@example.com", cache.get("new@example.com").getUsername());
+    }
+
+    private static PrincipalCache newCache(int maxSize, Duration ttl) {
+        PrincipalCache cache = new PrincipalCache();
+        ReflectionTestUtils.setField(cache, "maxSize", maxSize);
+        ReflectionTestUtils.setField(cache, "ttl", ttl);
+        return cache;
+    }
+
+    private static UserDetails principal(String email) {
+        return User.withUsername(email).password("").authorities("USER").build();
+    }
+}
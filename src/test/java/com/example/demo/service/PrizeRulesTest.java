@@ -0,0 +1,98 @@
+package com.example.demo.service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.demo.entity.MatchType;
+
+/**
+ * Payout tables must pay exactly what the BigDecimal HALF_UP formulas they
+ * replaced paid, for every match type, entry fee and pool size.
+ */
+class PrizeRulesTest {
+
+    private final PrizeRules prizeRules = new PrizeRules(List.of(
+            new SoloPrizeRule(), new DuoPrizeRule(), new SquadPrizeRule(), new ClashSquadPrizeRule()));
+
+    @Test
+    void payoutTablesMatchLegacyBigDecimalMath() {
+        for (MatchType type : MatchType.values()) {
+            for (int entryFee = 0; entryFee <= 250; entryFee++) {
+                for (int confirmed = 0; confirmed <= 60; confirmed++) {
+                    PayoutTable table = prizeRules.payoutTable(type, entryFee, confirmed);
+                    BigDecimal pool = BigDecimal.valueOf((long) entryFee * confirmed);
+                    for (int position = 0; position <= 7; position++) {
+                        for (int kills = 0; kills <= 4; kills++) {
+                            BigDecimal expected = legacyPrize(type, entryFee, pool, position, kills);
+                            BigDecimal actual = table.prize(position, kills);
+                            String where = type + " fee=" + entryFee + " confirmed=" + confirmed
+                                    + " position=" + position + " kills=" + kills;
+                            assertEquals(0, expected.compareTo(actual),
+                                    () -> where + ": expected " + expected + " but was " + actual);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void nullPositionAndKillsPayNothingExtra() {
+        assertEquals(0, BigDecimal.ZERO.compareTo(prizeRules.payoutTable(MatchType.SQUAD, 50, 20).prize(null, null)));
+        assertEquals(0, BigDecimal.ZERO.compareTo(prizeRules.payoutTable(MatchType.SOLO, 50, 20).prize(1, null)));
+    }
+
+    @Test
+    void headlineSplitsTheFullLobby() {
+        assertArrayEquals(new int[]{400, 300, 200}, prizeRules.headlinePrizes(MatchType.SOLO, 20, 50));
+        assertArrayEquals(new int[]{850, 0, 0}, prizeRules.headlinePrizes(MatchType.CLASH_SQUAD, 100, 10));
+    }
+
+    @Test
+    void ruleTablesCannotBeModifiedByCallers() {
+        for (MatchType type : MatchType.values()) {
+            PrizeRule rule = prizeRules.rule(type);
+            assertThrows(UnsupportedOperationException.class, () -> rule.placementBasisPoints().add(1));
+            assertThrows(UnsupportedOperationException.class, () -> rule.headlineBasisPoints().add(1));
+        }
+        List<Integer> squad = prizeRules.rule(MatchType.SQUAD).placementBasisPoints();
+        assertThrows(UnsupportedOperationException.class, () -> squad.set(0, 10_000));
+        assertEquals(List.of(4000, 3000, 2000), prizeRules.rule(MatchType.SQUAD).placementBasisPoints());
+    }
+
+    // MatchResultService.calculatePrizeAmount before payout tables
+    private static BigDecimal legacyPrize(MatchType type, int entryFee, BigDecimal pool, int position, int kills) {
+        if (type == MatchType.SOLO) {
+            if (kills <= 0) {
+                return BigDecimal.ZERO;
+            }
+            BigDecimal perKill = BigDecimal.valueOf(entryFee)
+                    .multiply(new BigDecimal("0.80"))
+                    .setScale(0, RoundingMode.HALF_UP);
+            return perKill.multiply(BigDecimal.valueOf(kills));
+        }
+        if (position <= 0) {
+            return BigDecimal.ZERO;
+        }
+        BigDecimal[] percents;
+        if (type == MatchType.DUO) {
+            percents = new BigDecimal[]{new BigDecimal("0.40"), new BigDecimal("0.30"), new BigDecimal("0.20"),
+                new BigDecimal("0.05"), new BigDecimal("0.05")};
+        } else if (type == MatchType.CLASH_SQUAD) {
+            percents = new BigDecimal[]{new BigDecimal("0.85")};
+        } else {
+            percents = new BigDecimal[]{new BigDecimal("0.40"), new BigDecimal("0.30"), new BigDecimal("0.20")};
+        }
+        if (position > percents.length) {
+            return BigDecimal.ZERO;
+        }
+        return pool.multiply(percents[position - 1]).setScale(0, RoundingMode.HALF_UP);
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.demo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import com.example.demo.PostgresIntegrationTest;
+import com.example.demo.dto.MatchResultRequest;
+import com.example.demo.entity.Match;
+import com.example.demo.entity.MatchResult;
+import com.example.demo.entity.MatchType;
+import com.example.demo.repository.MatchResultRepository;
+import com.example.demo.repository.WalletRepository;
+
+/**
+ * Settles a full 48-player SOLO match and checks every winner is paid exactly
+ * once: the wallet, the ledger and the result row agree, and retrying the
+ * settlement, even concurrently, credits nothing more. Prints how long the
+ * settlement took.
+ */
+@TestPropertySource(properties = "spring.datasource.hikari.maximum-pool-size=16")
+class PrizeSettlementTest extends PostgresIntegrationTest {
+
+    private static final int PLAYERS = 48;
+    private static final int ENTRY_FEE = 20;
+    private static final BigDecimal START_BALANCE = new BigDecimal("100.00");
+
+    @Autowired
+    private MatchResultService matchResultService;
+
+    @Autowired
+    private MatchResultRepository matchResultRepository;
+
+    @Autowired
+    private WalletRepository walletRepository;
+
+    @Autowired
+    private PrizeRules prizeRules;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void fullSoloMatchIsCreditedOnce() throws Exception {
+        Match match = openMatch(MatchType.SOLO, PLAYERS, ENTRY_FEE);
+        List<Long> userIds = new ArrayList<>(PLAYERS);
+        for (int i = 0; i < PLAYERS; i++) {
+            Long userId = fundedUser(START_BALANCE);
+            userIds.add(userId);
+            Long registrationId = register(userId, match).getId();
+            matchResultService.updateMatchResult(match.getId(), MatchResultRequest.builder()
+                    .registrationId(registrationId)
+                    .position(i + 1)
+                    .kills(i % 7)
+                    .build());
+        }
+        PayoutTable table = prizeRules.payoutTable(match, PLAYERS);
+        Map<Long, BigDecimal> expected = new HashMap<>();
+        BigDecimal expectedTotal = BigDecimal.ZERO;
+        for (MatchResult result : matchResultRepository.findByMatchIdWithRegistrationAndUser(match.getId())) {
+            BigDecimal prize = table.prize(result.getPosition(), result.getKills());
+            expected.put(result.getUser().getId(), prize);
+            expectedTotal = expectedTotal.add(prize);
+        }
+        assertTrue(expectedTotal.signum() > 0, "some result should win a prize");
+
+        long started = System.nanoTime();
+        matchResultService.creditAllPrizes(match.getId());
+        long elapsedMs = (System.nanoTime() - started) / 1_000_000;
+        System.out.printf("settled %d SOLO results in %dms%n", PLAYERS, elapsedMs);
+
+        assertPaidOnce(match, userIds, expected);
+
+        // A retry after success finds nothing to credit
+        String retry = matchResultService.creditAllPrizes(match.getId());
+        assertTrue(retry.endsWith(" to 0 winners"), retry);
+        // Neither do concurrent retries
+        List<Throwable> failures = runConcurrently(8, worker -> matchResultService.creditAllPrizes(match.getId()));
+        assertEquals(List.of(), failures);
+        assertPaidOnce(match, userIds, expected);
+    }
+
+    @Test
+    void concurrentSettlementsPayEachWinnerOnce() throws Exception {
+        Match match = openMatch(MatchType.SOLO, PLAYERS, ENTRY_FEE);
+        List<Long> userIds = new ArrayList<>(PLAYERS);
+        Map<Long, BigDecimal> expected = new HashMap<>();
+        PayoutTable table = prizeRules.payoutTable(match, PLAYERS);
+        for (int i = 0; i < PLAYERS; i++) {
+            Long userId = fundedUser(START_BALANCE);
+            userIds.add(userId);
+            Long registrationId = register(userId, match).getId();
+            matchResultService.updateMatchResult(match.getId(), MatchResultRequest.builder()
+                    .registrationId(registrationId)
+                    .position(i + 1)
+                    .kills(i % 5)
+                    .build());
+            expected.put(userId, table.prize(i + 1, i % 5));
+        }
+
+        List<Throwable> failures = runConcurrently(8, worker -> matchResultService.creditAllPrizes(match.getId()));
+
+        assertEquals(List.of(), failures);
+        assertPaidOnce(match, userIds, expected);
+    }
+
+    private void assertPaidOnce(Match match, List<Long> userIds, Map<Long, BigDecimal> expected) {
+        for (Long userId : userIds) {
+            BigDecimal prize = expected.get(userId);
+            BigDecimal balance = walletRepository.findByUserId(userId).orElseThrow().getBalance();
+            assertAmount(START_BALANCE.subtract(BigDecimal.valueOf(ENTRY_FEE)).add(prize), balance);
+        }
+        for (MatchResult result : matchResultRepository.findByMatchIdWithRegistrationAndUser(match.getId())) {
+            BigDecimal prize = expected.get(result.getUser().getId());
+            // Results that win nothing stay uncredited, as before
+            assertEquals(prize.signum() > 0, result.getPrizeCredited());
+            assertAmount(prize, result.getPrizeAmount());
+            Integer ledgerRows = jdbcTemplate.queryForObject(
+                    "SELECT count(*) FROM wallet_transactions WHERE reference_id = ?",
+                    Integer.class, "PRIZE_MR_" + result.getId());
+            assertEquals(prize.signum() > 0 ? 1 : 0, ledgerRows);
+        }
+    }
+
+    private static void assertAmount(BigDecimal expected, BigDecimal actual) {
+        assertEquals(0, expected.compareTo(actual), () -> "expected " + expected + " but was " + actual);
+    }
+}
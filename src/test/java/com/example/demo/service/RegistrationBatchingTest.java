@@ -0,0 +1,58 @@
+package com.example.demo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Locale;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.demo.PostgresIntegrationTest;
+import com.example.demo.SqlStatementCounter;
+import com.example.demo.entity.Match;
+import com.example.demo.entity.MatchType;
+
+/**
+ * With pooled sequence ids and JDBC batching, a squad's four players go out
+ * as one batched insert, so registering a squad costs the same statements as
+ * registering a solo player.
+ */
+class RegistrationBatchingTest extends PostgresIntegrationTest {
+
+    @Test
+    void squadRegistrationCostsTheSameStatementsAsSolo() {
+        Match solo = openMatch(MatchType.SOLO, 48, 10);
+        Match squad = openMatch(MatchType.SQUAD, 12, 10);
+        // First registrations load each match's slot bitmap and the id blocks
+        register(fundedUser(new BigDecimal("100.00")), solo);
+        register(fundedUser(new BigDecimal("100.00")), squad);
+
+        Long soloUser = fundedUser(new BigDecimal("100.00"));
+        Long squadUser = fundedUser(new BigDecimal("100.00"));
+        List<String> soloStatements = withoutIdFetches(SqlStatementCounter.statements(() -> register(soloUser, solo)));
+        List<String> squadStatements = withoutIdFetches(SqlStatementCounter.statements(() -> register(squadUser, squad)));
+
+        assertEquals(1, inserts(squadStatements, "registration_players"), () -> "players not batched: " + squadStatements);
+        assertEquals(1, inserts(squadStatements, "registrations"));
+        assertEquals(soloStatements.size(), squadStatements.size(),
+                () -> "solo " + soloStatements + "\nsquad " + squadStatements);
+    }
+
+    // A pooled sequence fetches a new block every 50 ids; where that lands is not what this test measures
+    private static List<String> withoutIdFetches(List<String> statements) {
+        return statements.stream()
+                .filter(sql -> !normalized(sql).startsWith("select nextval"))
+                .toList();
+    }
+
+    private static long inserts(List<String> statements, String table) {
+        return statements.stream()
+                .filter(sql -> normalized(sql).startsWith("insert into " + table + " "))
+                .count();
+    }
+
+    private static String normalized(String sql) {
+        return sql.replace("\"", "").replaceAll("\\s+", " ").trim().toLowerCase(Locale.ROOT);
+    }
+}
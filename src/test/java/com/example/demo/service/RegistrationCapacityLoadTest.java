@@ -0,0 +1,91 @@
+package com.example.demo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+
+import com.example.demo.PostgresIntegrationTest;
+import com.example.demo.entity.Match;
+import com.example.demo.entity.MatchType;
+import com.example.demo.repository.RegistrationRepository;
+import com.example.demo.repository.WalletRepository;
+
+/**
+ * 500 players register for one 48-slot SOLO match at the same moment. The
+ * match fills exactly, no slot is handed out twice, only the admitted
+ * players are charged, and the rest never reach their wallet. Prints per-registration latency percentiles.
+ */
+@TestPropertySource(properties = "spring.datasource.hikari.maximum-pool-size=32")
+class RegistrationCapacityLoadTest extends PostgresIntegrationTest {
+
+    private static final int PLAYERS = 500;
+    private static final int SLOTS = 48;
+    private static final BigDecimal START_BALANCE = new BigDecimal("100.00");
+    private static final int ENTRY_FEE = 10;
+
+    @Autowired
+    private RegistrationRepository registrationRepository;
+
+    @Autowired
+    private WalletRepository walletRepository;
+
+    @Test
+    void burstFillsTheMatchExactlyOnce() throws Exception {
+        Match match = openMatch(MatchType.SOLO, SLOTS, ENTRY_FEE);
+        List<Long> userIds = new ArrayList<>(PLAYERS);
+        for (int i = 0; i < PLAYERS; i++) {
+            userIds.add(fundedUser(START_BALANCE));
+        }
+
+        AtomicInteger admitted = new AtomicInteger();
+        long[] latencies = new long[PLAYERS];
+        List<Throwable> failures = runConcurrently(PLAYERS, i -> {
+            long started = System.nanoTime();
+            try {
+                register(userIds.get(i), match);
+                admitted.incrementAndGet();
+            } finally {
+                latencies[i] = System.nanoTime() - started;
+            }
+        });
+
+        assertEquals(SLOTS, admitted.get());
+        assertEquals(PLAYERS - SLOTS, failures.size());
+        Set<String> reasons = Set.of("Match is full", "No slots available");
+        assertTrue(failures.stream().allMatch(e -> reasons.contains(e.getMessage())),
+                () -> "unexpected failure: " + failures.stream().filter(e -> !reasons.contains(e.getMessage())).findFirst());
+
+        assertEquals(SLOTS, matchRepository.findById(match.getId()).orElseThrow().getRegisteredTeams());
+        assertEquals(SLOTS, registrationRepository.countConfirmedRegistrationsByMatchId(match.getId()));
+        List<Integer> slots = registrationRepository.findAllocatedSlotsByMatchId(match.getId());
+        assertEquals(SLOTS, new HashSet<>(slots).size());
+        assertTrue(slots.stream().allMatch(s -> s >= 1 && s <= SLOTS));
+
+        BigDecimal charged = BigDecimal.ZERO;
+        for (Long userId : userIds) {
+            charged = charged.add(START_BALANCE.subtract(walletRepository.findByUserId(userId).orElseThrow().getBalance()));
+        }
+        assertEquals(0, BigDecimal.valueOf((long) SLOTS * ENTRY_FEE).compareTo(charged));
+        // Losers fail at the reservation, before the debit: their ledger holds only the seed credit
+        long untouched = userIds.stream()
+                .filter(userId -> walletRepository.findByUserId(userId).orElseThrow().getTransactionCount() == 1L)
+                .count();
+        assertEquals(PLAYERS - SLOTS, untouched);
+
+        Arrays.sort(latencies);
+        System.out.printf("%d concurrent registrations: p50=%dms p99=%dms max=%dms%n", PLAYERS,
+                latencies[PLAYERS / 2] / 1_000_000, latencies[PLAYERS * 99 / 100] / 1_000_000,
+                latencies[PLAYERS - 1] / 1_000_000);
+    }
+}
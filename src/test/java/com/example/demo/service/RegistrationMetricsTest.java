@@ -0,0 +1,61 @@
+package com.example.demo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import com.example.demo.PostgresIntegrationTest;
+import com.example.demo.dto.RegistrationRequest;
+import com.example.demo.entity.Match;
+import com.example.demo.entity.MatchType;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * registration.attempts tells the expected refusals apart from errors, so a
+ * full match or an empty wallet does not read as a failure on dashboards.
+ */
+class RegistrationMetricsTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private MeterRegistry registry;
+
+    @Test
+    void eachRefusalIsTaggedWithItsOwnOutcome() {
+        Match match = openMatch(MatchType.SOLO, 1, 10);
+        Long first = fundedUser(new BigDecimal("100.00"));
+
+        assertOutcome("success", () -> register(first, match));
+        assertOutcome("duplicate", () -> assertThrows(RuntimeException.class, () -> register(first, match)));
+        assertOutcome("full", () -> assertThrows(RuntimeException.class,
+                () -> register(fundedUser(new BigDecimal("100.00")), match)));
+
+        Match roomy = openMatch(MatchType.SOLO, 48, 10);
+        assertOutcome("insufficient_funds", () -> assertThrows(RuntimeException.class,
+                () -> register(fundedUser(new BigDecimal("5.00")), roomy)));
+        // Anything else is still a failure, e.g. a team of the wrong size
+        RegistrationRequest noPlayers = registrationRequest(roomy);
+        noPlayers.setPlayers(List.of());
+        assertOutcome("failure", () -> assertThrows(RuntimeException.class,
+                () -> registrationService.registerForMatch(first, noPlayers)));
+    }
+
+    private void assertOutcome(String outcome, Runnable attempt) {
+        long before = attempts(outcome);
+        attempt.run();
+        assertEquals(before + 1, attempts(outcome), outcome);
+    }
+
+    private long attempts(String outcome) {
+        Timer timer = registry.find("registration.attempts")
+                .tags("match_type", "solo", "outcome", outcome)
+                .timer();
+        return timer != null ? timer.count() : 0;
+    }
+}
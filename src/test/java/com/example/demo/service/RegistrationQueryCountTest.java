@@ -0,0 +1,56 @@
+package com.example.demo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import com.example.demo.PostgresIntegrationTest;
+import com.example.demo.SqlStatementCounter;
+import com.example.demo.dto.MatchResultRequest;
+import com.example.demo.dto.RegistrationResponse;
+import com.example.demo.entity.Match;
+import com.example.demo.entity.MatchType;
+
+/**
+ * "My registrations" must cost the same few queries whether the player has
+ * one registration or many, with teams and results attached.
+ */
+class RegistrationQueryCountTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private MatchResultService matchResultService;
+
+    @Test
+    void userRegistrationsCostThreeQueriesAtAnySize() {
+        Long userId = fundedUser(new BigDecimal("10000.00"));
+        registerWithResult(userId, true);
+
+        int single = SqlStatementCounter.count(
+                () -> assertEquals(1, registrationService.getUserRegistrations(userId).size()));
+
+        for (int i = 2; i <= 20; i++) {
+            registerWithResult(userId, i % 2 == 0);
+        }
+        int many = SqlStatementCounter.count(
+                () -> assertEquals(20, registrationService.getUserRegistrations(userId).size()));
+
+        assertEquals(single, many, "query count grew with the number of registrations");
+        assertTrue(many <= 3, () -> "expected at most 3 queries, got " + many);
+    }
+
+    private void registerWithResult(Long userId, boolean withResult) {
+        Match match = openMatch(MatchType.SQUAD, 12, 10);
+        RegistrationResponse registration = register(userId, match);
+        if (withResult) {
+            matchResultService.updateMatchResult(match.getId(), MatchResultRequest.builder()
+                    .registrationId(registration.getId())
+                    .position(1)
+                    .kills(3)
+                    .build());
+        }
+    }
+}
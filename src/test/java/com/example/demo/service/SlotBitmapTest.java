@@ -0,0 +1,105 @@
+package com.example.demo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.demo.repository.RegistrationRepository;
+import com.example.demo.service.SlotAllocator.SlotBitmap;
+
+class SlotBitmapTest {
+
+    @Test
+    void claimsEverySlotOnceThenReportsFull() {
+        SlotBitmap bitmap = new SlotBitmap(48);
+        Set<Integer> claimed = new HashSet<>();
+        for (int i = 0; i < 48; i++) {
+            int slot = bitmap.claimRandom();
+            assertTrue(slot >= 1 && slot <= 48, () -> "slot out of range: " + slot);
+            assertTrue(claimed.add(slot), () -> "slot claimed twice: " + slot);
+        }
+        assertEquals(-1, bitmap.claimRandom());
+    }
+
+    @Test
+    void clearedSlotIsTheOnlyOneLeft() {
+        SlotBitmap bitmap = new SlotBitmap(100); // spans two words
+        for (int slot = 1; slot <= 100; slot++) {
+            bitmap.mark(slot);
+        }
+        bitmap.clear(70);
+        assertEquals(70, bitmap.claimRandom());
+        assertEquals(-1, bitmap.claimRandom());
+    }
+
+    @Test
+    void outOfRangeSlotsAreIgnored() {
+        SlotBitmap bitmap = new SlotBitmap(2);
+        bitmap.mark(0);
+        bitmap.mark(3);
+        bitmap.mark(-5);
+        Set<Integer> claimed = Set.of(bitmap.claimRandom(), bitmap.claimRandom());
+        assertEquals(Set.of(1, 2), claimed);
+        assertEquals(-1, bitmap.claimRandom());
+        assertEquals(-1, new SlotBitmap(0).claimRandom());
+    }
+
+    @Test
+    void allocatorRefusesAFullMatchWithTheFullOutcome() {
+        RegistrationRepository repository = (RegistrationRepository) Proxy.newProxyInstance(
+                RegistrationRepository.class.getClassLoader(), new Class<?>[]{RegistrationRepository.class},
+                (proxy, method, args) -> method.getName().equals("findAllocatedSlotsByMatchId") ? List.of(1, 2) : null);
+        SlotAllocator allocator = new SlotAllocator(repository);
+
+        RegistrationRejectedException rejected = assertThrows(RegistrationRejectedException.class,
+                () -> allocator.claim(7L, 2));
+
+        assertEquals(RegistrationRejectedException.FULL, rejected.outcome());
+    }
+
+    @Test
+    void concurrentClaimsNeverShareASlot() throws Exception {
+        int slots = 130;
+        int threads = 32;
+        for (int round = 0; round < 50; round++) {
+            SlotBitmap bitmap = new SlotBitmap(slots);
+            ConcurrentLinkedQueue<Integer> claimed = new ConcurrentLinkedQueue<>();
+            ExecutorService pool = Executors.newFixedThreadPool(threads);
+            try {
+                CountDownLatch start = new CountDownLatch(1);
+                List<Future<?>> futures = new ArrayList<>();
+                for (int t = 0; t < threads; t++) {
+                    futures.add(pool.submit(() -> {
+                        start.await();
+                        for (int slot = bitmap.claimRandom(); slot > 0; slot = bitmap.claimRandom()) {
+                            claimed.add(slot);
+                        }
+                        return null;
+                    }));
+                }
+                start.countDown();
+                for (Future<?> future : futures) {
+                    future.get(30, TimeUnit.SECONDS);
+                }
+            } finally {
+                pool.shutdownNow();
+            }
+            assertEquals(slots, claimed.size());
+            assertEquals(slots, new HashSet<>(claimed).size());
+        }
+    }
+}
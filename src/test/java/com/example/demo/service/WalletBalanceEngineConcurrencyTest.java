@@ -0,0 +1,160 @@
+package com.example.demo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+
+import com.example.demo.PostgresIntegrationTest;
+import com.example.demo.dto.UpiAdminActionRequest;
+import com.example.demo.entity.TransactionType;
+import com.example.demo.entity.UpiPayment;
+import com.example.demo.entity.UpiPaymentStatus;
+import com.example.demo.entity.Wallet;
+import com.example.demo.repository.UpiPaymentRepository;
+import com.example.demo.repository.WalletRepository;
+import com.example.demo.repository.WalletTransactionRepository;
+
+/**
+ * 64 writers hitting one wallet at once: every debit and credit lands exactly
+ * once, the balance never goes negative, and the running totals agree with the
+ * ledger. One connection per writer, so the row lock is what serializes them.
+ */
+@TestPropertySource(properties = "spring.datasource.hikari.maximum-pool-size=64")
+class WalletBalanceEngineConcurrencyTest extends PostgresIntegrationTest {
+
+    private static final int WRITERS = 64;
+
+    @Autowired
+    private WalletRepository walletRepository;
+
+    @Autowired
+    private WalletTransactionRepository walletTransactionRepository;
+
+    @Autowired
+    private UpiPaymentRepository upiPaymentRepository;
+
+    @Autowired
+    private UpiPaymentService upiPaymentService;
+
+    @Test
+    void concurrentCreditsAndDebitsLoseNoUpdates() throws Exception {
+        Long userId = fundedUser(new BigDecimal("100.00"));
+        int rounds = 10;
+
+        List<Throwable> failures = runConcurrently(WRITERS, worker -> {
+            for (int i = 0; i < rounds; i++) {
+                walletBalanceEngine.credit(userId, new BigDecimal("5.00"), "credit", null);
+                walletBalanceEngine.debit(userId, new BigDecimal("3.00"), "debit", null);
+            }
+        });
+
+        assertEquals(List.of(), failures);
+        int operations = WRITERS * rounds;
+        Wallet wallet = walletRepository.findByUserId(userId).orElseThrow();
+        assertAmount(new BigDecimal("100.00").add(new BigDecimal("2.00").multiply(BigDecimal.valueOf(operations))),
+                wallet.getBalance());
+        assertAmount(new BigDecimal("100.00").add(new BigDecimal("5.00").multiply(BigDecimal.valueOf(operations))),
+                wallet.getTotalAdded());
+        assertAmount(new BigDecimal("3.00").multiply(BigDecimal.valueOf(operations)), wallet.getTotalSpent());
+        assertEquals(1L + 2L * operations, wallet.getTransactionCount());
+        assertEquals(1L + 2L * operations, walletTransactionRepository.countByWalletId(wallet.getId()));
+    }
+
+    @Test
+    void concurrentDebitsNeverOverdraw() throws Exception {
+        Long userId = fundedUser(new BigDecimal("32.00"));
+        AtomicInteger debited = new AtomicInteger();
+
+        List<Throwable> failures = runConcurrently(WRITERS, worker -> {
+            walletBalanceEngine.debit(userId, BigDecimal.ONE, "debit", null);
+            debited.incrementAndGet();
+        });
+
+        assertEquals(32, debited.get());
+        assertEquals(WRITERS - 32, failures.size());
+        assertTrue(failures.stream().allMatch(e -> "Insufficient balance".equals(e.getMessage())));
+        Wallet wallet = walletRepository.findByUserId(userId).orElseThrow();
+        assertAmount(BigDecimal.ZERO, wallet.getBalance());
+        // Each successful debit saw a distinct balance: 31, 30, ... 0
+        Set<Integer> balancesAfter = walletTransactionRepository
+                .findByWalletIdAndTypeOrderByCreatedAtDesc(wallet.getId(), TransactionType.DEBIT)
+                .stream()
+                .map(t -> t.getBalanceAfter().intValueExact())
+                .collect(Collectors.toSet());
+        assertEquals(32, balancesAfter.size());
+        assertTrue(balancesAfter.stream().allMatch(b -> b >= 0 && b < 32));
+    }
+
+    @Test
+    void concurrentFirstCreditsShareOneNewWallet() throws Exception {
+        Long userId = newUser();
+
+        List<Throwable> failures = runConcurrently(WRITERS, worker ->
+                walletBalanceEngine.credit(userId, new BigDecimal("5.00"), "prize", null));
+
+        assertEquals(List.of(), failures);
+        Wallet wallet = walletRepository.findByUserId(userId).orElseThrow();
+        assertAmount(new BigDecimal("5.00").multiply(BigDecimal.valueOf(WRITERS)), wallet.getBalance());
+        assertAmount(wallet.getBalance(), wallet.getTotalAdded());
+        assertEquals((long) WRITERS, wallet.getTransactionCount());
+    }
+
+    @Test
+    void racingAdminActionsSettleAPaymentOnce() throws Exception {
+        Long userId = newUser();
+        UpiPayment payment = submittedPayment(userId, new BigDecimal("250.00"));
+
+        List<Throwable> failures = runConcurrently(WRITERS, worker ->
+                upiPaymentService.adminAction(action(payment.getId(), worker % 2 == 0 ? "APPROVE" : "REJECT")));
+
+        assertEquals(WRITERS - 1, failures.size());
+        UpiPaymentStatus status = upiPaymentRepository.findById(payment.getId()).orElseThrow().getStatus();
+        BigDecimal expected = status == UpiPaymentStatus.APPROVED ? new BigDecimal("250.00") : BigDecimal.ZERO;
+        assertAmount(expected, walletRepository.findByUserId(userId).map(Wallet::getBalance).orElse(BigDecimal.ZERO));
+    }
+
+    @Test
+    void rejectedPaymentCannotBeApproved() {
+        Long userId = newUser();
+        UpiPayment payment = submittedPayment(userId, new BigDecimal("250.00"));
+
+        upiPaymentService.adminAction(action(payment.getId(), "APPROVE"));
+        assertThrows(RuntimeException.class, () -> upiPaymentService.adminAction(action(payment.getId(), "REJECT")));
+        assertThrows(RuntimeException.class, () -> upiPaymentService.adminAction(action(payment.getId(), "APPROVE")));
+
+        assertEquals(UpiPaymentStatus.APPROVED, upiPaymentRepository.findById(payment.getId()).orElseThrow().getStatus());
+        assertAmount(new BigDecimal("250.00"), walletRepository.findByUserId(userId).orElseThrow().getBalance());
+    }
+
+    private UpiPayment submittedPayment(Long userId, BigDecimal amount) {
+        return upiPaymentRepository.save(UpiPayment.builder()
+                .user(userRepository.getReferenceById(userId))
+                .amount(amount)
+                .referenceId("UPI_TEST_" + UUID.randomUUID())
+                .utr("UTR" + System.nanoTime())
+                .status(UpiPaymentStatus.UTR_SUBMITTED)
+                .build());
+    }
+
+    private static UpiAdminActionRequest action(Long paymentId, String action) {
+        UpiAdminActionRequest request = new UpiAdminActionRequest();
+        request.setPaymentId(paymentId);
+        request.setAction(action);
+        return request;
+    }
+
+    private static void assertAmount(BigDecimal expected, BigDecimal actual) {
+        assertEquals(0, expected.compareTo(actual), () -> "expected " + expected + " but was " + actual);
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.demo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.example.demo.PostgresIntegrationTest;
+import com.example.demo.repository.WalletRepository;
+
+/**
+ * The materialized wallet totals track the ledger through every kind of
+ * mutation, and the reconciler puts back totals that were set wrong or never
+ * backfilled.
+ */
+class WalletTotalsReconcilerTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private WalletService walletService;
+
+    @Autowired
+    private WalletTotalsReconciler reconciler;
+
+    @Autowired
+    private WalletRepository walletRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void everyMutationKeepsTotalsEqualToTheLedger() {
+        Long userId = fundedUser(new BigDecimal("100.00"));
+        walletService.deductForTournament(userId, new BigDecimal("30.00"), "entry");
+        walletService.refundForTournament(userId, new BigDecimal("30.00"), "refund");
+        walletService.deductForTournament(userId, new BigDecimal("20.00"), "entry");
+        walletService.creditPrize(userId, new BigDecimal("55.50"), "prize");
+
+        Map<String, Object> totals = totals(userId);
+        assertAmount("185.50", totals.get("total_added"));
+        assertAmount("50.00", totals.get("total_spent"));
+        assertEquals(5L, ((Number) totals.get("transaction_count")).longValue());
+        assertAmount("135.50", totals.get("balance"));
+        assertMatchesLedger(userId);
+    }
+
+    @Test
+    void reconcileRepairsTotalsThatDrifted() {
+        Long userId = fundedUser(new BigDecimal("40.00"));
+        walletService.deductForTournament(userId, new BigDecimal("15.00"), "entry");
+        Long walletId = walletRepository.findByUserId(userId).orElseThrow().getId();
+        jdbcTemplate.update("UPDATE wallet SET total_added = 1, total_spent = 999, transaction_count = 7 WHERE id = ?",
+                walletId);
+
+        reconciler.reconcile();
+
+        assertMatchesLedger(userId);
+        assertAmount("40.00", totals(userId).get("total_added"));
+    }
+
+    @Test
+    void backfillFillsTotalsThatWereNeverComputed() {
+        Long userId = fundedUser(new BigDecimal("25.00"));
+        walletService.creditPrize(userId, new BigDecimal("5.00"), "prize");
+        Long walletId = walletRepository.findByUserId(userId).orElseThrow().getId();
+        jdbcTemplate.update("UPDATE wallet SET total_added = NULL, total_spent = NULL, transaction_count = NULL WHERE id = ?",
+                walletId);
+
+        // NULL totals are left alone by increments until backfilled
+        walletService.deductForTournament(userId, new BigDecimal("10.00"), "entry");
+        assertNull(totals(userId).get("total_added"));
+
+        reconciler.backfill();
+
+        assertMatchesLedger(userId);
+        assertEquals(3L, ((Number) totals(userId).get("transaction_count")).longValue());
+    }
+
+    private Map<String, Object> totals(Long userId) {
+        return jdbcTemplate.queryForMap(
+                "SELECT balance, total_added, total_spent, transaction_count FROM wallet WHERE user_id = ?", userId);
+    }
+
+    private void assertMatchesLedger(Long userId) {
+        Map<String, Object> ledger = jdbcTemplate.queryForMap("SELECT"
+                + " COALESCE(SUM(t.amount) FILTER (WHERE t.type = 'CREDIT'), 0) AS added,"
+                + " COALESCE(SUM(t.amount) FILTER (WHERE t.type = 'DEBIT'), 0) AS spent,"
+                + " COUNT(t.id) AS cnt"
+                + " FROM wallet w LEFT JOIN wallet_transactions t ON t.wallet_id = w.id WHERE w.user_id = ?", userId);
+        Map<String, Object> totals = totals(userId);
+        assertEquals(0, ((BigDecimal) ledger.get("added")).compareTo((BigDecimal) totals.get("total_added")), "total_added");
+        assertEquals(0, ((BigDecimal) ledger.get("spent")).compareTo((BigDecimal) totals.get("total_spent")), "total_spent");
+        assertEquals(((Number) ledger.get("cnt")).longValue(), ((Number) totals.get("transaction_count")).longValue());
+    }
+
+    private static void assertAmount(String expected, Object actual) {
+        assertEquals(0, new BigDecimal(expected).compareTo((BigDecimal) actual), () -> expected + " vs " + actual);
+    }
+}